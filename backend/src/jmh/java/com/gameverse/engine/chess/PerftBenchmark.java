@@ -0,0 +1,75 @@
+package com.gameverse.engine.chess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the chess engine
+ *
+ * perft walks the full legal move tree to a fixed depth, which exercises move
+ * generation and make/unmake. validateMove measures what a single move
+ * submission costs the server. Run with:
+ *
+ *   mvn -Pbenchmarks test-compile exec:exec
+ *
+ * Add -prof gc to the JMH arguments to confirm the hot paths allocate nothing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Param({"start", "kiwipete"})
+    private String position;
+
+    private ChessPosition chess;
+    private int[] moves;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        chess = "kiwipete".equals(position) ? ChessPosition.fromFen(KIWIPETE) : ChessPosition.startPosition();
+        moves = new int[ChessPosition.MAX_MOVES];
+
+        // Reference node counts; a benchmark of a wrong move generator is meaningless
+        long expected = "kiwipete".equals(position) ? 97862L : 8902L;
+        long nodes = chess.perft(3);
+        if (nodes != expected) {
+            throw new IllegalStateException("perft(3) returned " + nodes + ", expected " + expected);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long perft4() {
+        return chess.perft(4);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int generateLegalMoves() {
+        return chess.generateLegalMoves(moves);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int validateMove() {
+        // e2-e4: accepted in the start position, rejected in Kiwipete; both cost one generation pass
+        return chess.findLegalMove(12, 28, 0);
+    }
+}
@@ -1,22 +1,35 @@
 package com.gameverse.config;
 
 import com.gameverse.service.GameSessionService;
+import com.gameverse.service.SessionRoutingService;
+import com.gameverse.service.SpectatorService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Component
 public class GameWebSocketEventListener {
 
+    private static final Pattern SPECTATE_TOPIC = Pattern.compile("/topic/game/(\\d+)/spectate");
+
     @Autowired
     private GameSessionService gameSessionService;
 
+    @Autowired
+    private SessionRoutingService sessionRoutingService;
+
+    @Autowired
+    private SpectatorService spectatorService;
+
     // Track session to game session mapping
     private final Map<String, SessionInfo> sessionMapping = new ConcurrentHashMap<>();
 
@@ -50,7 +63,7 @@ public class GameWebSocketEventListener {
                 sessionMapping.put(sessionId, new SessionInfo(gameSessionIdLong, userIdLong));
                 
                 // Notify game session service of connection
-                gameSessionService.handlePlayerConnection(gameSessionIdLong, userIdLong, sessionId);
+                sessionRoutingService.handlePlayerConnection(gameSessionIdLong, userIdLong, sessionId);
                 
             } catch (NumberFormatException e) {
                 System.err.println("Invalid session or user ID in WebSocket headers");
@@ -58,6 +71,30 @@ public class GameWebSocketEventListener {
         }
     }
 
+    /**
+     * Start new spectators from a snapshot; live frames follow on the same subscription
+     */
+    @EventListener
+    public void handleWebSocketSubscribeListener(SessionSubscribeEvent event) {
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = headerAccessor.getDestination();
+        if (destination == null) {
+            return;
+        }
+        Matcher matcher = SPECTATE_TOPIC.matcher(destination);
+        if (!matcher.matches()) {
+            return;
+        }
+
+        try {
+            Long gameSessionId = Long.parseLong(matcher.group(1));
+            spectatorService.sendSnapshot(headerAccessor.getSessionId(), headerAccessor.getSubscriptionId(),
+                destination, gameSessionService.getSpectatorSnapshot(gameSessionId));
+        } catch (Exception e) {
+            System.err.println("Error sending spectator snapshot: " + e.getMessage());
+        }
+    }
+
     @EventListener
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
@@ -66,7 +103,7 @@ public class GameWebSocketEventListener {
         SessionInfo sessionInfo = sessionMapping.remove(sessionId);
         if (sessionInfo != null) {
             // Notify game session service of disconnection
-            gameSessionService.handlePlayerDisconnection(
+            sessionRoutingService.handlePlayerDisconnection(
                 sessionInfo.getSessionId(), 
                 sessionInfo.getUserId(), 
                 sessionId
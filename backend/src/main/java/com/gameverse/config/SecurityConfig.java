@@ -58,6 +58,7 @@ public class SecurityConfig {
                 .requestMatchers("/public/**").permitAll()
                 .requestMatchers("/ws/**").permitAll() // WebSocket endpoint
                 .requestMatchers("/ws-direct/**").permitAll()
+                .requestMatchers("/internal/cluster/**").permitAll() // Checked against the cluster token
                 
                 // Health and monitoring endpoints
                 .requestMatchers("/actuator/health").permitAll()
@@ -62,11 +62,16 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
  * Game Sessions:
  * - /topic/game/{sessionId} - Game state updates for all players
  * - /topic/game/{sessionId}/moves - Real-time move broadcasting
+ * - /topic/game/{sessionId}/spectate - Shared (optionally delayed) spectator stream; a new
+ *   subscription first receives a snapshot of the current view
  * - /queue/game/{sessionId}/player/{userId} - Private player messages
  * 
  * Rooms:
- * - /topic/room/{roomId} - Room chat messages
- * - /topic/room/{roomId}/users - User join/leave notifications
+ * - /topic/room/{roomId}/messages - Room chat messages
+ * - /topic/room/{roomId}/participants - Versioned participant deltas (join, leave, idle removals)
+ * - /user/queue/room/{roomId}/participants - Full participant snapshot, sent on join and on
+ *   request to /app/room/{roomId}/participants/snapshot when a client misses a version
+ * - /user/queue/room/{roomId}/chat/error - Refused sends, with retryAfterMs when rate limited or busy
  * 
  * User Notifications:
  * - /queue/user/{userId}/notifications - Private notifications
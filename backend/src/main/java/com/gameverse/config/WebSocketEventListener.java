@@ -1,6 +1,6 @@
 package com.gameverse.config;
 
-import com.gameverse.service.RoomService;
+import com.gameverse.service.RoomRoutingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
@@ -15,7 +15,7 @@ import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 public class WebSocketEventListener {
 
     @Autowired
-    private RoomService roomService;
+    private RoomRoutingService roomRoutingService;
 
     /**
      * Handle WebSocket connection events
@@ -56,7 +56,7 @@ public class WebSocketEventListener {
             
             try {
                 // Remove user from room when they disconnect
-                roomService.leaveRoom(roomId, userId);
+                roomRoutingService.leaveRoom(roomId, userId);
                 System.out.println("User " + userId + " automatically left room " + roomId + " due to disconnection");
             } catch (Exception e) {
                 System.err.println("Error handling user disconnection: " + e.getMessage());
@@ -67,7 +67,7 @@ public class WebSocketEventListener {
         if (userIdObj instanceof Long) {
             Long userId = (Long) userIdObj;
             try {
-                roomService.leaveAllRooms(userId);
+                roomRoutingService.leaveAllRooms(userId);
                 System.out.println("User " + userId + " left all rooms due to disconnection");
             } catch (Exception e) {
                 System.err.println("Error handling user disconnection from all rooms: " + e.getMessage());
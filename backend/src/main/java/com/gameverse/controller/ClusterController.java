@@ -0,0 +1,213 @@
+package com.gameverse.controller;
+
+import com.gameverse.service.GameChatService;
+import com.gameverse.service.GameMoveService;
+import com.gameverse.service.GameSessionService;
+import com.gameverse.service.HttpClusterTransport;
+import com.gameverse.service.RoomBroadcaster;
+import com.gameverse.service.RoomRoutingService;
+import com.gameverse.service.SessionOwnershipService;
+import com.gameverse.service.SessionRoutingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Node-to-node endpoints, authenticated with the shared cluster token instead of a user JWT
+ */
+@RestController
+@RequestMapping("/internal/cluster")
+public class ClusterController {
+
+    @Autowired
+    private GameMoveService gameMoveService;
+
+    @Autowired
+    private GameSessionService gameSessionService;
+
+    @Autowired
+    private GameChatService gameChatService;
+
+    @Autowired
+    private SessionRoutingService sessionRoutingService;
+
+    @Autowired
+    private RoomRoutingService roomRoutingService;
+
+    @Autowired
+    private RoomBroadcaster roomBroadcaster;
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
+
+    @PostMapping("/sessions/{sessionId}/moves")
+    public ResponseEntity<?> applyForwardedMove(
+            @PathVariable Long sessionId,
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> forwardData) {
+        
+        if (!sessionOwnershipService.isTrusted(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Invalid cluster token"));
+        }
+
+        try {
+            Long userId = Long.parseLong(forwardData.get("userId").toString());
+            @SuppressWarnings("unchecked")
+            Map<String, Object> moveData = (Map<String, Object>) forwardData.get("move");
+
+            // Applied here even if this node's membership view differs, so a move is never bounced twice
+            return ResponseEntity.ok(gameMoveService.applyMove(sessionId, userId, moveData));
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/sessions/{sessionId}/info")
+    public ResponseEntity<?> getForwardedSessionInfo(
+            @PathVariable Long sessionId,
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> forwardData) {
+
+        if (!sessionOwnershipService.isTrusted(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Invalid cluster token"));
+        }
+
+        // Served here even if this node's membership view differs; refusals travel in the body
+        try {
+            Long userId = Long.parseLong(forwardData.get("userId").toString());
+            return ResponseEntity.ok(gameSessionService.getSessionInfo(sessionId, userId));
+        } catch (Exception e) {
+            return ResponseEntity.ok(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @PostMapping("/sessions/{sessionId}/presence")
+    public ResponseEntity<?> applyForwardedPresence(
+            @PathVariable Long sessionId,
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> forwardData) {
+
+        if (!sessionOwnershipService.isTrusted(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Invalid cluster token"));
+        }
+
+        try {
+            Long userId = Long.parseLong(forwardData.get("userId").toString());
+            sessionRoutingService.applyPresence(sessionId, userId, forwardData.get("connectionId").toString(),
+                Boolean.TRUE.equals(forwardData.get("connected")));
+            return ResponseEntity.ok(Map.of("status", "OK"));
+        } catch (Exception e) {
+            return ResponseEntity.ok(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @PostMapping("/sessions/{sessionId}/chat")
+    public ResponseEntity<?> applyForwardedChat(
+            @PathVariable Long sessionId,
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> forwardData) {
+
+        if (!sessionOwnershipService.isTrusted(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Invalid cluster token"));
+        }
+
+        try {
+            Long userId = Long.parseLong(forwardData.get("userId").toString());
+            Object message = forwardData.get("message");
+            gameChatService.sendMessage(sessionId, userId, message instanceof String ? (String) message : null);
+            return ResponseEntity.ok(Map.of("status", "OK"));
+        } catch (Exception e) {
+            return ResponseEntity.ok(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @PostMapping("/sessions/{sessionId}/end")
+    public ResponseEntity<?> applyForwardedEnd(
+            @PathVariable Long sessionId,
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> forwardData) {
+
+        if (!sessionOwnershipService.isTrusted(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Invalid cluster token"));
+        }
+
+        try {
+            Object winner = forwardData.get("winnerId");
+            gameSessionService.endSession(sessionId, winner != null ? Long.parseLong(winner.toString()) : null);
+            return ResponseEntity.ok(Map.of("status", "OK"));
+        } catch (Exception e) {
+            return ResponseEntity.ok(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @PostMapping("/rooms/{roomId}/{operation}")
+    public ResponseEntity<?> applyForwardedRoomCall(
+            @PathVariable String roomId,
+            @PathVariable String operation,
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> forwardData) {
+
+        if (!sessionOwnershipService.isTrusted(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Invalid cluster token"));
+        }
+
+        // Applied here even if this node's membership view differs, so a call is never bounced twice
+        try {
+            return ResponseEntity.ok(Collections.singletonMap("result",
+                roomRoutingService.applyRoomCall(roomId, operation, forwardData)));
+        } catch (Exception e) {
+            return ResponseEntity.ok(RoomRoutingService.errorBody(e));
+        }
+    }
+
+    @PostMapping("/users/{userId}/{operation}")
+    public ResponseEntity<?> applyForwardedUserCall(
+            @PathVariable Long userId,
+            @PathVariable String operation,
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> forwardData) {
+
+        if (!sessionOwnershipService.isTrusted(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Invalid cluster token"));
+        }
+
+        try {
+            return ResponseEntity.ok(Collections.singletonMap("result",
+                roomRoutingService.applyUserCall(userId, operation, forwardData)));
+        } catch (Exception e) {
+            return ResponseEntity.ok(RoomRoutingService.errorBody(e));
+        }
+    }
+
+    @PostMapping("/broadcast")
+    public ResponseEntity<?> deliverBroadcast(
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, Object> forwardData) {
+
+        if (!sessionOwnershipService.isTrusted(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Invalid cluster token"));
+        }
+
+        try {
+            Object destination = forwardData.get("destination");
+            roomBroadcaster.deliver(destination != null ? destination.toString() : null, forwardData.get("payload"));
+            return ResponseEntity.ok(Map.of("status", "OK"));
+        } catch (Exception e) {
+            return ResponseEntity.ok(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+}
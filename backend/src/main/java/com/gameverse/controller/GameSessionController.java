@@ -1,11 +1,20 @@
 package com.gameverse.controller;
 
+import com.gameverse.entity.GameSession;
+import com.gameverse.service.GameReplayService;
 import com.gameverse.service.GameSessionService;
-import com.gameverse.service.GameSessionService.SessionInfo;
+import com.gameverse.service.GameStateJournal;
+import com.gameverse.service.SessionRoutingService;
+import com.gameverse.service.SpectatorService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Map;
 
@@ -17,6 +26,18 @@ public class GameSessionController {
     @Autowired
     private GameSessionService gameSessionService;
 
+    @Autowired
+    private GameReplayService gameReplayService;
+
+    @Autowired
+    private GameStateJournal gameStateJournal;
+
+    @Autowired
+    private SessionRoutingService sessionRoutingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping("/{sessionId}")
     public ResponseEntity<?> getSessionInfo(
             @PathVariable Long sessionId,
@@ -24,7 +45,7 @@ public class GameSessionController {
         
         try {
             Long userId = Long.parseLong(authentication.getName());
-            SessionInfo sessionInfo = gameSessionService.getSessionInfo(sessionId, userId);
+            Object sessionInfo = sessionRoutingService.getSessionInfo(sessionId, userId);
             
             return ResponseEntity.ok(sessionInfo);
             
@@ -34,6 +55,47 @@ public class GameSessionController {
         }
     }
 
+    @GetMapping("/{sessionId}/spectate")
+    public ResponseEntity<?> getSpectatorSnapshot(@PathVariable Long sessionId) {
+        
+        try {
+            SpectatorService.SpectatorSnapshot snapshot = gameSessionService.getSpectatorSnapshot(sessionId);
+            
+            return ResponseEntity.ok(snapshot);
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{sessionId}/replay")
+    public ResponseEntity<?> downloadReplay(
+            @PathVariable Long sessionId,
+            Authentication authentication) {
+        
+        try {
+            Long userId = Long.parseLong(authentication.getName());
+            GameSession session = gameReplayService.getReplayableSession(sessionId, userId);
+
+            // The last moves may still be in the state journal
+            gameStateJournal.flush();
+
+            // Rows are streamed from the DB cursor into the gzip stream as the client reads
+            StreamingResponseBody body = out -> gameReplayService.writeReplay(session, out);
+
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"session-" + sessionId + "-replay.ndjson.gz\"")
+                .body(body);
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping("/{sessionId}/end")
     public ResponseEntity<?> endSession(
             @PathVariable Long sessionId,
@@ -45,7 +107,7 @@ public class GameSessionController {
             Long winnerId = endData.containsKey("winnerId") ? 
                 Long.parseLong(endData.get("winnerId").toString()) : null;
             
-            gameSessionService.endSession(sessionId, winnerId);
+            sessionRoutingService.endSession(sessionId, winnerId);
             
             return ResponseEntity.ok(Map.of("message", "Session ended successfully"));
             
@@ -62,10 +124,10 @@ public class GameSessionController {
         
         try {
             Long userId = Long.parseLong(authentication.getName());
-            SessionInfo sessionInfo = gameSessionService.getSessionInfo(sessionId, userId);
+            Object sessionInfo = sessionRoutingService.getSessionInfo(sessionId, userId);
             
             // Handle reconnection logic
-            gameSessionService.handlePlayerConnection(sessionId, userId, "reconnect-" + System.currentTimeMillis());
+            sessionRoutingService.handlePlayerConnection(sessionId, userId, "reconnect-" + System.currentTimeMillis());
             
             return ResponseEntity.ok(Map.of(
                 "message", "Reconnected successfully",
@@ -85,15 +147,20 @@ public class GameSessionController {
         
         try {
             Long userId = Long.parseLong(authentication.getName());
-            SessionInfo sessionInfo = gameSessionService.getSessionInfo(sessionId, userId);
+            // Local SessionInfo or the owner node's JSON of it, read the same way
+            JsonNode sessionInfo = objectMapper.valueToTree(sessionRoutingService.getSessionInfo(sessionId, userId));
+            JsonNode players = sessionInfo.path("players");
+            int connectedPlayers = 0;
+            for (JsonNode player : players) {
+                connectedPlayers += player.path("connected").asBoolean() ? 1 : 0;
+            }
             
             return ResponseEntity.ok(Map.of(
-                "sessionId", sessionInfo.getSessionId(),
-                "status", sessionInfo.getStatus(),
-                "gameType", sessionInfo.getGameType(),
-                "playerCount", sessionInfo.getPlayers().size(),
-                "connectedPlayers", sessionInfo.getPlayers().stream()
-                    .mapToInt(p -> p.isConnected() ? 1 : 0).sum()
+                "sessionId", sessionInfo.path("sessionId").asLong(),
+                "status", sessionInfo.path("status").asText(),
+                "gameType", sessionInfo.path("gameType").asText(),
+                "playerCount", players.size(),
+                "connectedPlayers", connectedPlayers
             ));
             
         } catch (Exception e) {
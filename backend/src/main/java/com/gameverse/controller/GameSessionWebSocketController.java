@@ -1,12 +1,17 @@
 package com.gameverse.controller;
 
+import com.gameverse.service.GameMoveService;
 import com.gameverse.service.GameSessionService;
-import com.gameverse.service.GameSessionService.GameStateUpdate;
+import com.gameverse.service.SessionRoutingService;
+import com.gameverse.service.SpectatorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 import org.springframework.security.core.Authentication;
@@ -16,9 +21,20 @@ import java.util.Map;
 @Controller
 public class GameSessionWebSocketController {
 
+    private static final Logger logger = LoggerFactory.getLogger(GameSessionWebSocketController.class);
+
     @Autowired
     private GameSessionService gameSessionService;
 
+    @Autowired
+    private SessionRoutingService sessionRoutingService;
+
+    @Autowired
+    private GameMoveService gameMoveService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
     @MessageMapping("/game/{sessionId}/move")
     public void handleGameMove(
             @DestinationVariable Long sessionId,
@@ -30,19 +46,17 @@ public class GameSessionWebSocketController {
             // Extract user ID from authentication
             Long userId = extractUserIdFromAuth(authentication);
             
-            // Create game state update
-            String moveType = (String) moveData.get("type");
-            Object data = moveData.get("data");
-            
-            GameStateUpdate update = new GameStateUpdate(moveType, userId, data);
-            
-            // Process the move
-            gameSessionService.updateGameState(sessionId, userId, update);
+            // Process the move here or on the node owning the session
+            Map<String, Object> ack = gameMoveService.submitMove(sessionId, userId, moveData);
+
+            if (ack.get("seq") != null) {
+                messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/game/" + sessionId + "/ack", ack);
+            } else if (ack.get("error") != null) {
+                logger.warn("Error processing move for session {}: {}", sessionId, ack.get("error"));
+            }
             
         } catch (Exception e) {
-            // Send error back to user
-            // In a real implementation, you'd use SimpMessagingTemplate to send error
-            System.err.println("Error processing move: " + e.getMessage());
+            logger.warn("Error processing move for session {}: {}", sessionId, e.getMessage());
         }
     }
 
@@ -56,27 +70,41 @@ public class GameSessionWebSocketController {
             Long userId = extractUserIdFromAuth(authentication);
             String sessionId_str = headerAccessor.getSessionId();
             
-            // Handle player connection
-            gameSessionService.handlePlayerConnection(sessionId, userId, sessionId_str);
+            // Connections are tracked on the node owning the session
+            sessionRoutingService.handlePlayerConnection(sessionId, userId, sessionId_str);
             
         } catch (Exception e) {
-            System.err.println("Error joining session: " + e.getMessage());
+            logger.warn("Error joining session {}: {}", sessionId, e.getMessage());
         }
     }
 
     @SubscribeMapping("/game/{sessionId}")
-    public GameSessionService.SessionInfo handleSubscribeToSession(
+    public Object handleSubscribeToSession(
             @DestinationVariable Long sessionId,
             Authentication authentication) {
         
         try {
             Long userId = extractUserIdFromAuth(authentication);
             
-            // Return current session info
-            return gameSessionService.getSessionInfo(sessionId, userId);
+            // Return current session info, built by the node owning the session
+            return sessionRoutingService.getSessionInfo(sessionId, userId);
+            
+        } catch (Exception e) {
+            logger.warn("Error subscribing to session {}: {}", sessionId, e.getMessage());
+            return null;
+        }
+    }
+
+    @SubscribeMapping("/game/{sessionId}/spectate")
+    public SpectatorService.SpectatorSnapshot handleSubscribeAsSpectator(
+            @DestinationVariable Long sessionId) {
+        
+        try {
+            // Same snapshot a subscription to /topic/game/{sessionId}/spectate starts with, on request
+            return gameSessionService.getSpectatorSnapshot(sessionId);
             
         } catch (Exception e) {
-            System.err.println("Error subscribing to session: " + e.getMessage());
+            logger.warn("Error subscribing spectator to session {}: {}", sessionId, e.getMessage());
             return null;
         }
     }
@@ -91,11 +119,11 @@ public class GameSessionWebSocketController {
             Long userId = extractUserIdFromAuth(authentication);
             String sessionId_str = headerAccessor.getSessionId();
             
-            // Handle player disconnection
-            gameSessionService.handlePlayerDisconnection(sessionId, userId, sessionId_str);
+            // Handle player disconnection on the owner node
+            sessionRoutingService.handlePlayerDisconnection(sessionId, userId, sessionId_str);
             
         } catch (Exception e) {
-            System.err.println("Error handling disconnect: " + e.getMessage());
+            logger.warn("Error handling disconnect for session {}: {}", sessionId, e.getMessage());
         }
     }
 
@@ -107,15 +135,16 @@ public class GameSessionWebSocketController {
         try {
             Long userId = extractUserIdFromAuth(authentication);
             
-            // Create forfeit update
-            GameStateUpdate forfeitUpdate = new GameStateUpdate("FORFEIT", userId, 
-                Map.of("reason", "player_forfeit"));
-            
-            // Process forfeit
-            gameSessionService.updateGameState(sessionId, userId, forfeitUpdate);
+            // Forfeits change game state, so they go to the owner node like moves
+            Map<String, Object> ack = gameMoveService.submitMove(sessionId, userId,
+                Map.of("type", "FORFEIT", "data", Map.of("reason", "player_forfeit")));
+
+            if (ack.get("error") != null) {
+                logger.warn("Error processing forfeit for session {}: {}", sessionId, ack.get("error"));
+            }
             
         } catch (Exception e) {
-            System.err.println("Error processing forfeit: " + e.getMessage());
+            logger.warn("Error processing forfeit for session {}: {}", sessionId, e.getMessage());
         }
     }
 
@@ -125,19 +154,26 @@ public class GameSessionWebSocketController {
             @Payload Map<String, Object> chatData,
             Authentication authentication) {
         
+        Long userId;
         try {
-            Long userId = extractUserIdFromAuth(authentication);
-            String message = (String) chatData.get("message");
-            
-            // Create chat update
-            GameStateUpdate chatUpdate = new GameStateUpdate("CHAT", userId,
-                Map.of("message", message, "timestamp", System.currentTimeMillis()));
-            
-            // Broadcast chat (doesn't update game state, just broadcasts)
-            gameSessionService.updateGameState(sessionId, userId, chatUpdate);
-            
+            userId = extractUserIdFromAuth(authentication);
+        } catch (Exception e) {
+            logger.warn("Error processing chat for session {}: {}", sessionId, e.getMessage());
+            return;
+        }
+
+        try {
+            Object message = chatData.get("message");
+
+            // Chat is broadcast on /topic/game/{sessionId}/chat by the owner node, without touching the game state
+            sessionRoutingService.sendChatMessage(sessionId, userId, message instanceof String ? (String) message : null);
+
         } catch (Exception e) {
-            System.err.println("Error processing chat: " + e.getMessage());
+            messagingTemplate.convertAndSendToUser(
+                userId.toString(),
+                "/queue/game/" + sessionId + "/chat/error",
+                Map.of("error", e.getMessage())
+            );
         }
     }
 
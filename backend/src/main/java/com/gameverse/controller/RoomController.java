@@ -2,12 +2,11 @@ package com.gameverse.controller;
 
 import com.gameverse.dto.request.CreateRoomRequest;
 import com.gameverse.dto.request.SendMessageRequest;
-import com.gameverse.dto.response.RoomParticipantResponse;
 import com.gameverse.dto.response.RoomResponse;
-import com.gameverse.entity.ChatMessage;
 import com.gameverse.entity.Room;
-import com.gameverse.entity.RoomParticipant;
 import com.gameverse.entity.User;
+import com.gameverse.service.ChatSearchService;
+import com.gameverse.service.RoomRoutingService;
 import com.gameverse.service.RoomService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +31,12 @@ public class RoomController {
     @Autowired
     private RoomService roomService;
 
+    @Autowired
+    private RoomRoutingService roomRoutingService;
+
+    @Autowired
+    private ChatSearchService chatSearchService;
+
     /**
      * Create a new room
      * 
@@ -71,7 +76,7 @@ public class RoomController {
         if (popular) {
             rooms = roomService.getPopularRooms(5); // Rooms with at least 5 participants
         } else if (search != null && !search.trim().isEmpty()) {
-            rooms = roomService.searchRooms(search);
+            return ResponseEntity.ok(roomService.searchRooms(search));
         } else {
             rooms = roomService.getAvailableRooms();
         }
@@ -91,18 +96,15 @@ public class RoomController {
      */
     @GetMapping("/{roomId}")
     public ResponseEntity<Map<String, Object>> getRoomDetails(@PathVariable String roomId) {
-        Room room = roomService.getRoomWithParticipants(roomId);
-        List<RoomParticipant> participants = roomService.getActiveParticipants(roomId);
-        List<ChatMessage> recentMessages = roomService.getRecentMessages(roomId, 20);
+        // Participants first: reading them loads the room into its owner's registry, which the header's count comes from
+        Object participants = roomRoutingService.getActiveParticipants(roomId);
+        RoomResponse room = roomService.getRoomHeader(roomId);
+        Object recentMessages = roomRoutingService.getRecentMessages(roomId, 20);
         
         Map<String, Object> response = new HashMap<>();
-        response.put("room", new RoomResponse(room));
-        response.put("participants", participants.stream()
-                .map(RoomParticipantResponse::new)
-                .collect(Collectors.toList()));
-        response.put("recentMessages", recentMessages.stream()
-                .map(this::createMessageResponse)
-                .collect(Collectors.toList()));
+        response.put("room", room);
+        response.put("participants", participants);
+        response.put("recentMessages", recentMessages);
         
         return ResponseEntity.ok(response);
     }
@@ -122,12 +124,12 @@ public class RoomController {
         Long userId = getUserIdFromAuth(authentication);
         
         try {
-            RoomParticipant participant = roomService.joinRoom(roomId, userId);
+            Object participant = roomRoutingService.joinRoom(roomId, userId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Successfully joined room");
-            response.put("participant", new RoomParticipantResponse(participant));
+            response.put("participant", participant);
             
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
@@ -152,7 +154,7 @@ public class RoomController {
             Authentication authentication) {
         
         Long userId = getUserIdFromAuth(authentication);
-        roomService.leaveRoom(roomId, userId);
+        roomRoutingService.leaveRoom(roomId, userId);
         
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -178,11 +180,11 @@ public class RoomController {
         Long userId = getUserIdFromAuth(authentication);
         
         try {
-            ChatMessage message = roomService.sendMessage(roomId, userId, request.getMessage());
+            Object message = roomRoutingService.sendMessage(roomId, userId, request.getMessage());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", createMessageResponse(message));
+            response.put("message", message);
             
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
@@ -195,26 +197,62 @@ public class RoomController {
     }
 
     /**
-     * Get recent messages in a room
+     * Get messages in a room
+     * 
+     * Without a cursor, returns the most recent messages. With before, returns the
+     * page of history older than that message; with after, the messages a
+     * reconnecting client missed.
      * 
      * @param roomId Room ID
-     * @param limit Number of messages to retrieve (default: 20, max: 50)
-     * @return List of recent messages
+     * @param before Return messages older than this message ID, newest first
+     * @param after Return messages newer than this message ID, oldest first
+     * @param limit Number of messages to retrieve (default: 20, max: 50 recent or 100 with a cursor)
+     * @return List of messages
      */
     @GetMapping("/{roomId}/messages")
-    public ResponseEntity<List<Map<String, Object>>> getMessages(
+    public ResponseEntity<?> getMessages(
             @PathVariable String roomId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
             @RequestParam(defaultValue = "20") int limit) {
         
+        if (before != null && after != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (before != null) {
+            return ResponseEntity.ok(roomRoutingService.getMessagesBefore(roomId, before, limit));
+        }
+        if (after != null) {
+            return ResponseEntity.ok(roomRoutingService.getMessagesAfter(roomId, after, limit));
+        }
+        
         // Limit the number of messages to prevent abuse
         limit = Math.min(limit, 50);
         
-        List<ChatMessage> messages = roomService.getRecentMessages(roomId, limit);
-        List<Map<String, Object>> response = messages.stream()
-                .map(this::createMessageResponse)
-                .collect(Collectors.toList());
+        return ResponseEntity.ok(roomRoutingService.getRecentMessages(roomId, limit));
+    }
+
+    /**
+     * Search messages in a room
+     * 
+     * @param roomId Room ID
+     * @param q Search text
+     * @param cursor nextCursor from the previous page
+     * @param limit Number of messages to retrieve (default: 20, max: 50)
+     * @return Best matching messages and the cursor of the next page, if any
+     */
+    @GetMapping("/{roomId}/messages/search")
+    public ResponseEntity<?> searchMessages(
+            @PathVariable String roomId,
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
         
-        return ResponseEntity.ok(response);
+        try {
+            return ResponseEntity.ok(chatSearchService.search(roomId, q, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
@@ -224,13 +262,19 @@ public class RoomController {
      * @return List of active participants
      */
     @GetMapping("/{roomId}/participants")
-    public ResponseEntity<List<RoomParticipantResponse>> getParticipants(@PathVariable String roomId) {
-        List<RoomParticipant> participants = roomService.getActiveParticipants(roomId);
-        List<RoomParticipantResponse> response = participants.stream()
-                .map(RoomParticipantResponse::new)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<?> getParticipants(@PathVariable String roomId) {
+        return ResponseEntity.ok(roomRoutingService.getActiveParticipants(roomId));
+    }
+
+    /**
+     * Get participants in a room with the version of the participant event stream
+     * 
+     * @param roomId Room ID
+     * @return Participant snapshot
+     */
+    @GetMapping("/{roomId}/participants/snapshot")
+    public ResponseEntity<?> getParticipantSnapshot(@PathVariable String roomId) {
+        return ResponseEntity.ok(roomRoutingService.getParticipantSnapshot(roomId));
     }
 
     /**
@@ -246,7 +290,7 @@ public class RoomController {
             Authentication authentication) {
         
         Long userId = getUserIdFromAuth(authentication);
-        roomService.updateUserActivity(roomId, userId);
+        roomRoutingService.updateUserActivity(roomId, userId);
         
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -283,16 +327,4 @@ public class RoomController {
         // For development/testing, return mock user ID
         return 1L;
     }
-
-    private Map<String, Object> createMessageResponse(ChatMessage message) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", message.getId());
-        response.put("userId", message.getUser() != null ? message.getUser().getId() : null);
-        response.put("userName", message.getUser() != null && message.getUser().getProfile() != null ? 
-            message.getUser().getProfile().getDisplayName() : "System");
-        response.put("message", message.getMessage());
-        response.put("messageType", message.getMessageType().name());
-        response.put("timestamp", message.getCreatedAt());
-        return response;
-    }
 }
\ No newline at end of file
@@ -2,12 +2,17 @@ package com.gameverse.controller;
 
 import com.gameverse.dto.request.SendMessageRequest;
 import com.gameverse.entity.ChatMessage;
-import com.gameverse.service.RoomService;
+import com.gameverse.exception.RateLimitException;
+import com.gameverse.exception.ServiceBusyException;
+import com.gameverse.service.RoomRoutingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -21,8 +26,13 @@ import java.util.Map;
 @Controller
 public class RoomWebSocketController {
 
+    private static final Logger logger = LoggerFactory.getLogger(RoomWebSocketController.class);
+
+    @Autowired
+    private RoomRoutingService roomRoutingService;
+
     @Autowired
-    private RoomService roomService;
+    private SimpMessagingTemplate messagingTemplate;
 
     /**
      * Handle incoming chat messages via WebSocket
@@ -39,20 +49,29 @@ public class RoomWebSocketController {
             SimpMessageHeaderAccessor headerAccessor,
             Principal principal) {
         
+        // Extract user ID from principal or session
+        Long userId = getUserIdFromPrincipal(principal, headerAccessor);
+        
         try {
-            // Extract user ID from principal or session
-            Long userId = getUserIdFromPrincipal(principal, headerAccessor);
+            // Send message (this also records activity and broadcasts to all room participants)
+            roomRoutingService.sendMessage(roomId, userId, messageRequest.getMessage());
             
-            // Update user activity
-            roomService.updateUserActivity(roomId, userId);
+        } catch (RateLimitException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            error.put("retryAfterMs", e.getRetryAfterMs());
+            messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/room/" + roomId + "/chat/error", error);
             
-            // Send message (this will automatically broadcast to all room participants)
-            roomService.sendMessage(roomId, userId, messageRequest.getMessage());
+        } catch (ServiceBusyException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            error.put("retryAfterMs", e.getRetryAfterMs());
+            messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/room/" + roomId + "/chat/error", error);
             
         } catch (Exception e) {
             // Send error message back to sender
-            // In a real implementation, you might want to send this to a specific user destination
-            System.err.println("Error sending message: " + e.getMessage());
+            messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/room/" + roomId + "/chat/error",
+                Map.of("error", e.getMessage() != null ? e.getMessage() : "Failed to send message"));
         }
     }
 
@@ -73,12 +92,15 @@ public class RoomWebSocketController {
             Long userId = getUserIdFromPrincipal(principal, headerAccessor);
             
             // Join room
-            roomService.joinRoom(roomId, userId);
+            roomRoutingService.joinRoom(roomId, userId);
             
             // Store room ID in session for cleanup on disconnect
             headerAccessor.getSessionAttributes().put("roomId", roomId);
             headerAccessor.getSessionAttributes().put("userId", userId);
             
+            // Participant updates are deltas, so the joining client starts from a snapshot
+            sendParticipantSnapshot(roomId, userId);
+            
         } catch (Exception e) {
             System.err.println("Error joining room: " + e.getMessage());
         }
@@ -101,7 +123,7 @@ public class RoomWebSocketController {
             Long userId = getUserIdFromPrincipal(principal, headerAccessor);
             
             // Leave room
-            roomService.leaveRoom(roomId, userId);
+            roomRoutingService.leaveRoom(roomId, userId);
             
             // Clear session attributes
             headerAccessor.getSessionAttributes().remove("roomId");
@@ -112,6 +134,28 @@ public class RoomWebSocketController {
         }
     }
 
+    /**
+     * Send the full participant list to a client that missed a version
+     * 
+     * @param roomId Room ID from URL path
+     * @param headerAccessor WebSocket headers
+     * @param principal User principal
+     */
+    @MessageMapping("/room/{roomId}/participants/snapshot")
+    public void participantSnapshot(
+            @DestinationVariable String roomId,
+            SimpMessageHeaderAccessor headerAccessor,
+            Principal principal) {
+        
+        try {
+            Long userId = getUserIdFromPrincipal(principal, headerAccessor);
+            sendParticipantSnapshot(roomId, userId);
+            
+        } catch (Exception e) {
+            logger.warn("Failed to send participant snapshot of room {}: {}", roomId, e.getMessage());
+        }
+    }
+
     /**
      * Handle user activity heartbeat via WebSocket
      * 
@@ -129,7 +173,7 @@ public class RoomWebSocketController {
             Long userId = getUserIdFromPrincipal(principal, headerAccessor);
             
             // Update user activity
-            roomService.updateUserActivity(roomId, userId);
+            roomRoutingService.updateUserActivity(roomId, userId);
             
         } catch (Exception e) {
             System.err.println("Error updating activity: " + e.getMessage());
@@ -138,6 +182,11 @@ public class RoomWebSocketController {
 
     // Helper methods
 
+    private void sendParticipantSnapshot(String roomId, Long userId) {
+        messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/room/" + roomId + "/participants",
+            roomRoutingService.getParticipantSnapshot(roomId));
+    }
+
     private Long getUserIdFromPrincipal(Principal principal, SimpMessageHeaderAccessor headerAccessor) {
         if (principal != null) {
             // Try to extract user ID from principal name
@@ -0,0 +1,83 @@
+package com.gameverse.dto.response;
+
+import java.util.List;
+
+/**
+ * Response DTO for a single change to a room's participant list
+ *
+ * Events of a room carry consecutive versions; a client that sees a version
+ * other than the one after its last should request a full snapshot. JOIN and
+ * LEAVE name one user; IDLE lists every user an inactivity sweep removed from
+ * the room, as a single version.
+ */
+public class ParticipantEventResponse {
+    
+    public enum Type { JOIN, LEAVE, IDLE }
+    
+    private Type type;
+    private String roomId;
+    private long version;
+    private Long userId;
+    private List<Long> userIds;
+    private RoomParticipantResponse participant;
+    
+    public ParticipantEventResponse() {}
+    
+    public ParticipantEventResponse(Type type, String roomId, long version, Long userId,
+                                    RoomParticipantResponse participant) {
+        this.type = type;
+        this.roomId = roomId;
+        this.version = version;
+        this.userId = userId;
+        this.participant = participant;
+    }
+    
+    // Getters and Setters
+    public Type getType() {
+        return type;
+    }
+    
+    public void setType(Type type) {
+        this.type = type;
+    }
+    
+    public String getRoomId() {
+        return roomId;
+    }
+    
+    public void setRoomId(String roomId) {
+        this.roomId = roomId;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public List<Long> getUserIds() {
+        return userIds;
+    }
+    
+    public void setUserIds(List<Long> userIds) {
+        this.userIds = userIds;
+    }
+    
+    public RoomParticipantResponse getParticipant() {
+        return participant;
+    }
+    
+    public void setParticipant(RoomParticipantResponse participant) {
+        this.participant = participant;
+    }
+}
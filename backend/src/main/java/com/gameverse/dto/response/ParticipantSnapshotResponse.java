@@ -0,0 +1,46 @@
+package com.gameverse.dto.response;
+
+import java.util.List;
+
+/**
+ * Response DTO for the full participant list of a room at a version
+ */
+public class ParticipantSnapshotResponse {
+    
+    private String roomId;
+    private long version;
+    private List<RoomParticipantResponse> participants;
+    
+    public ParticipantSnapshotResponse() {}
+    
+    public ParticipantSnapshotResponse(String roomId, long version, List<RoomParticipantResponse> participants) {
+        this.roomId = roomId;
+        this.version = version;
+        this.participants = participants;
+    }
+    
+    // Getters and Setters
+    public String getRoomId() {
+        return roomId;
+    }
+    
+    public void setRoomId(String roomId) {
+        this.roomId = roomId;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
+    public List<RoomParticipantResponse> getParticipants() {
+        return participants;
+    }
+    
+    public void setParticipants(List<RoomParticipantResponse> participants) {
+        this.participants = participants;
+    }
+}
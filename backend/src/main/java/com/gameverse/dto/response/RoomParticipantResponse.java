@@ -30,6 +30,16 @@ public class RoomParticipantResponse {
         this.isActive = participant.getIsActive();
     }
     
+    public RoomParticipantResponse(Long userId, String displayName, String avatarId,
+                                   LocalDateTime joinedAt, LocalDateTime lastActivity) {
+        this.userId = userId;
+        this.displayName = displayName != null ? displayName : "Anonymous";
+        this.avatarId = avatarId != null ? avatarId : "default";
+        this.joinedAt = joinedAt;
+        this.lastActivity = lastActivity;
+        this.isActive = true;
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
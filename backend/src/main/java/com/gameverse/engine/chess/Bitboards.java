@@ -0,0 +1,112 @@
+package com.gameverse.engine.chess;
+
+/**
+ * Precomputed attack tables and sliding-piece attack generation
+ *
+ * Squares are numbered a1 = 0 ... h1 = 7 ... h8 = 63. Sliding attacks use
+ * classical ray tables: the ray in a direction is cut at the first blocker,
+ * found with a single bit scan. No allocation happens after class init.
+ */
+public final class Bitboards {
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_3 = RANK_1 << 16;
+    public static final long RANK_6 = RANK_1 << 40;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    // Ray directions; the first four increase the square index
+    private static final int NORTH = 0;
+    private static final int EAST = 1;
+    private static final int NORTH_EAST = 2;
+    private static final int NORTH_WEST = 3;
+    private static final int SOUTH = 4;
+    private static final int WEST = 5;
+    private static final int SOUTH_WEST = 6;
+    private static final int SOUTH_EAST = 7;
+
+    private static final int[] FILE_STEP = {0, 1, 1, -1, 0, -1, -1, 1};
+    private static final int[] RANK_STEP = {1, 0, 1, 1, -1, 0, -1, -1};
+
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+    private static final long[][] RAYS = new long[8][64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            int file = sq & 7;
+            int rank = sq >>> 3;
+
+            KNIGHT_ATTACKS[sq] = stepAttacks(file, rank, new int[][] {
+                {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}
+            });
+            KING_ATTACKS[sq] = stepAttacks(file, rank, new int[][] {
+                {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}
+            });
+            PAWN_ATTACKS[ChessPosition.WHITE][sq] = stepAttacks(file, rank, new int[][] {{-1, 1}, {1, 1}});
+            PAWN_ATTACKS[ChessPosition.BLACK][sq] = stepAttacks(file, rank, new int[][] {{-1, -1}, {1, -1}});
+
+            for (int dir = 0; dir < 8; dir++) {
+                long ray = 0L;
+                int f = file + FILE_STEP[dir];
+                int r = rank + RANK_STEP[dir];
+                while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                    ray |= 1L << (r * 8 + f);
+                    f += FILE_STEP[dir];
+                    r += RANK_STEP[dir];
+                }
+                RAYS[dir][sq] = ray;
+            }
+        }
+    }
+
+    private Bitboards() {}
+
+    private static long stepAttacks(int file, int rank, int[][] steps) {
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int f = file + step[0];
+            int r = rank + step[1];
+            if (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                attacks |= 1L << (r * 8 + f);
+            }
+        }
+        return attacks;
+    }
+
+    private static long positiveRay(int dir, int sq, long occupied) {
+        long ray = RAYS[dir][sq];
+        long blockers = ray & occupied;
+        if (blockers != 0) {
+            ray ^= RAYS[dir][Long.numberOfTrailingZeros(blockers)];
+        }
+        return ray;
+    }
+
+    private static long negativeRay(int dir, int sq, long occupied) {
+        long ray = RAYS[dir][sq];
+        long blockers = ray & occupied;
+        if (blockers != 0) {
+            ray ^= RAYS[dir][63 - Long.numberOfLeadingZeros(blockers)];
+        }
+        return ray;
+    }
+
+    public static long rookAttacks(int sq, long occupied) {
+        return positiveRay(NORTH, sq, occupied) | positiveRay(EAST, sq, occupied)
+            | negativeRay(SOUTH, sq, occupied) | negativeRay(WEST, sq, occupied);
+    }
+
+    public static long bishopAttacks(int sq, long occupied) {
+        return positiveRay(NORTH_EAST, sq, occupied) | positiveRay(NORTH_WEST, sq, occupied)
+            | negativeRay(SOUTH_EAST, sq, occupied) | negativeRay(SOUTH_WEST, sq, occupied);
+    }
+
+    public static long queenAttacks(int sq, long occupied) {
+        return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+    }
+}
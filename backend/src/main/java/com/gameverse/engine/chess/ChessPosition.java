@@ -0,0 +1,523 @@
+package com.gameverse.engine.chess;
+
+/**
+ * Bitboard chess position with allocation-free legal move generation
+ *
+ * One bitboard per (color, piece type) plus a square-indexed board for
+ * capture lookups. Moves are made and unmade in place against a fixed-size
+ * undo stack, and move lists are written into caller-supplied int arrays,
+ * so validating and applying a move produces no garbage.
+ *
+ * Instances are not thread-safe; callers serialize access per game.
+ */
+public final class ChessPosition {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int EMPTY = -1;
+
+    // Upper bound on legal moves in any reachable position is 218
+    public static final int MAX_MOVES = 256;
+    public static final int MAX_PLY = 128;
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final int WHITE_KINGSIDE = 1;
+    private static final int WHITE_QUEENSIDE = 2;
+    private static final int BLACK_KINGSIDE = 4;
+    private static final int BLACK_QUEENSIDE = 8;
+
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        java.util.Arrays.fill(CASTLING_MASK, 0xF);
+        CASTLING_MASK[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[7] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[63] &= ~BLACK_KINGSIDE;
+        CASTLING_MASK[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+    }
+
+    public enum Status {
+        ONGOING, CHECKMATE, STALEMATE, FIFTY_MOVE_RULE
+    }
+
+    // pieces[color * 6 + type]
+    private final long[] pieces = new long[12];
+    private final long[] occupancy = new long[2];
+    private final int[] board = new int[64];
+
+    private int sideToMove;
+    private int castlingRights;
+    private int enPassantSquare = -1;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+
+    // Undo stack
+    private final int[] undoCaptured = new int[MAX_PLY];
+    private final int[] undoCastling = new int[MAX_PLY];
+    private final int[] undoEnPassant = new int[MAX_PLY];
+    private final int[] undoHalfmove = new int[MAX_PLY];
+    private int ply;
+
+    // Scratch move lists, one per search ply
+    private final int[][] moveBuffers = new int[MAX_PLY][MAX_MOVES];
+
+    private ChessPosition() {
+        java.util.Arrays.fill(board, EMPTY);
+    }
+
+    public static ChessPosition startPosition() {
+        return fromFen(START_FEN);
+    }
+
+    /**
+     * Independent copy of the position
+     */
+    public ChessPosition copy() {
+        return new ChessPosition().copyFrom(this);
+    }
+
+    /**
+     * Overwrite this position with another one, without allocating
+     *
+     * @return This position
+     */
+    public ChessPosition copyFrom(ChessPosition other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.occupancy, 0, occupancy, 0, occupancy.length);
+        System.arraycopy(other.board, 0, board, 0, board.length);
+        sideToMove = other.sideToMove;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        ply = 0;
+        return this;
+    }
+
+    /**
+     * Build a position from Forsyth-Edwards Notation
+     *
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessPosition fromFen(String fen) {
+        if (fen == null) {
+            throw new IllegalArgumentException("FEN is required");
+        }
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+
+        ChessPosition position = new ChessPosition();
+        int rank = 7;
+        int file = 0;
+        for (char c : fields[0].toCharArray()) {
+            if (c == '/') {
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                int type = "pnbrqk".indexOf(Character.toLowerCase(c));
+                if (type < 0 || rank < 0 || file > 7) {
+                    throw new IllegalArgumentException("Invalid FEN: " + fen);
+                }
+                int color = Character.isUpperCase(c) ? WHITE : BLACK;
+                position.putPiece(color * 6 + type, rank * 8 + file);
+                file++;
+            }
+        }
+
+        position.sideToMove = "b".equals(fields[1]) ? BLACK : WHITE;
+        for (char c : fields[2].toCharArray()) {
+            switch (c) {
+                case 'K' -> position.castlingRights |= WHITE_KINGSIDE;
+                case 'Q' -> position.castlingRights |= WHITE_QUEENSIDE;
+                case 'k' -> position.castlingRights |= BLACK_KINGSIDE;
+                case 'q' -> position.castlingRights |= BLACK_QUEENSIDE;
+                default -> { }
+            }
+        }
+        position.enPassantSquare = "-".equals(fields[3]) ? -1 : Move.parseSquare(fields[3]);
+        position.halfmoveClock = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+        position.fullmoveNumber = fields.length > 5 ? Integer.parseInt(fields[5]) : 1;
+
+        if (position.pieces[WHITE * 6 + KING] == 0 || position.pieces[BLACK * 6 + KING] == 0) {
+            throw new IllegalArgumentException("Both kings are required: " + fen);
+        }
+        return position;
+    }
+
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = board[rank * 8 + file];
+                if (piece == EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char c = "pnbrqk".charAt(piece % 6);
+                fen.append(piece < 6 ? Character.toUpperCase(c) : c);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(sideToMove == WHITE ? " w " : " b ");
+        if (castlingRights == 0) {
+            fen.append('-');
+        } else {
+            if ((castlingRights & WHITE_KINGSIDE) != 0) fen.append('K');
+            if ((castlingRights & WHITE_QUEENSIDE) != 0) fen.append('Q');
+            if ((castlingRights & BLACK_KINGSIDE) != 0) fen.append('k');
+            if ((castlingRights & BLACK_QUEENSIDE) != 0) fen.append('q');
+        }
+        fen.append(' ').append(enPassantSquare < 0 ? "-" : Move.squareName(enPassantSquare));
+        fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+
+    // Board queries
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public int pieceAt(int square) {
+        return board[square];
+    }
+
+    public boolean isInCheck() {
+        return isKingAttacked(sideToMove);
+    }
+
+    public boolean isSquareAttacked(int square, int byColor) {
+        int base = byColor * 6;
+        long occupied = occupancy[WHITE] | occupancy[BLACK];
+        if ((Bitboards.PAWN_ATTACKS[byColor ^ 1][square] & pieces[base + PAWN]) != 0) return true;
+        if ((Bitboards.KNIGHT_ATTACKS[square] & pieces[base + KNIGHT]) != 0) return true;
+        if ((Bitboards.KING_ATTACKS[square] & pieces[base + KING]) != 0) return true;
+        long queens = pieces[base + QUEEN];
+        if ((Bitboards.bishopAttacks(square, occupied) & (pieces[base + BISHOP] | queens)) != 0) return true;
+        return (Bitboards.rookAttacks(square, occupied) & (pieces[base + ROOK] | queens)) != 0;
+    }
+
+    private boolean isKingAttacked(int color) {
+        int kingSquare = Long.numberOfTrailingZeros(pieces[color * 6 + KING]);
+        return isSquareAttacked(kingSquare, color ^ 1);
+    }
+
+    // Move generation
+
+    /**
+     * Write all legal moves for the side to move into the buffer
+     *
+     * @param moves Buffer of at least MAX_MOVES entries
+     * @return Number of legal moves written
+     */
+    public int generateLegalMoves(int[] moves) {
+        int count = generatePseudoLegalMoves(moves);
+        int legal = 0;
+        int us = sideToMove;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            makeMove(move);
+            if (!isKingAttacked(us)) {
+                moves[legal++] = move;
+            }
+            unmakeMove(move);
+        }
+        return legal;
+    }
+
+    /**
+     * Find the legal move matching the given squares, without allocating
+     *
+     * @param from Origin square
+     * @param to Destination square
+     * @param promotion Promotion piece type, or 0; queen is assumed when omitted
+     * @return The encoded move, or Move.NONE if it is not legal
+     */
+    public int findLegalMove(int from, int to, int promotion) {
+        if (from < 0 || to < 0 || ply >= MAX_PLY) {
+            return Move.NONE;
+        }
+        int[] moves = moveBuffers[ply];
+        int count = generateLegalMoves(moves);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (Move.from(move) == from && Move.to(move) == to) {
+                int movePromotion = Move.promotion(move);
+                if (movePromotion == 0 || movePromotion == (promotion == 0 ? QUEEN : promotion)) {
+                    return move;
+                }
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Game status for the side to move
+     */
+    public Status status() {
+        int[] moves = moveBuffers[ply];
+        if (generateLegalMoves(moves) == 0) {
+            return isInCheck() ? Status.CHECKMATE : Status.STALEMATE;
+        }
+        return halfmoveClock >= 100 ? Status.FIFTY_MOVE_RULE : Status.ONGOING;
+    }
+
+    /**
+     * Play a legal move permanently; the undo stack is not kept for game moves
+     */
+    public void applyMove(int move) {
+        makeMove(move);
+        ply = 0;
+    }
+
+    /**
+     * Count leaf nodes of the legal move tree to the given depth
+     */
+    public long perft(int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        int[] moves = moveBuffers[ply];
+        int count = generateLegalMoves(moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            makeMove(move);
+            nodes += perft(depth - 1);
+            unmakeMove(move);
+        }
+        return nodes;
+    }
+
+    private int generatePseudoLegalMoves(int[] moves) {
+        int us = sideToMove;
+        int them = us ^ 1;
+        int base = us * 6;
+        long own = occupancy[us];
+        long enemy = occupancy[them];
+        long occupied = own | enemy;
+        long empty = ~occupied;
+        int count = 0;
+
+        // Pawns
+        long pawns = pieces[base + PAWN];
+        int forward = us == WHITE ? 8 : -8;
+        long promotionRank = us == WHITE ? Bitboards.RANK_8 : Bitboards.RANK_1;
+        long singlePushes = us == WHITE ? (pawns << 8) & empty : (pawns >>> 8) & empty;
+        long doublePushes = us == WHITE
+            ? ((singlePushes & Bitboards.RANK_3) << 8) & empty
+            : ((singlePushes & Bitboards.RANK_6) >>> 8) & empty;
+
+        for (long targets = singlePushes; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            count = addPawnMove(moves, count, to - forward, to, (1L << to & promotionRank) != 0);
+        }
+        for (long targets = doublePushes; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            moves[count++] = Move.encode(to - 2 * forward, to, 0, Move.DOUBLE_PUSH);
+        }
+        for (long from = pawns; from != 0; from &= from - 1) {
+            int sq = Long.numberOfTrailingZeros(from);
+            for (long targets = Bitboards.PAWN_ATTACKS[us][sq] & enemy; targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                count = addPawnMove(moves, count, sq, to, (1L << to & promotionRank) != 0);
+            }
+        }
+        if (enPassantSquare >= 0) {
+            for (long from = Bitboards.PAWN_ATTACKS[them][enPassantSquare] & pawns; from != 0; from &= from - 1) {
+                moves[count++] = Move.encode(Long.numberOfTrailingZeros(from), enPassantSquare, 0, Move.EN_PASSANT);
+            }
+        }
+
+        // Pieces
+        for (long from = pieces[base + KNIGHT]; from != 0; from &= from - 1) {
+            int sq = Long.numberOfTrailingZeros(from);
+            count = addMoves(moves, count, sq, Bitboards.KNIGHT_ATTACKS[sq] & ~own);
+        }
+        for (long from = pieces[base + BISHOP]; from != 0; from &= from - 1) {
+            int sq = Long.numberOfTrailingZeros(from);
+            count = addMoves(moves, count, sq, Bitboards.bishopAttacks(sq, occupied) & ~own);
+        }
+        for (long from = pieces[base + ROOK]; from != 0; from &= from - 1) {
+            int sq = Long.numberOfTrailingZeros(from);
+            count = addMoves(moves, count, sq, Bitboards.rookAttacks(sq, occupied) & ~own);
+        }
+        for (long from = pieces[base + QUEEN]; from != 0; from &= from - 1) {
+            int sq = Long.numberOfTrailingZeros(from);
+            count = addMoves(moves, count, sq, Bitboards.queenAttacks(sq, occupied) & ~own);
+        }
+        int kingSquare = Long.numberOfTrailingZeros(pieces[base + KING]);
+        count = addMoves(moves, count, kingSquare, Bitboards.KING_ATTACKS[kingSquare] & ~own);
+
+        // Castling: path must be empty and the king may not pass through check
+        if (us == WHITE) {
+            if ((castlingRights & WHITE_KINGSIDE) != 0 && (occupied & 0x60L) == 0
+                    && !isSquareAttacked(4, them) && !isSquareAttacked(5, them) && !isSquareAttacked(6, them)) {
+                moves[count++] = Move.encode(4, 6, 0, Move.CASTLE);
+            }
+            if ((castlingRights & WHITE_QUEENSIDE) != 0 && (occupied & 0x0EL) == 0
+                    && !isSquareAttacked(4, them) && !isSquareAttacked(3, them) && !isSquareAttacked(2, them)) {
+                moves[count++] = Move.encode(4, 2, 0, Move.CASTLE);
+            }
+        } else {
+            if ((castlingRights & BLACK_KINGSIDE) != 0 && (occupied & (0x60L << 56)) == 0
+                    && !isSquareAttacked(60, them) && !isSquareAttacked(61, them) && !isSquareAttacked(62, them)) {
+                moves[count++] = Move.encode(60, 62, 0, Move.CASTLE);
+            }
+            if ((castlingRights & BLACK_QUEENSIDE) != 0 && (occupied & (0x0EL << 56)) == 0
+                    && !isSquareAttacked(60, them) && !isSquareAttacked(59, them) && !isSquareAttacked(58, them)) {
+                moves[count++] = Move.encode(60, 58, 0, Move.CASTLE);
+            }
+        }
+
+        return count;
+    }
+
+    private static int addMoves(int[] moves, int count, int from, long targets) {
+        for (; targets != 0; targets &= targets - 1) {
+            moves[count++] = Move.encode(from, Long.numberOfTrailingZeros(targets), 0, Move.NORMAL);
+        }
+        return count;
+    }
+
+    private static int addPawnMove(int[] moves, int count, int from, int to, boolean promotes) {
+        if (promotes) {
+            moves[count++] = Move.encode(from, to, QUEEN, Move.NORMAL);
+            moves[count++] = Move.encode(from, to, ROOK, Move.NORMAL);
+            moves[count++] = Move.encode(from, to, BISHOP, Move.NORMAL);
+            moves[count++] = Move.encode(from, to, KNIGHT, Move.NORMAL);
+        } else {
+            moves[count++] = Move.encode(from, to, 0, Move.NORMAL);
+        }
+        return count;
+    }
+
+    // Make / unmake
+
+    void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int special = Move.special(move);
+        int piece = board[from];
+        int us = sideToMove;
+
+        int capturedSquare = special == Move.EN_PASSANT ? (us == WHITE ? to - 8 : to + 8) : to;
+        int captured = board[capturedSquare];
+
+        undoCaptured[ply] = captured;
+        undoCastling[ply] = castlingRights;
+        undoEnPassant[ply] = enPassantSquare;
+        undoHalfmove[ply] = halfmoveClock;
+        ply++;
+
+        if (captured != EMPTY) {
+            removePiece(captured, capturedSquare);
+        }
+        removePiece(piece, from);
+        int promotion = Move.promotion(move);
+        putPiece(promotion != 0 ? us * 6 + promotion : piece, to);
+
+        if (special == Move.CASTLE) {
+            int rook = us * 6 + ROOK;
+            switch (to) {
+                case 6 -> { removePiece(rook, 7); putPiece(rook, 5); }
+                case 2 -> { removePiece(rook, 0); putPiece(rook, 3); }
+                case 62 -> { removePiece(rook, 63); putPiece(rook, 61); }
+                case 58 -> { removePiece(rook, 56); putPiece(rook, 59); }
+                default -> { }
+            }
+        }
+
+        enPassantSquare = special == Move.DOUBLE_PUSH ? (from + to) >>> 1 : -1;
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        halfmoveClock = (piece % 6 == PAWN || captured != EMPTY) ? 0 : halfmoveClock + 1;
+        if (us == BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove = us ^ 1;
+    }
+
+    void unmakeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int special = Move.special(move);
+        int us = sideToMove ^ 1;
+        sideToMove = us;
+        if (us == BLACK) {
+            fullmoveNumber--;
+        }
+
+        ply--;
+        int captured = undoCaptured[ply];
+        castlingRights = undoCastling[ply];
+        enPassantSquare = undoEnPassant[ply];
+        halfmoveClock = undoHalfmove[ply];
+
+        int moved = board[to];
+        removePiece(moved, to);
+        putPiece(Move.promotion(move) != 0 ? us * 6 + PAWN : moved, from);
+
+        if (captured != EMPTY) {
+            int capturedSquare = special == Move.EN_PASSANT ? (us == WHITE ? to - 8 : to + 8) : to;
+            putPiece(captured, capturedSquare);
+        }
+
+        if (special == Move.CASTLE) {
+            int rook = us * 6 + ROOK;
+            switch (to) {
+                case 6 -> { removePiece(rook, 5); putPiece(rook, 7); }
+                case 2 -> { removePiece(rook, 3); putPiece(rook, 0); }
+                case 62 -> { removePiece(rook, 61); putPiece(rook, 63); }
+                case 58 -> { removePiece(rook, 59); putPiece(rook, 56); }
+                default -> { }
+            }
+        }
+    }
+
+    private void putPiece(int piece, int square) {
+        long bit = 1L << square;
+        pieces[piece] |= bit;
+        occupancy[piece / 6] |= bit;
+        board[square] = piece;
+    }
+
+    private void removePiece(int piece, int square) {
+        long bit = ~(1L << square);
+        pieces[piece] &= bit;
+        occupancy[piece / 6] &= bit;
+        board[square] = EMPTY;
+    }
+}
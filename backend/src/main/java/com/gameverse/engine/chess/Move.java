@@ -0,0 +1,91 @@
+package com.gameverse.engine.chess;
+
+/**
+ * Moves packed into a single int so move lists are plain int arrays
+ *
+ * Layout: bits 0-5 from square, 6-11 to square, 12-14 promotion piece type
+ * (0 = none), 15-16 special move kind. The value 0 is never a legal move and
+ * is used as "no move".
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int NORMAL = 0;
+    public static final int DOUBLE_PUSH = 1;
+    public static final int CASTLE = 2;
+    public static final int EN_PASSANT = 3;
+
+    private Move() {}
+
+    public static int encode(int from, int to, int promotion, int special) {
+        return from | (to << 6) | (promotion << 12) | (special << 15);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int promotion(int move) {
+        return (move >>> 12) & 0x7;
+    }
+
+    public static int special(int move) {
+        return (move >>> 15) & 0x3;
+    }
+
+    /**
+     * Parse a square name such as "e4"
+     *
+     * @return Square index, or -1 if the name is not a square
+     */
+    public static int parseSquare(CharSequence name) {
+        if (name == null || name.length() != 2) {
+            return -1;
+        }
+        int file = name.charAt(0) - 'a';
+        int rank = name.charAt(1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return -1;
+        }
+        return rank * 8 + file;
+    }
+
+    /**
+     * Parse a promotion piece letter (q, r, b, n)
+     *
+     * @return Piece type, or 0 if none was given
+     */
+    public static int parsePromotion(CharSequence piece) {
+        if (piece == null || piece.length() == 0) {
+            return 0;
+        }
+        return switch (Character.toLowerCase(piece.charAt(0))) {
+            case 'q' -> ChessPosition.QUEEN;
+            case 'r' -> ChessPosition.ROOK;
+            case 'b' -> ChessPosition.BISHOP;
+            case 'n' -> ChessPosition.KNIGHT;
+            default -> 0;
+        };
+    }
+
+    public static String squareName(int square) {
+        return String.valueOf((char) ('a' + (square & 7))) + (char) ('1' + (square >>> 3));
+    }
+
+    /**
+     * Long algebraic (UCI) notation, e.g. "e7e8q"
+     */
+    public static String toUci(int move) {
+        String uci = squareName(from(move)) + squareName(to(move));
+        int promotion = promotion(move);
+        if (promotion != 0) {
+            uci += "pnbrqk".charAt(promotion);
+        }
+        return uci;
+    }
+}
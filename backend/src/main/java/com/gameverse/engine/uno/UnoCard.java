@@ -0,0 +1,121 @@
+package com.gameverse.engine.uno;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * UNO cards encoded in a single byte: color in the high nibble, rank in the low
+ *
+ * Colors: 0 red, 1 yellow, 2 green, 3 blue, 4 wild.
+ * Ranks: 0-9 number cards, 10 skip, 11 reverse, 12 draw two, 13 wild, 14 wild draw four.
+ */
+public final class UnoCard {
+
+    public static final int RED = 0;
+    public static final int YELLOW = 1;
+    public static final int GREEN = 2;
+    public static final int BLUE = 3;
+    public static final int WILD_COLOR = 4;
+
+    public static final int SKIP = 10;
+    public static final int REVERSE = 11;
+    public static final int DRAW_TWO = 12;
+    public static final int WILD = 13;
+    public static final int WILD_DRAW_FOUR = 14;
+
+    public static final byte INVALID = (byte) 0xFF;
+
+    private static final String[] COLOR_NAMES = {"red", "yellow", "green", "blue", "wild"};
+    private static final String[] ACTION_NAMES = {"skip", "reverse", "draw2", "wild", "draw4"};
+
+    private UnoCard() {}
+
+    public static byte of(int color, int rank) {
+        return (byte) ((color << 4) | rank);
+    }
+
+    public static int color(byte card) {
+        return (card >>> 4) & 0xF;
+    }
+
+    public static int rank(byte card) {
+        return card & 0xF;
+    }
+
+    public static boolean isWild(byte card) {
+        return color(card) == WILD_COLOR;
+    }
+
+    public static boolean isNumber(byte card) {
+        return rank(card) <= 9;
+    }
+
+    /**
+     * Parse a color name ("red", "yellow", "green", "blue")
+     *
+     * @return Color index, or -1 if unknown
+     */
+    public static int parseColor(Object name) {
+        if (!(name instanceof String)) {
+            return -1;
+        }
+        for (int i = 0; i < WILD_COLOR; i++) {
+            if (COLOR_NAMES[i].equalsIgnoreCase((String) name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parse the client card shape {"color": "red", "value": 7 | "skip" | ...}
+     *
+     * @return Encoded card, or INVALID
+     */
+    public static byte parse(Object card) {
+        if (!(card instanceof Map)) {
+            return INVALID;
+        }
+        Object colorName = ((Map<?, ?>) card).get("color");
+        Object value = ((Map<?, ?>) card).get("value");
+
+        int rank = -1;
+        if (value instanceof Number) {
+            rank = ((Number) value).intValue();
+        } else if (value instanceof String) {
+            for (int i = 0; i < ACTION_NAMES.length; i++) {
+                if (ACTION_NAMES[i].equalsIgnoreCase((String) value)) {
+                    rank = SKIP + i;
+                }
+            }
+            if (rank < 0 && ((String) value).length() == 1 && Character.isDigit(((String) value).charAt(0))) {
+                rank = ((String) value).charAt(0) - '0';
+            }
+        }
+        if (rank < 0 || rank > WILD_DRAW_FOUR) {
+            return INVALID;
+        }
+
+        if (rank >= WILD) {
+            return "wild".equalsIgnoreCase(String.valueOf(colorName)) ? of(WILD_COLOR, rank) : INVALID;
+        }
+        int color = parseColor(colorName);
+        return color < 0 ? INVALID : of(color, rank);
+    }
+
+    public static String colorName(int color) {
+        return COLOR_NAMES[color];
+    }
+
+    /**
+     * Client card shape, matching the frontend's UnoCard type
+     */
+    public static Map<String, Object> toMap(byte card) {
+        int rank = rank(card);
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("color", COLOR_NAMES[color(card)]);
+        map.put("value", rank <= 9 ? (Object) rank : ACTION_NAMES[rank - SKIP]);
+        map.put("type", rank <= 9 ? "number" : rank >= WILD ? "wild" : "action");
+        return map;
+    }
+}
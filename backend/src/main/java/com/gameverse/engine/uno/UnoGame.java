@@ -0,0 +1,335 @@
+package com.gameverse.engine.uno;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Authoritative UNO game state held in flat arrays
+ *
+ * Cards are bytes (see UnoCard), piles and hands are fixed-capacity byte
+ * arrays with explicit sizes, and players are addressed by seat index, so a
+ * move is a handful of array operations. Shuffling uses a seeded xorshift
+ * generator whose state is serialized with the game, which makes a game fully
+ * reproducible from its seed and move sequence.
+ *
+ * Instances are not thread-safe; callers serialize access per game.
+ */
+public final class UnoGame {
+
+    public static final int DECK_SIZE = 108;
+    public static final int HAND_SIZE = 7;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final long[] players;
+    private final byte[][] hands;
+    private final int[] handSizes;
+    private final byte[] drawPile = new byte[DECK_SIZE];
+    private int drawSize;
+    private final byte[] discardPile = new byte[DECK_SIZE];
+    private int discardSize;
+
+    private int current;
+    private int direction = 1;
+    private int currentColor;
+    private int winner = -1;
+    private long rngState;
+
+    private UnoGame(long[] players, long seed) {
+        this.players = players.clone();
+        this.hands = new byte[players.length][DECK_SIZE];
+        this.handSizes = new int[players.length];
+        // xorshift state must be non-zero
+        this.rngState = seed != 0 ? seed : 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Shuffle a fresh deck with the seed and deal seven cards to each player
+     *
+     * @param players Player user IDs in seat order
+     * @param seed Shuffle seed
+     */
+    public static UnoGame deal(long[] players, long seed) {
+        if (players.length < 2 || players.length * HAND_SIZE >= DECK_SIZE) {
+            throw new IllegalArgumentException("UNO needs between 2 and 10 players");
+        }
+        UnoGame game = new UnoGame(players, seed);
+
+        int n = 0;
+        for (int color = UnoCard.RED; color <= UnoCard.BLUE; color++) {
+            game.drawPile[n++] = UnoCard.of(color, 0);
+            for (int rank = 1; rank <= UnoCard.DRAW_TWO; rank++) {
+                game.drawPile[n++] = UnoCard.of(color, rank);
+                game.drawPile[n++] = UnoCard.of(color, rank);
+            }
+        }
+        for (int i = 0; i < 4; i++) {
+            game.drawPile[n++] = UnoCard.of(UnoCard.WILD_COLOR, UnoCard.WILD);
+            game.drawPile[n++] = UnoCard.of(UnoCard.WILD_COLOR, UnoCard.WILD_DRAW_FOUR);
+        }
+        game.drawSize = n;
+        game.shuffle(game.drawPile, game.drawSize);
+
+        for (int round = 0; round < HAND_SIZE; round++) {
+            for (int seat = 0; seat < players.length; seat++) {
+                game.hands[seat][game.handSizes[seat]++] = game.drawPile[--game.drawSize];
+            }
+        }
+
+        // The starting card must be a number card; others go to the bottom of the pile
+        byte first = game.drawPile[--game.drawSize];
+        while (!UnoCard.isNumber(first)) {
+            System.arraycopy(game.drawPile, 0, game.drawPile, 1, game.drawSize);
+            game.drawPile[0] = first;
+            game.drawSize++;
+            first = game.drawPile[--game.drawSize];
+        }
+        game.discardPile[game.discardSize++] = first;
+        game.currentColor = UnoCard.color(first);
+        return game;
+    }
+
+    // Queries
+
+    public int seatOf(long playerId) {
+        for (int seat = 0; seat < players.length; seat++) {
+            if (players[seat] == playerId) {
+                return seat;
+            }
+        }
+        return -1;
+    }
+
+    public int playerCount() {
+        return players.length;
+    }
+
+    public long playerAt(int seat) {
+        return players[seat];
+    }
+
+    public int getCurrentSeat() {
+        return current;
+    }
+
+    public int getDirection() {
+        return direction;
+    }
+
+    public int getCurrentColor() {
+        return currentColor;
+    }
+
+    public byte getTopCard() {
+        return discardPile[discardSize - 1];
+    }
+
+    public int getDrawPileSize() {
+        return drawSize;
+    }
+
+    public int getHandSize(int seat) {
+        return handSizes[seat];
+    }
+
+    /**
+     * Copy of a player's hand, for sending to that player only
+     */
+    public byte[] getHand(int seat) {
+        byte[] hand = new byte[handSizes[seat]];
+        System.arraycopy(hands[seat], 0, hand, 0, hand.length);
+        return hand;
+    }
+
+    public boolean isFinished() {
+        return winner >= 0;
+    }
+
+    /**
+     * @return Winning seat, or -1 while the game is running
+     */
+    public int getWinnerSeat() {
+        return winner;
+    }
+
+    // Moves
+
+    /**
+     * Whether the seat may play the card now
+     *
+     * @param chosenColor Color named for a wild card; ignored otherwise
+     */
+    public boolean canPlay(int seat, byte card, int chosenColor) {
+        if (winner >= 0 || seat != current || findInHand(seat, card) < 0) {
+            return false;
+        }
+        if (UnoCard.isWild(card)) {
+            return chosenColor >= UnoCard.RED && chosenColor <= UnoCard.BLUE;
+        }
+        return UnoCard.color(card) == currentColor || UnoCard.rank(card) == UnoCard.rank(getTopCard());
+    }
+
+    /**
+     * Play a card that passed canPlay and resolve its effect
+     */
+    public void play(int seat, byte card, int chosenColor) {
+        if (!canPlay(seat, card, chosenColor)) {
+            throw new IllegalStateException("Illegal card play");
+        }
+        int index = findInHand(seat, card);
+        hands[seat][index] = hands[seat][--handSizes[seat]];
+        discardPile[discardSize++] = card;
+        currentColor = UnoCard.isWild(card) ? chosenColor : UnoCard.color(card);
+
+        if (handSizes[seat] == 0) {
+            winner = seat;
+            return;
+        }
+
+        switch (UnoCard.rank(card)) {
+            case UnoCard.SKIP -> advance(2);
+            case UnoCard.REVERSE -> {
+                direction = -direction;
+                // With two players a reverse acts as a skip
+                advance(players.length == 2 ? 2 : 1);
+            }
+            case UnoCard.DRAW_TWO -> penalizeNext(2);
+            case UnoCard.WILD_DRAW_FOUR -> penalizeNext(4);
+            default -> advance(1);
+        }
+    }
+
+    public boolean canDraw(int seat) {
+        return winner < 0 && seat == current;
+    }
+
+    /**
+     * Draw one card and pass the turn
+     *
+     * @return The drawn card, or INVALID if no cards are left anywhere
+     */
+    public byte drawAndPass(int seat) {
+        if (!canDraw(seat)) {
+            throw new IllegalStateException("Not this player's turn");
+        }
+        byte card = drawInto(seat);
+        advance(1);
+        return card;
+    }
+
+    // Serialization
+
+    public byte[] toBytes() {
+        int size = 6 * 4 + 8 + players.length * 8 + 4 + drawSize + 4 + discardSize;
+        for (int seat = 0; seat < players.length; seat++) {
+            size += 4 + handSizes[seat];
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(FORMAT_VERSION).putInt(players.length).putInt(current)
+            .putInt(direction).putInt(currentColor).putInt(winner).putLong(rngState);
+        for (long player : players) {
+            buffer.putLong(player);
+        }
+        buffer.putInt(drawSize).put(drawPile, 0, drawSize);
+        buffer.putInt(discardSize).put(discardPile, 0, discardSize);
+        for (int seat = 0; seat < players.length; seat++) {
+            buffer.putInt(handSizes[seat]).put(hands[seat], 0, handSizes[seat]);
+        }
+        return buffer.array();
+    }
+
+    public static UnoGame fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported UNO state format");
+        }
+        long[] players = new long[buffer.getInt()];
+        int current = buffer.getInt();
+        int direction = buffer.getInt();
+        int currentColor = buffer.getInt();
+        int winner = buffer.getInt();
+        long rngState = buffer.getLong();
+        for (int i = 0; i < players.length; i++) {
+            players[i] = buffer.getLong();
+        }
+
+        UnoGame game = new UnoGame(players, rngState);
+        game.current = current;
+        game.direction = direction;
+        game.currentColor = currentColor;
+        game.winner = winner;
+        game.drawSize = buffer.getInt();
+        buffer.get(game.drawPile, 0, game.drawSize);
+        game.discardSize = buffer.getInt();
+        buffer.get(game.discardPile, 0, game.discardSize);
+        for (int seat = 0; seat < players.length; seat++) {
+            game.handSizes[seat] = buffer.getInt();
+            buffer.get(game.hands[seat], 0, game.handSizes[seat]);
+        }
+        return game;
+    }
+
+    // Internals
+
+    private void advance(int steps) {
+        current = Math.floorMod(current + direction * steps, players.length);
+    }
+
+    private void penalizeNext(int cards) {
+        advance(1);
+        for (int i = 0; i < cards; i++) {
+            drawInto(current);
+        }
+        advance(1);
+    }
+
+    private byte drawInto(int seat) {
+        if (drawSize == 0) {
+            recycleDiscardPile();
+            if (drawSize == 0) {
+                return UnoCard.INVALID;
+            }
+        }
+        byte card = drawPile[--drawSize];
+        hands[seat][handSizes[seat]++] = card;
+        return card;
+    }
+
+    private void recycleDiscardPile() {
+        // Everything but the top card is reshuffled into the draw pile
+        byte top = discardPile[discardSize - 1];
+        System.arraycopy(discardPile, 0, drawPile, 0, discardSize - 1);
+        drawSize = discardSize - 1;
+        discardPile[0] = top;
+        discardSize = 1;
+        shuffle(drawPile, drawSize);
+    }
+
+    private int findInHand(int seat, byte card) {
+        byte[] hand = hands[seat];
+        for (int i = 0, n = handSizes[seat]; i < n; i++) {
+            if (hand[i] == card) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void shuffle(byte[] cards, int size) {
+        for (int i = size - 1; i > 0; i--) {
+            int j = (int) Long.remainderUnsigned(nextRandom(), i + 1);
+            byte tmp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = tmp;
+        }
+    }
+
+    // xorshift64*
+    private long nextRandom() {
+        long x = rngState;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        rngState = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+}
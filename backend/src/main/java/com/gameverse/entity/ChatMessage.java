@@ -10,8 +10,8 @@ import java.time.LocalDateTime;
 @Table(name = "chat_messages")
 public class ChatMessage {
 
+    // Assigned by ChatMessageWriter when the message is sent
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,16 @@
+package com.gameverse.event;
+
+/**
+ * Published when a game session ends CANCELLED, without a result to settle
+ */
+public class GameSessionCancelledEvent {
+
+    private final Long sessionId;
+
+    public GameSessionCancelledEvent(Long sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    // Getters
+    public Long getSessionId() { return sessionId; }
+}
@@ -0,0 +1,36 @@
+package com.gameverse.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published when a game session reaches COMPLETED; consumed by settlement
+ */
+public class GameSessionCompletedEvent {
+
+    private final Long sessionId;
+    private final String gameType;
+    private final Long winnerId;
+    private final List<Long> participantIds;
+    private final Map<Long, Integer> finalScores;
+    private final LocalDateTime endedAt;
+
+    public GameSessionCompletedEvent(Long sessionId, String gameType, Long winnerId, List<Long> participantIds,
+                                     Map<Long, Integer> finalScores, LocalDateTime endedAt) {
+        this.sessionId = sessionId;
+        this.gameType = gameType;
+        this.winnerId = winnerId;
+        this.participantIds = participantIds;
+        this.finalScores = finalScores;
+        this.endedAt = endedAt;
+    }
+
+    // Getters
+    public Long getSessionId() { return sessionId; }
+    public String getGameType() { return gameType; }
+    public Long getWinnerId() { return winnerId; }
+    public List<Long> getParticipantIds() { return participantIds; }
+    public Map<Long, Integer> getFinalScores() { return finalScores; }
+    public LocalDateTime getEndedAt() { return endedAt; }
+}
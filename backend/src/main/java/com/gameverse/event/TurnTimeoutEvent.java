@@ -0,0 +1,22 @@
+package com.gameverse.event;
+
+/**
+ * Published when a player's turn clock runs out
+ */
+public class TurnTimeoutEvent {
+
+    private final Long sessionId;
+    private final Long playerId;
+    private final long turn;
+
+    public TurnTimeoutEvent(Long sessionId, Long playerId, long turn) {
+        this.sessionId = sessionId;
+        this.playerId = playerId;
+        this.turn = turn;
+    }
+
+    // Getters
+    public Long getSessionId() { return sessionId; }
+    public Long getPlayerId() { return playerId; }
+    public long getTurn() { return turn; }
+}
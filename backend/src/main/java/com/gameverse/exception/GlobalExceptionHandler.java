@@ -3,6 +3,7 @@ package com.gameverse.exception;
 import com.gameverse.dto.response.ApiResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -91,6 +92,32 @@ public class GlobalExceptionHandler {
         );
     }
 
+    /**
+     * Handle rate limit exceptions
+     */
+    @ExceptionHandler(RateLimitException.class)
+    public ResponseEntity<ApiResponse> handleRateLimitException(RateLimitException ex) {
+        logger.debug("Rate limited: {}", ex.getMessage());
+        
+        // Retry-After is in whole seconds
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf((ex.getRetryAfterMs() + 999) / 1000))
+            .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    /**
+     * Handle requests refused while the server is overloaded
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse> handleServiceBusyException(ServiceBusyException ex) {
+        logger.debug("Service busy: {}", ex.getMessage());
+        
+        // Retry-After is in whole seconds
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf((ex.getRetryAfterMs() + 999) / 1000))
+            .body(ApiResponse.error(ex.getMessage()));
+    }
+
     /**
      * Handle generic runtime exceptions
      */
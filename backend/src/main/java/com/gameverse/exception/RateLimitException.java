@@ -0,0 +1,18 @@
+package com.gameverse.exception;
+
+/**
+ * Thrown when a client sends faster than it is allowed to
+ */
+public class RateLimitException extends RuntimeException {
+
+    private final long retryAfterMs;
+
+    public RateLimitException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
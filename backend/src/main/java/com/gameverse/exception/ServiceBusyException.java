@@ -0,0 +1,18 @@
+package com.gameverse.exception;
+
+/**
+ * Thrown when a request is refused because the server is temporarily overloaded
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterMs;
+
+    public ServiceBusyException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
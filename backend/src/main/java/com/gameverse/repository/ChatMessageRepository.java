@@ -24,6 +24,44 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     @Query("SELECT cm FROM ChatMessage cm WHERE cm.room.id = :roomId AND cm.isDeleted = false ORDER BY cm.createdAt DESC")
     Page<ChatMessage> findRecentMessagesByRoomId(@Param("roomId") String roomId, Pageable pageable);
 
+    /**
+     * Find recent messages in a room as (id, userId, displayName, message, messageType, createdAt), newest first
+     */
+    @Query("SELECT cm.id, u.id, p.displayName, cm.message, cm.messageType, cm.createdAt FROM ChatMessage cm " +
+           "LEFT JOIN cm.user u LEFT JOIN u.profile p " +
+           "WHERE cm.room.id = :roomId AND cm.isDeleted = false ORDER BY cm.createdAt DESC, cm.id DESC")
+    List<Object[]> findRecentMessageRows(@Param("roomId") String roomId, Pageable pageable);
+
+    /**
+     * Find messages older than a message, newest first; rows as in findRecentMessageRows
+     */
+    @Query("SELECT cm.id, u.id, p.displayName, cm.message, cm.messageType, cm.createdAt FROM ChatMessage cm " +
+           "LEFT JOIN cm.user u LEFT JOIN u.profile p " +
+           "WHERE cm.room.id = :roomId AND cm.id < :beforeId AND cm.isDeleted = false ORDER BY cm.id DESC")
+    List<Object[]> findMessageRowsBefore(@Param("roomId") String roomId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    /**
+     * Find messages newer than a message, oldest first; rows as in findRecentMessageRows
+     */
+    @Query("SELECT cm.id, u.id, p.displayName, cm.message, cm.messageType, cm.createdAt FROM ChatMessage cm " +
+           "LEFT JOIN cm.user u LEFT JOIN u.profile p " +
+           "WHERE cm.room.id = :roomId AND cm.id > :afterId AND cm.isDeleted = false ORDER BY cm.id ASC")
+    List<Object[]> findMessageRowsAfter(@Param("roomId") String roomId, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Find messages by ID; rows as in findRecentMessageRows, in no particular order
+     */
+    @Query("SELECT cm.id, u.id, p.displayName, cm.message, cm.messageType, cm.createdAt FROM ChatMessage cm " +
+           "LEFT JOIN cm.user u LEFT JOIN u.profile p WHERE cm.id IN :ids")
+    List<Object[]> findMessageRowsByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Find messages by ID that are not deleted; rows as in findRecentMessageRows, in no particular order
+     */
+    @Query("SELECT cm.id, u.id, p.displayName, cm.message, cm.messageType, cm.createdAt FROM ChatMessage cm " +
+           "LEFT JOIN cm.user u LEFT JOIN u.profile p WHERE cm.id IN :ids AND cm.isDeleted = false")
+    List<Object[]> findLiveMessageRowsByIds(@Param("ids") List<Long> ids);
+
     /**
      * Find messages in room since a specific time
      */
@@ -1,6 +1,7 @@
 package com.gameverse.repository;
 
 import com.gameverse.entity.GameParticipant;
+import com.gameverse.entity.GameSession;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,10 +14,14 @@ import java.util.Optional;
 public interface GameParticipantRepository extends JpaRepository<GameParticipant, Long> {
     
     List<GameParticipant> findBySessionId(Long sessionId);
+
+    List<GameParticipant> findBySessionIdIn(List<Long> sessionIds);
     
     List<GameParticipant> findByUserId(Long userId);
     
     Optional<GameParticipant> findBySessionIdAndUserId(Long sessionId, Long userId);
+
+    boolean existsBySessionIdAndUserId(Long sessionId, Long userId);
     
     @Query("SELECT COUNT(gp) FROM GameParticipant gp WHERE gp.sessionId = :sessionId")
     Long countParticipantsBySession(@Param("sessionId") Long sessionId);
@@ -31,4 +36,12 @@ public interface GameParticipantRepository extends JpaRepository<GameParticipant
     @Query("SELECT COUNT(gp) FROM GameParticipant gp JOIN GameSession gs ON gp.sessionId = gs.id " +
            "WHERE gp.userId = :userId AND gs.status = 'COMPLETED'")
     Long countCompletedGamesByUser(@Param("userId") Long userId);
+
+    /**
+     * Participant user ids of a session, empty unless the session is in one of the given statuses
+     */
+    @Query("SELECT gp.userId FROM GameParticipant gp JOIN GameSession gs ON gp.sessionId = gs.id " +
+           "WHERE gs.id = :sessionId AND gs.status IN :statuses")
+    List<Long> findUserIdsBySessionIdAndStatusIn(@Param("sessionId") Long sessionId,
+                                                 @Param("statuses") List<GameSession.Status> statuses);
 }
\ No newline at end of file
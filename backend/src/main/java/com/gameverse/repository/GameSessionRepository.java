@@ -1,11 +1,16 @@
 package com.gameverse.repository;
 
 import com.gameverse.entity.GameSession;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +19,13 @@ import java.util.Optional;
 public interface GameSessionRepository extends JpaRepository<GameSession, Long> {
     
     Optional<GameSession> findBySessionCode(String sessionCode);
+
+    /**
+     * Load a session and lock its row until the transaction ends, so moves, timeouts and forfeits of a session run one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT gs FROM GameSession gs WHERE gs.id = :id")
+    Optional<GameSession> findByIdForUpdate(@Param("id") Long id);
     
     List<GameSession> findByGameTypeAndStatus(GameSession.GameType gameType, GameSession.Status status);
     
@@ -37,4 +49,65 @@ public interface GameSessionRepository extends JpaRepository<GameSession, Long>
     @Query("SELECT gs FROM GameSession gs JOIN GameParticipant gp ON gs.id = gp.sessionId " +
            "WHERE gp.userId = :userId ORDER BY gs.createdAt DESC")
     List<GameSession> findGamesByUser(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+    /**
+     * Session, participants and display names in one query, one row per participant:
+     * [gameType, status, gameState, createdAt, startedAt, userId, playerPosition, finalScore, displayName]
+     */
+    @Query("SELECT gs.gameType, gs.status, gs.gameState, gs.createdAt, gs.startedAt, " +
+           "gp.userId, gp.playerPosition, gp.finalScore, p.displayName " +
+           "FROM GameSession gs JOIN GameParticipant gp ON gp.sessionId = gs.id " +
+           "LEFT JOIN Profile p ON p.user.id = gp.userId " +
+           "WHERE gs.id = :sessionId")
+    List<Object[]> findSessionInfoRows(@Param("sessionId") Long sessionId);
+
+    /**
+     * Keyset page of stale sessions by creation time, served from the (status, created_at) index:
+     * [id, gameType, createdAt]
+     */
+    @Query("SELECT gs.id, gs.gameType, gs.createdAt FROM GameSession gs " +
+           "WHERE gs.status = :status AND gs.createdAt < :cutoff " +
+           "AND (gs.createdAt > :afterTime OR (gs.createdAt = :afterTime AND gs.id > :afterId)) " +
+           "ORDER BY gs.createdAt, gs.id")
+    List<Object[]> findStaleByCreatedAt(@Param("status") GameSession.Status status,
+                                        @Param("cutoff") LocalDateTime cutoff,
+                                        @Param("afterTime") LocalDateTime afterTime,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    /**
+     * Keyset page of stale sessions by start time, served from the (status, started_at) index:
+     * [id, gameType, startedAt]
+     */
+    @Query("SELECT gs.id, gs.gameType, gs.startedAt FROM GameSession gs " +
+           "WHERE gs.status = :status AND gs.startedAt < :cutoff " +
+           "AND (gs.startedAt > :afterTime OR (gs.startedAt = :afterTime AND gs.id > :afterId)) " +
+           "ORDER BY gs.startedAt, gs.id")
+    List<Object[]> findStaleByStartedAt(@Param("status") GameSession.Status status,
+                                        @Param("cutoff") LocalDateTime cutoff,
+                                        @Param("afterTime") LocalDateTime afterTime,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    /**
+     * Move a chunk of sessions out of a status; rows that changed status meanwhile are left alone
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE GameSession gs SET gs.status = :newStatus, gs.endedAt = :endedAt " +
+           "WHERE gs.id IN :ids AND gs.status = :status")
+    int updateStatusForIds(@Param("ids") List<Long> ids,
+                           @Param("status") GameSession.Status status,
+                           @Param("newStatus") GameSession.Status newStatus,
+                           @Param("endedAt") LocalDateTime endedAt);
+
+    /**
+     * Lock the sessions of a chunk that are still in a status; the caller's transaction then owns exactly these rows
+     */
+    @Query(value = "SELECT id FROM game_sessions WHERE id IN (:ids) AND status = :status FOR UPDATE",
+           nativeQuery = true)
+    List<Long> lockIdsWithStatus(@Param("ids") List<Long> ids, @Param("status") String status);
+
+    @Query("SELECT gs.id, gs.gameType FROM GameSession gs WHERE gs.status = :status")
+    List<Object[]> findIdsAndTypesByStatus(@Param("status") GameSession.Status status);
+}
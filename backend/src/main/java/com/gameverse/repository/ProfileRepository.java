@@ -2,6 +2,7 @@ package com.gameverse.repository;
 
 import com.gameverse.entity.Profile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -96,4 +97,18 @@ public interface ProfileRepository extends JpaRepository<Profile, Long> {
      */
     @Query("SELECT p FROM Profile p WHERE p.createdAt > :since ORDER BY p.createdAt DESC")
     List<Profile> findRecentProfiles(@Param("since") java.time.LocalDateTime since);
-}
\ No newline at end of file
+
+    /**
+     * Record a finished session for every participant's profile in one statement:
+     * bump played/won counters and add the game type to games_played if missing
+     */
+    @Modifying
+    @Query(value = "UPDATE profiles p JOIN game_participants gp ON gp.user_id = p.user_id " +
+           "SET p.total_games_played = p.total_games_played + 1, " +
+           "p.total_games_won = p.total_games_won + IF(gp.user_id <=> :winnerId, 1, 0), " +
+           "p.games_played = IF(JSON_CONTAINS(COALESCE(p.games_played, JSON_ARRAY()), JSON_QUOTE(:gameType)), " +
+           "p.games_played, JSON_ARRAY_APPEND(COALESCE(p.games_played, JSON_ARRAY()), '$', :gameType)) " +
+           "WHERE gp.session_id = :sessionId", nativeQuery = true)
+    int recordSessionResults(@Param("sessionId") Long sessionId, @Param("gameType") String gameType,
+                             @Param("winnerId") Long winnerId);
+}
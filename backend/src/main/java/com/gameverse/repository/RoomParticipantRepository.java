@@ -125,4 +125,26 @@ public interface RoomParticipantRepository extends JpaRepository<RoomParticipant
      */
     @Query("SELECT COUNT(rp) = 0 FROM RoomParticipant rp WHERE rp.room.id = :roomId AND rp.user.id = :userId AND rp.isActive = true")
     boolean canUserJoinRoom(@Param("roomId") String roomId, @Param("userId") Long userId);
-}
\ No newline at end of file
+
+    /**
+     * Active memberships with member identity, for loading the room registry:
+     * [roomId, userId, displayName, avatarId, joinedAt, lastActivity]
+     */
+    @Query("SELECT rp.room.id, u.id, p.displayName, p.avatarId, rp.joinedAt, rp.lastActivity " +
+           "FROM RoomParticipant rp JOIN rp.user u LEFT JOIN u.profile p WHERE rp.isActive = true")
+    List<Object[]> findActiveMemberRows();
+
+    /**
+     * Active memberships of one room, same columns as findActiveMemberRows
+     */
+    @Query("SELECT rp.room.id, u.id, p.displayName, p.avatarId, rp.joinedAt, rp.lastActivity " +
+           "FROM RoomParticipant rp JOIN rp.user u LEFT JOIN u.profile p " +
+           "WHERE rp.room.id = :roomId AND rp.isActive = true")
+    List<Object[]> findActiveMemberRowsByRoomId(@Param("roomId") String roomId);
+
+    /**
+     * Active memberships as [roomId, userId], for the room each user is in
+     */
+    @Query("SELECT rp.room.id, rp.user.id FROM RoomParticipant rp WHERE rp.isActive = true")
+    List<Object[]> findActiveMembershipIds();
+}
@@ -25,6 +25,12 @@ public interface RoomRepository extends JpaRepository<Room, String> {
     @Query("SELECT r FROM Room r WHERE r.isActive = true ORDER BY r.currentCount DESC, r.createdAt DESC")
     Page<Room> findActiveRoomsOrderByActivity(Pageable pageable);
 
+    /**
+     * Find active rooms as (id, name, description, maxCapacity, createdAt, currentCount)
+     */
+    @Query("SELECT r.id, r.name, r.description, r.maxCapacity, r.createdAt, r.currentCount FROM Room r WHERE r.isActive = true")
+    List<Object[]> findActiveRoomRows();
+
     /**
      * Find rooms with available space
      */
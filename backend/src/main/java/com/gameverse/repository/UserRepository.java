@@ -59,4 +59,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT u FROM User u WHERE u.updatedAt > :since ORDER BY u.updatedAt DESC")
     List<User> findRecentlyActiveUsers(@Param("since") LocalDateTime since);
-}
\ No newline at end of file
+
+    /**
+     * Identity shown for a room member: [userId, displayName, avatarId]
+     */
+    @Query("SELECT u.id, p.displayName, p.avatarId FROM User u LEFT JOIN u.profile p WHERE u.id = :userId")
+    List<Object[]> findMemberInfoRows(@Param("userId") Long userId);
+}
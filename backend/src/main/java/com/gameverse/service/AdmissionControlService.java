@@ -0,0 +1,242 @@
+package com.gameverse.service;
+
+import com.gameverse.entity.GameSession;
+import com.gameverse.repository.GameSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for concurrent game sessions on this node
+ *
+ * Keeps live counters of IN_PROGRESS sessions, overall and per game type, and
+ * hands out a permit per session up to the configured limits. Permits are
+ * released when the session completes or is cancelled. Each permit is a lease
+ * renewed by the session's moves; a lease not renewed within session-timeout
+ * is checked against the database and reclaimed only if the session is gone
+ * or finished, so a slow game keeps its slot and a lost release does not
+ * leak it.
+ */
+@Service
+public class AdmissionControlService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlService.class);
+
+    @Autowired
+    private GameSessionRepository gameSessionRepository;
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
+
+    @Value("${gameverse.games.max-concurrent-sessions:1000}")
+    private int maxConcurrentSessions;
+
+    // e.g. "CHESS:300,UNO:200"; game types not listed are only bound by the node limit
+    @Value("${gameverse.games.admission.per-game-type-limits:}")
+    private String perGameTypeLimits;
+
+    @Value("${gameverse.games.session-timeout:1800000}")
+    private long sessionTimeoutMs;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final Map<GameSession.GameType, AtomicInteger> activeByType = new EnumMap<>(GameSession.GameType.class);
+    private final Map<GameSession.GameType, Integer> typeLimits = new EnumMap<>(GameSession.GameType.class);
+    private final Map<Long, Permit> permits = new ConcurrentHashMap<>();
+
+    private static class Permit {
+        private final GameSession.GameType gameType;
+        private volatile long renewedAt;
+
+        Permit(GameSession.GameType gameType, long renewedAt) {
+            this.gameType = gameType;
+            this.renewedAt = renewedAt;
+        }
+    }
+
+    public static class AdmissionStatus {
+        private final String gameType;
+        private final int activeSessions;
+        private final int gameTypeSessions;
+        private final int maxConcurrentSessions;
+        private final Integer gameTypeLimit;
+
+        public AdmissionStatus(String gameType, int activeSessions, int gameTypeSessions,
+                               int maxConcurrentSessions, Integer gameTypeLimit) {
+            this.gameType = gameType;
+            this.activeSessions = activeSessions;
+            this.gameTypeSessions = gameTypeSessions;
+            this.maxConcurrentSessions = maxConcurrentSessions;
+            this.gameTypeLimit = gameTypeLimit;
+        }
+
+        // Getters
+        public String getGameType() { return gameType; }
+        public int getActiveSessions() { return activeSessions; }
+        public int getGameTypeSessions() { return gameTypeSessions; }
+        public int getMaxConcurrentSessions() { return maxConcurrentSessions; }
+        public Integer getGameTypeLimit() { return gameTypeLimit; }
+    }
+
+    @PostConstruct
+    void init() {
+        for (GameSession.GameType type : GameSession.GameType.values()) {
+            activeByType.put(type, new AtomicInteger());
+        }
+        for (String entry : perGameTypeLimits.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length == 2) {
+                typeLimits.put(GameSession.GameType.valueOf(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            }
+        }
+    }
+
+    /**
+     * Count sessions owned by this node that were already running when it started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        try {
+            for (Object[] row : gameSessionRepository.findIdsAndTypesByStatus(GameSession.Status.IN_PROGRESS)) {
+                Long sessionId = (Long) row[0];
+                GameSession.GameType gameType = (GameSession.GameType) row[1];
+                // Sessions owned by other nodes count against their limits, not ours
+                if (!sessionOwnershipService.isOwner(sessionId)) {
+                    continue;
+                }
+                if (permits.putIfAbsent(sessionId, new Permit(gameType, System.currentTimeMillis())) == null) {
+                    active.incrementAndGet();
+                    activeByType.get(gameType).incrementAndGet();
+                }
+            }
+            logger.info("Admission control: {} sessions in progress at startup", active.get());
+        } catch (Exception e) {
+            logger.warn("Failed to reconcile running sessions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reserve a slot for a new session of the game type
+     *
+     * @return false if the node or game type is at its limit
+     */
+    public boolean tryAcquire(GameSession.GameType gameType) {
+        AtomicInteger typeCount = activeByType.get(gameType);
+        Integer typeLimit = typeLimits.get(gameType);
+
+        if (!incrementBelow(active, maxConcurrentSessions)) {
+            return false;
+        }
+        if (typeLimit != null && !incrementBelow(typeCount, typeLimit)) {
+            active.decrementAndGet();
+            return false;
+        }
+        if (typeLimit == null) {
+            typeCount.incrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * Attach a reserved slot to the session that uses it
+     */
+    public void bind(Long sessionId, GameSession.GameType gameType) {
+        permits.put(sessionId, new Permit(gameType, System.currentTimeMillis()));
+    }
+
+    /**
+     * Extend the lease of a session's slot; called on session activity
+     */
+    public void renew(Long sessionId) {
+        Permit permit = permits.get(sessionId);
+        if (permit != null) {
+            permit.renewedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Give back a slot reserved with tryAcquire that never got a session
+     */
+    public void cancel(GameSession.GameType gameType) {
+        active.decrementAndGet();
+        activeByType.get(gameType).decrementAndGet();
+    }
+
+    /**
+     * Release the session's slot; repeated calls are ignored
+     *
+     * @return The game type whose capacity was freed, or null
+     */
+    public GameSession.GameType release(Long sessionId) {
+        Permit permit = permits.remove(sessionId);
+        if (permit == null) {
+            return null;
+        }
+        cancel(permit.gameType);
+        return permit.gameType;
+    }
+
+    public AdmissionStatus getStatus(GameSession.GameType gameType) {
+        return new AdmissionStatus(gameType.name(), active.get(), activeByType.get(gameType).get(),
+            maxConcurrentSessions, typeLimits.get(gameType));
+    }
+
+    /**
+     * Reclaim permits whose lease ran out and whose session is no longer running
+     */
+    @Scheduled(fixedRate = 60000) // 1 minute
+    public void reclaimExpiredPermits() {
+        long now = System.currentTimeMillis();
+        long cutoff = now - sessionTimeoutMs;
+        List<Long> expired = new ArrayList<>();
+        permits.forEach((sessionId, permit) -> {
+            if (permit.renewedAt < cutoff) {
+                expired.add(sessionId);
+            }
+        });
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        Set<Long> running = new HashSet<>();
+        for (GameSession session : gameSessionRepository.findAllById(expired)) {
+            if (session.getStatus() == GameSession.Status.WAITING
+                    || session.getStatus() == GameSession.Status.IN_PROGRESS) {
+                running.add(session.getId());
+            }
+        }
+        for (Long sessionId : expired) {
+            if (running.contains(sessionId)) {
+                renew(sessionId);
+            } else if (release(sessionId) != null) {
+                logger.warn("Reclaimed admission permit of session {} after lease expiry", sessionId);
+            }
+        }
+    }
+
+    private static boolean incrementBelow(AtomicInteger counter, int limit) {
+        while (true) {
+            int current = counter.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.gameverse.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One append-only archive file of a room's chat for one month
+ *
+ * Blocks are framed as [magic][length][crc32][firstId][lastId][gzip payload].
+ * Every archive run appends one block per room and month, so an old month is
+ * never rewritten. The id range in the frame lets a reader skip blocks
+ * without inflating them. A block torn by a crash fails its length or
+ * checksum; readers stop in front of it and the next append cuts it off.
+ */
+final class ChatArchiveSegment {
+
+    private static final int MAGIC = 0x47434841;
+    private static final int HEADER_BYTES = 28;
+
+    private ChatArchiveSegment() {
+    }
+
+    /**
+     * Compress and append a block of records, then force it to disk
+     *
+     * @param firstId Lowest message id in the block
+     * @param lastId Highest message id in the block
+     */
+    static void append(Path path, long firstId, long lastId, byte[] records) throws IOException {
+        byte[] payload = compress(records);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer block = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        block.putInt(MAGIC).putInt(payload.length).putInt((int) crc.getValue())
+            .putLong(firstId).putLong(lastId).put(payload).flip();
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = scan(channel)[0];
+            channel.truncate(end);
+            channel.position(end);
+            while (block.hasRemaining()) {
+                channel.write(block);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Hand the inflated payload of every intact block overlapping (afterId, beforeId) to the consumer, in append order
+     */
+    static void read(Path path, long afterId, long beforeId, Consumer<ByteBuffer> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= HEADER_BYTES && buffer.getInt(buffer.position()) == MAGIC) {
+                buffer.getInt();
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                long firstId = buffer.getLong();
+                long lastId = buffer.getLong();
+                if (length < 0 || length > buffer.remaining()) {
+                    return;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                if (lastId <= afterId || firstId >= beforeId) {
+                    continue;
+                }
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    return;
+                }
+                consumer.accept(ByteBuffer.wrap(inflate(payload)));
+            }
+        }
+    }
+
+    /**
+     * Highest message id in the file, or -1 if it holds no intact block
+     */
+    static long lastId(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return scan(channel)[1];
+        }
+    }
+
+    /**
+     * End of the last intact block and its last id
+     *
+     * Only the last block can be torn, so only its checksum is checked.
+     */
+    private static long[] scan(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long position = 0;
+        long lastId = -1;
+        long size = channel.size();
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            int length = header.getInt(4);
+            if (header.getInt(0) != MAGIC || length < 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            long next = position + HEADER_BYTES + length;
+            if (next + HEADER_BYTES > size) {
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                channel.read(payload, position + HEADER_BYTES);
+                CRC32 crc = new CRC32();
+                crc.update(payload.flip());
+                if ((int) crc.getValue() != header.getInt(8)) {
+                    break;
+                }
+            }
+            lastId = header.getLong(20);
+            position = next;
+        }
+        return new long[] { position, lastId };
+    }
+
+    private static byte[] compress(byte[] records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(records.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(records);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] inflate(ByteBuffer payload) throws IOException {
+        byte[] compressed = new byte[payload.remaining()];
+        payload.get(compressed);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
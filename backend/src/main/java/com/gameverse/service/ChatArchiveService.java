@@ -0,0 +1,348 @@
+package com.gameverse.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Retention of room chat: old messages move from chat_messages to archive files
+ *
+ * Messages older than the retention age are read in chunks in id order,
+ * appended as one compressed block per room and month to
+ * {directory}/{roomId}/{yyyy-MM}.archive, forced to disk and only then
+ * deleted from the table, so the hot table only holds recent chat. Soft
+ * deleted messages are dropped without being archived.
+ *
+ * Ids of a room only grow, so anything at or below the last id already in
+ * its archive was archived before a crash and is deleted without being
+ * appended twice. History reads fall through to the archive when the table
+ * runs out. The job is off by default and runs on the nodes where it is
+ * enabled; every node serving history needs to see the same directory. A run
+ * holds a database lock, so runs of different nodes never overlap and each
+ * re-reads where the archive ends.
+ */
+@Service
+public class ChatArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatArchiveService.class);
+
+    private static final String SUFFIX = ".archive";
+    private static final Pattern ROOM_ID = Pattern.compile("[A-Za-z0-9_-]{1,20}");
+    private static final Pattern SEGMENT_NAME = Pattern.compile("\\d{4}-\\d{2}\\.archive");
+    private static final String LOCK_NAME = "gameverse.chat_archive";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${gameverse.rooms.chat.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${gameverse.rooms.chat.archive.directory:data/chat-archive}")
+    private String directory;
+
+    @Value("${gameverse.rooms.chat.archive.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${gameverse.rooms.chat.archive.chunk-size:1000}")
+    private int chunkSize;
+
+    // Highest archived id per room, read from the newest segment the first time a run meets the room
+    private final Map<String, Long> archivedThrough = new HashMap<>();
+
+    private static class ArchivedRow {
+        private final long id;
+        private final String roomId;
+        private final RoomService.MessageResponse message;
+        private final boolean deleted;
+
+        ArchivedRow(long id, String roomId, RoomService.MessageResponse message, boolean deleted) {
+            this.id = id;
+            this.roomId = roomId;
+            this.message = message;
+            this.deleted = deleted;
+        }
+    }
+
+    /**
+     * Archive and delete messages past the retention age
+     */
+    @Scheduled(fixedDelayString = "${gameverse.rooms.chat.archive.interval-ms:3600000}",
+               initialDelayString = "${gameverse.rooms.chat.archive.interval-ms:3600000}")
+    public synchronized void archiveOldMessages() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // GET_LOCK belongs to the connection, so the run holds one connection for the lock throughout
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                if (!namedLock(connection, "SELECT GET_LOCK(?, 0)")) {
+                    logger.debug("Chat archive run skipped; another node holds the lock");
+                    return null;
+                }
+                try {
+                    // Another node may have appended since this node's last run
+                    archivedThrough.clear();
+                    archive();
+                } finally {
+                    namedLock(connection, "SELECT RELEASE_LOCK(?)");
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("Failed to lock the chat archive: {}", e.getMessage());
+        }
+    }
+
+    private void archive() {
+        Timestamp threshold = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        int archived = 0;
+        int removed = 0;
+        try {
+            while (true) {
+                List<ArchivedRow> rows = jdbcTemplate.query(
+                    "SELECT cm.id, cm.room_id, cm.user_id, p.display_name, cm.message, cm.message_type, cm.created_at, cm.is_deleted " +
+                    "FROM chat_messages cm LEFT JOIN profiles p ON p.user_id = cm.user_id " +
+                    "WHERE cm.created_at < ? ORDER BY cm.id LIMIT ?",
+                    (rs, rowNum) -> {
+                        long userId = rs.getLong(3);
+                        Long user = rs.wasNull() ? null : userId;
+                        String userName = user == null ? "System" : rs.getString(4) != null ? rs.getString(4) : "Anonymous";
+                        RoomService.MessageResponse message = new RoomService.MessageResponse(rs.getLong(1), user, userName,
+                            rs.getString(5), rs.getString(6), rs.getTimestamp(7).toLocalDateTime());
+                        return new ArchivedRow(rs.getLong(1), rs.getString(2), message, rs.getBoolean(8));
+                    },
+                    threshold, chunkSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                archived += append(rows);
+                removed += deleteRows(rows);
+                if (rows.size() < chunkSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            // Rows are deleted only after their block is on disk, so the next run picks up where this one failed
+            logger.warn("Failed to archive chat messages: {}", e.getMessage());
+        }
+        if (removed > 0) {
+            logger.info("Archived {} chat messages, removed {} from chat_messages", archived, removed);
+        }
+    }
+
+    /**
+     * Archived messages of a room older than a message, newest first
+     */
+    public List<RoomService.MessageResponse> getBefore(String roomId, long beforeId, int limit) {
+        List<RoomService.MessageResponse> messages = new ArrayList<>();
+        List<Path> segments = listSegments(roomId);
+        // Months hold increasing ids, so the newest month with older messages comes first
+        for (int i = segments.size() - 1; i >= 0 && messages.size() < limit; i--) {
+            List<RoomService.MessageResponse> inSegment = read(segments.get(i), Long.MIN_VALUE, beforeId);
+            inSegment.sort(Comparator.comparing(RoomService.MessageResponse::getId).reversed());
+            messages.addAll(inSegment.subList(0, Math.min(limit - messages.size(), inSegment.size())));
+        }
+        return messages;
+    }
+
+    /**
+     * Archived messages of a room newer than a message, oldest first
+     */
+    public List<RoomService.MessageResponse> getAfter(String roomId, long afterId, int limit) {
+        List<RoomService.MessageResponse> messages = new ArrayList<>();
+        List<Path> segments = listSegments(roomId);
+        try {
+            if (segments.isEmpty() || ChatArchiveSegment.lastId(segments.get(segments.size() - 1)) <= afterId) {
+                return messages;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read chat archive of room {}: {}", roomId, e.getMessage());
+            return messages;
+        }
+        for (int i = 0; i < segments.size() && messages.size() < limit; i++) {
+            List<RoomService.MessageResponse> inSegment = read(segments.get(i), afterId, Long.MAX_VALUE);
+            inSegment.sort(Comparator.comparing(RoomService.MessageResponse::getId));
+            messages.addAll(inSegment.subList(0, Math.min(limit - messages.size(), inSegment.size())));
+        }
+        return messages;
+    }
+
+    /**
+     * Append the chunk's live messages to their segments
+     *
+     * @return Number of messages appended
+     */
+    private int append(List<ArchivedRow> rows) throws IOException {
+        Map<Path, List<RoomService.MessageResponse>> blocks = new LinkedHashMap<>();
+        for (ArchivedRow row : rows) {
+            if (row.deleted || row.id <= archivedThrough(row.roomId)) {
+                continue;
+            }
+            Path segment = roomDirectory(row.roomId).resolve(YearMonth.from(row.message.getTimestamp()) + SUFFIX);
+            blocks.computeIfAbsent(segment, s -> new ArrayList<>()).add(row.message);
+        }
+
+        int appended = 0;
+        for (Map.Entry<Path, List<RoomService.MessageResponse>> block : blocks.entrySet()) {
+            List<RoomService.MessageResponse> messages = block.getValue();
+            Files.createDirectories(block.getKey().getParent());
+            long firstId = messages.get(0).getId();
+            long lastId = messages.get(messages.size() - 1).getId();
+            ChatArchiveSegment.append(block.getKey(), firstId, lastId, encode(messages));
+            archivedThrough.merge(block.getKey().getParent().getFileName().toString(), lastId, Math::max);
+            appended += messages.size();
+        }
+        return appended;
+    }
+
+    private static boolean namedLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private int deleteRows(List<ArchivedRow> rows) {
+        StringBuilder sql = new StringBuilder("DELETE FROM chat_messages WHERE id IN (");
+        Object[] ids = new Object[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            ids[i] = rows.get(i).id;
+        }
+        return jdbcTemplate.update(sql.append(")").toString(), ids);
+    }
+
+    private long archivedThrough(String roomId) throws IOException {
+        Long through = archivedThrough.get(roomId);
+        if (through == null) {
+            List<Path> segments = listSegments(roomId);
+            through = segments.isEmpty() ? -1 : ChatArchiveSegment.lastId(segments.get(segments.size() - 1));
+            archivedThrough.put(roomId, through);
+        }
+        return through;
+    }
+
+    private List<RoomService.MessageResponse> read(Path segment, long afterId, long beforeId) {
+        List<RoomService.MessageResponse> messages = new ArrayList<>();
+        try {
+            ChatArchiveSegment.read(segment, afterId, beforeId, payload -> {
+                int count = payload.getInt();
+                for (int i = 0; i < count; i++) {
+                    RoomService.MessageResponse message = decode(payload);
+                    if (message.getId() > afterId && message.getId() < beforeId) {
+                        messages.add(message);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to read chat archive segment {}: {}", segment, e.getMessage());
+        }
+        return messages;
+    }
+
+    /**
+     * Segments of the room, oldest month first
+     */
+    private List<Path> listSegments(String roomId) {
+        if (!ROOM_ID.matcher(roomId).matches()) {
+            return Collections.emptyList();
+        }
+        Path dir = roomDirectory(roomId);
+        if (!Files.isDirectory(dir)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                .filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                .sorted()
+                .toList();
+        } catch (IOException e) {
+            logger.warn("Failed to list chat archive of room {}: {}", roomId, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private Path roomDirectory(String roomId) {
+        return Paths.get(directory, roomId);
+    }
+
+    private static byte[] encode(List<RoomService.MessageResponse> messages) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(messages.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(messages.size());
+        for (RoomService.MessageResponse message : messages) {
+            out.writeLong(message.getId());
+            out.writeLong(message.getUserId() != null ? message.getUserId() : -1);
+            writeString(out, message.getUserName());
+            writeString(out, message.getMessage());
+            writeString(out, message.getMessageType());
+            out.writeLong(message.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static RoomService.MessageResponse decode(ByteBuffer payload) {
+        long id = payload.getLong();
+        long userId = payload.getLong();
+        String userName = readString(payload);
+        String message = readString(payload);
+        String messageType = readString(payload);
+        LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(payload.getLong()), ZoneId.systemDefault());
+        return new RoomService.MessageResponse(id, userId >= 0 ? userId : null, userName, message, messageType, createdAt);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
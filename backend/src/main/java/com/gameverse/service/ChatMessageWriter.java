@@ -0,0 +1,223 @@
+package com.gameverse.service;
+
+import com.gameverse.entity.ChatMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind persistence for room chat messages
+ *
+ * Messages get their id on this node when they are sent, so they can be
+ * broadcast right away and inserted later. They wait in a bounded buffer that
+ * a background writer drains into multi-row INSERTs; when the database falls
+ * behind and the buffer fills up, new messages are refused instead of queued
+ * without limit. Search postings are written with each batch.
+ *
+ * Ids are time ordered: milliseconds since 2024-01-01 (41 bits), the worker id
+ * (4 bits) and a per-millisecond sequence (8 bits). 53 bits in total, so they
+ * stay exact as JavaScript numbers on the client. The worker id is this node's
+ * position in the cluster membership list unless set explicitly, so no two
+ * nodes hand out the same ids.
+ */
+@Service
+public class ChatMessageWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageWriter.class);
+
+    private static final long EPOCH_MS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int WORKER_BITS = 4;
+    private static final int SEQUENCE_BITS = 8;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChatSearchService chatSearchService;
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
+
+    // Must differ between nodes writing to the same database; -1 takes it from the cluster membership
+    @Value("${gameverse.rooms.chat.worker-id:-1}")
+    private int workerId;
+
+    @Value("${gameverse.rooms.chat.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${gameverse.rooms.chat.batch-size:500}")
+    private int batchSize;
+
+    private BlockingQueue<QueuedMessage> buffer;
+
+    // Millisecond and sequence of the last id, as one value so it can be advanced by CAS
+    private final AtomicLong lastStamp = new AtomicLong();
+
+    // Batch whose insert failed; retried before anything else is drained
+    private List<QueuedMessage> failedBatch = List.of();
+
+    public static class QueuedMessage {
+        private final long id;
+        private final String roomId;
+        private final Long userId;
+        private final String message;
+        private final ChatMessage.MessageType messageType;
+        private final LocalDateTime createdAt;
+
+        public QueuedMessage(long id, String roomId, Long userId, String message,
+                             ChatMessage.MessageType messageType, LocalDateTime createdAt) {
+            this.id = id;
+            this.roomId = roomId;
+            this.userId = userId;
+            this.message = message;
+            this.messageType = messageType;
+            this.createdAt = createdAt;
+        }
+
+        // Getters
+        public long getId() { return id; }
+        public String getRoomId() { return roomId; }
+        public Long getUserId() { return userId; }
+        public String getMessage() { return message; }
+        public ChatMessage.MessageType getMessageType() { return messageType; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+    }
+
+    @PostConstruct
+    void init() {
+        if (workerId < 0) {
+            workerId = sessionOwnershipService.getLocalNodeIndex();
+            if (workerId < 0) {
+                throw new IllegalArgumentException("Node " + sessionOwnershipService.getLocalNodeId() +
+                    " is not in gameverse.cluster.nodes; set gameverse.rooms.chat.worker-id");
+            }
+        }
+        if (workerId >= (1 << WORKER_BITS)) {
+            throw new IllegalArgumentException("gameverse.rooms.chat.worker-id must be between 0 and " + ((1 << WORKER_BITS) - 1));
+        }
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+    }
+
+    /**
+     * Allocate a message id
+     *
+     * A millisecond that runs out of sequence numbers borrows from the next
+     * one, so ids stay unique and increasing without waiting on the clock.
+     */
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MS) << SEQUENCE_BITS;
+        long stamp;
+        while (true) {
+            long last = lastStamp.get();
+            stamp = Math.max(now, last + 1);
+            if (lastStamp.compareAndSet(last, stamp)) {
+                break;
+            }
+        }
+        long millis = stamp >>> SEQUENCE_BITS;
+        long sequence = stamp & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (WORKER_BITS + SEQUENCE_BITS)) | ((long) workerId << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * Queue a message for insertion
+     *
+     * @return false if the buffer is full
+     */
+    public boolean offer(QueuedMessage message) {
+        return buffer.offer(message);
+    }
+
+    /**
+     * Insert buffered messages, one statement per batch
+     */
+    @Scheduled(fixedDelayString = "${gameverse.rooms.chat.flush-interval-ms:200}")
+    public synchronized void flush() {
+        if (!failedBatch.isEmpty()) {
+            if (!insert(failedBatch)) {
+                return;
+            }
+            failedBatch = List.of();
+        }
+        while (!buffer.isEmpty()) {
+            List<QueuedMessage> batch = new ArrayList<>(Math.min(batchSize, buffer.size()));
+            buffer.drainTo(batch, batchSize);
+            if (!insert(batch)) {
+                // Keep the batch; the buffer fills up and pushes back on senders until the database recovers
+                failedBatch = batch;
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private boolean insert(List<QueuedMessage> batch) {
+        try {
+            try {
+                insertRows(batch);
+            } catch (DataIntegrityViolationException e) {
+                insertOneByOne(batch);
+            }
+            chatSearchService.index(batch);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to persist {} chat messages: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Insert a batch that violated a constraint row by row, dropping the rows that cannot be stored
+     *
+     * A duplicate id means a retried batch was committed after all. Any other
+     * violation would fail on every retry, so the message is dropped.
+     */
+    private void insertOneByOne(List<QueuedMessage> batch) {
+        for (QueuedMessage message : batch) {
+            try {
+                insertRows(List.of(message));
+            } catch (DuplicateKeyException e) {
+                logger.warn("Chat message {} is already stored, skipping it", message.id);
+            } catch (DataIntegrityViolationException e) {
+                logger.error("Dropping chat message {} in room {}: {}", message.id, message.roomId, e.getMessage());
+            }
+        }
+    }
+
+    private void insertRows(List<QueuedMessage> batch) {
+        StringBuilder sql = new StringBuilder(
+            "INSERT INTO chat_messages (id, room_id, user_id, message, message_type, created_at, is_deleted) VALUES ");
+        Object[] args = new Object[batch.size() * 6];
+        int i = 0;
+        for (QueuedMessage message : batch) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?, FALSE)" : ", (?, ?, ?, ?, ?, ?, FALSE)");
+            args[i++] = message.id;
+            args[i++] = message.roomId;
+            args[i++] = message.userId;
+            args[i++] = message.message;
+            args[i++] = message.messageType.name();
+            args[i++] = Timestamp.valueOf(message.createdAt);
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+}
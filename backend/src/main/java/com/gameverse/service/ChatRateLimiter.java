@@ -0,0 +1,128 @@
+package com.gameverse.service;
+
+import com.gameverse.exception.RateLimitException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets for room chat, one per user and one per room
+ *
+ * Each bucket is a single AtomicLong holding the time at which it will be
+ * full again (the generic cell rate algorithm). Taking a token advances that
+ * time by one emission interval with a CAS, and is refused when it would run
+ * further ahead of now than the burst allows, so there is no lock and no
+ * refill task. A bucket whose time has passed is full and the same as no
+ * bucket at all, which is what the sweep removes. Memory follows the number
+ * of recent senders and is capped at max-tracked buckets per kind; while a
+ * map is full, new senders share one overflow bucket until the next sweep.
+ * The sweep never runs on the send path.
+ *
+ * A user has to pass their own bucket before their message counts against
+ * the room, so one client flooding a busy room only uses up its own budget.
+ */
+@Service
+public class ChatRateLimiter {
+
+    @Value("${gameverse.rooms.chat.rate-limit.user-per-second:1}")
+    private double userPerSecond;
+
+    @Value("${gameverse.rooms.chat.rate-limit.user-burst:5}")
+    private int userBurst;
+
+    @Value("${gameverse.rooms.chat.rate-limit.room-per-second:20}")
+    private double roomPerSecond;
+
+    @Value("${gameverse.rooms.chat.rate-limit.room-burst:40}")
+    private int roomBurst;
+
+    @Value("${gameverse.rooms.chat.rate-limit.max-tracked:100000}")
+    private int maxTracked;
+
+    private final Map<Long, AtomicLong> userBuckets = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> roomBuckets = new ConcurrentHashMap<>();
+
+    // Shared by keys that arrive while their map is full; start full like any bucket
+    private final AtomicLong userOverflow = new AtomicLong(System.nanoTime());
+    private final AtomicLong roomOverflow = new AtomicLong(System.nanoTime());
+
+    private long userInterval;
+    private long roomInterval;
+
+    @PostConstruct
+    void init() {
+        if (userPerSecond <= 0 || roomPerSecond <= 0 || userBurst < 1 || roomBurst < 1) {
+            throw new IllegalArgumentException("gameverse.rooms.chat.rate-limit rates and bursts must be positive");
+        }
+        userInterval = (long) (TimeUnit.SECONDS.toNanos(1) / userPerSecond);
+        roomInterval = (long) (TimeUnit.SECONDS.toNanos(1) / roomPerSecond);
+    }
+
+    /**
+     * Take one message from the user's and the room's budget
+     *
+     * @throws RateLimitException if either bucket is empty
+     */
+    public void acquire(String roomId, Long userId) {
+        long now = System.nanoTime();
+        long wait = take(bucket(userBuckets, userId, userOverflow), now, userInterval, userBurst);
+        if (wait > 0) {
+            throw new RateLimitException("You are sending messages too fast", toRetryMillis(wait));
+        }
+        wait = take(bucket(roomBuckets, roomId, roomOverflow), now, roomInterval, roomBurst);
+        if (wait > 0) {
+            throw new RateLimitException("This room is busy, please slow down", toRetryMillis(wait));
+        }
+    }
+
+    /**
+     * Drop buckets that have refilled completely
+     */
+    @Scheduled(fixedRate = 10000) // 10 seconds
+    public void sweep() {
+        long now = System.nanoTime();
+        userBuckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        roomBuckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise nanoseconds until one is available
+     */
+    private static long take(AtomicLong bucket, long now, long interval, int burst) {
+        long tolerance = interval * (burst - 1);
+        while (true) {
+            long full = bucket.get();
+            long base = full - now > 0 ? full : now;
+            long next = base + interval;
+            long ahead = next - now - interval;
+            if (ahead > tolerance) {
+                return ahead - tolerance;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private <K> AtomicLong bucket(Map<K, AtomicLong> buckets, K key, AtomicLong overflow) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxTracked) {
+            return overflow;
+        }
+        // Starts full: the first message of a sender is never refused
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+    }
+
+    private static long toRetryMillis(long nanos) {
+        return (nanos + 999_999) / 1_000_000;
+    }
+}
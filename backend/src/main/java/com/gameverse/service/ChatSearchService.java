@@ -0,0 +1,275 @@
+package com.gameverse.service;
+
+import com.gameverse.entity.ChatMessage;
+import com.gameverse.repository.ChatMessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Full-text search of room chat
+ *
+ * Messages are split into lowercased terms when they are written, and each
+ * (room, term, message) posting goes into chat_message_terms next to the
+ * message. A search walks the room's history newest first in windows of
+ * message ids: a window reads at most postings-per-term postings of each
+ * query term as index ranges, and ends at the oldest id down to which every
+ * term was read in full. Within a window, results are ranked by how many
+ * query terms a message contains, then by recency. A page reads at most
+ * windows-per-page windows, so its cost is bounded however long the room's
+ * history is or how common a term is, and the (score, message id, window top)
+ * cursor carries later pages on into older windows until the history ends.
+ */
+@Service
+public class ChatSearchService {
+
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 32;
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int POSTINGS_PER_STATEMENT = 5000;
+    // Windows read by one page before it is returned short, e.g. when most matches were deleted
+    private static final int WINDOWS_PER_PAGE = 3;
+    // Cursor score above any real one: the whole window is still ahead
+    private static final long WINDOW_START = MAX_QUERY_TERMS + 1;
+
+    // Too common to narrow a search; not indexed
+    private static final Set<String> STOPWORDS = Set.of(
+        "the", "and", "for", "are", "but", "not", "you", "all", "any", "can", "had", "her", "was", "one",
+        "our", "out", "has", "him", "his", "how", "its", "let", "she", "too", "use", "that", "this", "with",
+        "have", "from", "they", "what", "when", "your", "just", "than", "then", "them", "were", "will",
+        "an", "as", "at", "be", "by", "do", "he", "if", "in", "is", "it", "me", "my", "no", "of", "on",
+        "or", "so", "to", "up", "us", "we");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChatMessageRepository messageRepository;
+
+    @Value("${gameverse.rooms.chat.search.postings-per-term:2000}")
+    private int postingsPerTerm;
+
+    /**
+     * Scores of the messages in one id range, complete for every query term
+     */
+    private static class Window {
+        private final Map<Long, Integer> scores;
+        private final long top;
+        // Lowest id of the range; 0 once the room's history is exhausted
+        private final long floor;
+
+        Window(Map<Long, Integer> scores, long top, long floor) {
+            this.scores = scores;
+            this.top = top;
+            this.floor = floor;
+        }
+    }
+
+    public static class SearchPage {
+        private final List<RoomService.MessageResponse> messages;
+        private final String nextCursor;
+
+        public SearchPage(List<RoomService.MessageResponse> messages, String nextCursor) {
+            this.messages = messages;
+            this.nextCursor = nextCursor;
+        }
+
+        // Getters
+        public List<RoomService.MessageResponse> getMessages() { return messages; }
+        public String getNextCursor() { return nextCursor; }
+    }
+
+    /**
+     * Distinct index terms of a text, in order of first occurrence
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (term.length() >= MIN_TERM_LENGTH && term.length() <= MAX_TERM_LENGTH && !STOPWORDS.contains(term)) {
+                    terms.add(term);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Write postings for messages that were just persisted
+     *
+     * Only user text is indexed. INSERT IGNORE keeps a retried batch harmless.
+     */
+    public void index(List<ChatMessageWriter.QueuedMessage> messages) {
+        List<Object[]> postings = new ArrayList<>();
+        for (ChatMessageWriter.QueuedMessage message : messages) {
+            if (message.getMessageType() == ChatMessage.MessageType.SYSTEM) {
+                continue;
+            }
+            for (String term : tokenize(message.getMessage())) {
+                postings.add(new Object[] { message.getRoomId(), term, message.getId() });
+            }
+        }
+        // Chunked to stay well below the 65535 placeholders a statement may have
+        for (int from = 0; from < postings.size(); from += POSTINGS_PER_STATEMENT) {
+            List<Object[]> chunk = postings.subList(from, Math.min(from + POSTINGS_PER_STATEMENT, postings.size()));
+            StringBuilder sql = new StringBuilder("INSERT IGNORE INTO chat_message_terms (room_id, term, message_id) VALUES ");
+            Object[] args = new Object[chunk.size() * 3];
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+                System.arraycopy(chunk.get(i), 0, args, i * 3, 3);
+            }
+            jdbcTemplate.update(sql.toString(), args);
+        }
+    }
+
+    /**
+     * Search the room's messages
+     *
+     * @param roomId Room ID
+     * @param query Search text; messages matching any of its terms are returned
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param limit Page size (max 50)
+     * @throws IllegalArgumentException if the query has no searchable terms or the cursor is malformed
+     */
+    public SearchPage search(String roomId, String query, String cursor, int limit) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query has no searchable words");
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+        limit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // The first page starts at the newest posting; later ones where the previous page stopped
+        long[] position = cursor != null ? parseCursor(cursor) : null;
+        long top = position != null ? position[2] : Long.MAX_VALUE;
+
+        List<RoomService.MessageResponse> messages = new ArrayList<>(limit);
+        for (int windows = 0; windows < WINDOWS_PER_PAGE; windows++) {
+            Window window = readWindow(roomId, terms, top);
+            if (window.scores.isEmpty()) {
+                return new SearchPage(messages, null);
+            }
+
+            List<long[]> hits = new ArrayList<>();
+            long[] after = position;
+            window.scores.forEach((id, score) -> {
+                if (after == null || score < after[0] || (score == after[0] && id < after[1])) {
+                    hits.add(new long[] { id, score });
+                }
+            });
+            hits.sort(Comparator.comparingLong((long[] hit) -> hit[1]).thenComparingLong(hit -> hit[0]).reversed());
+
+            long[] last = fill(messages, hits, limit);
+            if (last != null) {
+                return new SearchPage(messages, last[1] + ":" + last[0] + ":" + window.top);
+            }
+            if (window.floor <= 0) {
+                return new SearchPage(messages, null);
+            }
+            // Window used up: carry on into the next older one
+            top = window.floor - 1;
+            position = null;
+            if (messages.size() == limit) {
+                break;
+            }
+        }
+        return new SearchPage(messages, WINDOW_START + ":0:" + top);
+    }
+
+    /**
+     * Newest postings of each term at or below top, cut to the range every term was read down to
+     */
+    private Window readWindow(String roomId, List<String> terms, long top) {
+        Map<Long, Integer> scores = new HashMap<>();
+        long floor = 0;
+        long newest = 0;
+        for (String term : terms) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT message_id FROM chat_message_terms WHERE room_id = ? AND term = ? AND message_id <= ? " +
+                "ORDER BY message_id DESC LIMIT ?",
+                Long.class, roomId, term, top, postingsPerTerm);
+            if (ids.isEmpty()) {
+                continue;
+            }
+            // A full read may stop short of older postings of the term; below it the window is incomplete
+            if (ids.size() == postingsPerTerm) {
+                floor = Math.max(floor, ids.get(ids.size() - 1));
+            }
+            newest = Math.max(newest, ids.get(0));
+            ids.forEach(id -> scores.merge(id, 1, Integer::sum));
+        }
+        long cut = floor;
+        scores.keySet().removeIf(id -> id < cut);
+        // Pin an open-ended first window to what it saw, so its later pages read the same range
+        return new Window(scores, top == Long.MAX_VALUE ? newest : top, floor);
+    }
+
+    /**
+     * Add the live messages of the ranked hits to the page; deleted ones are skipped
+     *
+     * @return Last hit on the page if the window has more live hits after it, otherwise null
+     */
+    private long[] fill(List<RoomService.MessageResponse> messages, List<long[]> hits, int limit) {
+        long[] last = null;
+        int next = 0;
+        while (next < hits.size()) {
+            // Read until the page and one more are found
+            List<long[]> chunk = hits.subList(next, Math.min(hits.size(), next + limit + 1 - messages.size()));
+            next += chunk.size();
+            List<Long> ids = new ArrayList<>(chunk.size());
+            for (long[] hit : chunk) {
+                ids.add(hit[0]);
+            }
+            Map<Long, RoomService.MessageResponse> byId = new HashMap<>();
+            for (Object[] row : messageRepository.findLiveMessageRowsByIds(ids)) {
+                byId.put((Long) row[0], RoomService.MessageResponse.fromRow(row));
+            }
+            for (long[] hit : chunk) {
+                RoomService.MessageResponse message = byId.get(hit[0]);
+                if (message == null) {
+                    continue;
+                }
+                if (messages.size() == limit) {
+                    return last;
+                }
+                messages.add(message);
+                last = hit;
+            }
+        }
+        return null;
+    }
+
+    private static long[] parseCursor(String cursor) {
+        String[] parts = cursor.split(":");
+        try {
+            if (parts.length == 3) {
+                return new long[] { Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]) };
+            }
+        } catch (NumberFormatException e) {
+            // Fall through
+        }
+        throw new IllegalArgumentException("Invalid search cursor");
+    }
+}
@@ -0,0 +1,137 @@
+package com.gameverse.service;
+
+import com.gameverse.engine.chess.ChessPosition;
+import com.gameverse.engine.chess.Move;
+import com.gameverse.service.GameSessionService.GameStateUpdate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-side chess rules for game sessions
+ *
+ * Keeps a live bitboard position per session so validating a move is a
+ * move-generation pass over preallocated buffers rather than a FEN parse.
+ * The position is persisted as FEN in the game state and rebuilt from it
+ * lazily, e.g. after a restart. A move is played on a working copy that
+ * replaces the live position only when the move's transaction commits.
+ *
+ * Move payload: {"from": "e2", "to": "e4", "promotion": "q"} or {"uci": "e2e4"}.
+ * The first player in playerOrder plays white.
+ */
+@Service
+public class ChessRulesService {
+
+    private final TransactionalStateMap<ChessPosition> positions = new TransactionalStateMap<>(
+        (source, spare) -> spare != null ? spare.copyFrom(source) : source.copy());
+
+    /**
+     * Check that the move is legal and that it is the player's turn
+     */
+    public boolean validateMove(Long sessionId, Map<String, Object> gameState, Long playerId, GameStateUpdate update) {
+        if (!"MOVE".equals(update.getType())) {
+            return false;
+        }
+        ChessPosition position = getPosition(sessionId, gameState);
+        synchronized (position) {
+            if (!isPlayersTurn(position, gameState, playerId)) {
+                return false;
+            }
+            return parseMove(position, update.getData()) != Move.NONE;
+        }
+    }
+
+    /**
+     * Play the move and write the resulting position into the game state
+     */
+    public void applyMove(Long sessionId, Map<String, Object> gameState, GameStateUpdate update) {
+        ChessPosition position = positions.edit(sessionId, getPosition(sessionId, gameState));
+        synchronized (position) {
+            int move = parseMove(position, update.getData());
+            if (move == Move.NONE) {
+                throw new RuntimeException("Invalid move");
+            }
+            position.applyMove(move);
+
+            List<?> playerOrder = (List<?>) gameState.get("playerOrder");
+            int sideToMove = position.getSideToMove();
+            ChessPosition.Status status = position.status();
+
+            gameState.put("fen", position.toFen());
+            gameState.put("lastMove", Move.toUci(move));
+            gameState.put("lastMovePlayer", update.getPlayerId());
+            gameState.put("lastMoveTime", update.getTimestamp().toString());
+            gameState.put("currentPlayer", playerAt(playerOrder, sideToMove));
+            gameState.put("check", position.isInCheck());
+
+            switch (status) {
+                case CHECKMATE -> {
+                    gameState.put("checkmate", true);
+                    // The side to move is mated, so the other side wins
+                    gameState.put("winner", playerAt(playerOrder, sideToMove ^ 1));
+                }
+                case STALEMATE -> gameState.put("stalemate", true);
+                case FIFTY_MOVE_RULE -> gameState.put("draw", "fifty_move_rule");
+                default -> { }
+            }
+        }
+    }
+
+    /**
+     * Status of the live position for end-of-game detection
+     */
+    public ChessPosition.Status getStatus(Long sessionId, Map<String, Object> gameState) {
+        ChessPosition position = getPosition(sessionId, gameState);
+        synchronized (position) {
+            return position.status();
+        }
+    }
+
+    /**
+     * Drop the live position once a session is over
+     */
+    public void release(Long sessionId) {
+        positions.remove(sessionId);
+    }
+
+    private ChessPosition getPosition(Long sessionId, Map<String, Object> gameState) {
+        return positions.load(sessionId, () -> {
+            Object fen = gameState.get("fen");
+            return fen instanceof String ? ChessPosition.fromFen((String) fen) : ChessPosition.startPosition();
+        });
+    }
+
+    private boolean isPlayersTurn(ChessPosition position, Map<String, Object> gameState, Long playerId) {
+        Object player = playerAt((List<?>) gameState.get("playerOrder"), position.getSideToMove());
+        return player instanceof Number && ((Number) player).longValue() == playerId;
+    }
+
+    private Object playerAt(List<?> playerOrder, int color) {
+        return playerOrder != null && playerOrder.size() > color ? playerOrder.get(color) : null;
+    }
+
+    private int parseMove(ChessPosition position, Object data) {
+        if (!(data instanceof Map)) {
+            return Move.NONE;
+        }
+        Map<?, ?> move = (Map<?, ?>) data;
+        Object uci = move.get("uci");
+        if (uci instanceof String uciMove && uciMove.length() >= 4) {
+            return position.findLegalMove(
+                Move.parseSquare(uciMove.subSequence(0, 2)),
+                Move.parseSquare(uciMove.subSequence(2, 4)),
+                uciMove.length() > 4 ? Move.parsePromotion(uciMove.subSequence(4, 5)) : 0);
+        }
+        Object from = move.get("from");
+        Object to = move.get("to");
+        Object promotion = move.get("promotion");
+        if (!(from instanceof String) || !(to instanceof String)) {
+            return Move.NONE;
+        }
+        return position.findLegalMove(
+            Move.parseSquare((String) from),
+            Move.parseSquare((String) to),
+            promotion instanceof String ? Move.parsePromotion((String) promotion) : 0);
+    }
+}
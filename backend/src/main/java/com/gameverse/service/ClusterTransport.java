@@ -0,0 +1,40 @@
+package com.gameverse.service;
+
+import java.util.Map;
+
+/**
+ * Delivers work for a session or chat room to the node that owns it
+ */
+public interface ClusterTransport {
+
+    /**
+     * Hand a move to the owner node and return its ack
+     *
+     * @param nodeUrl Base URL of the owner's API
+     */
+    Map<String, Object> forwardMove(String nodeUrl, Long sessionId, Long userId, Map<String, Object> moveData);
+
+    /**
+     * Run another owner-only operation of a session on the owner node and return its result
+     *
+     * @param operation Last path segment of the owner's cluster endpoint: info, presence, chat or end
+     */
+    Map<String, Object> forwardSessionCall(String nodeUrl, Long sessionId, String operation, Map<String, Object> body);
+
+    /**
+     * Run a room operation on the room's owner node and return its result
+     *
+     * @param operation Last path segment of the owner's cluster endpoint, see RoomRoutingService
+     */
+    Map<String, Object> forwardRoomCall(String nodeUrl, String roomId, String operation, Map<String, Object> body);
+
+    /**
+     * Run a join or leave on the node tracking the user's current room and return its result
+     */
+    Map<String, Object> forwardUserCall(String nodeUrl, Long userId, String operation, Map<String, Object> body);
+
+    /**
+     * Hand a room broadcast to another node for its own WebSocket subscribers
+     */
+    void relayBroadcast(String nodeUrl, String destination, Object payload);
+}
@@ -0,0 +1,63 @@
+package com.gameverse.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent-hash ring over cluster node IDs
+ *
+ * Every node is placed on the ring at several virtual points so keys spread
+ * evenly, and adding or removing a node only moves the keys between it and
+ * its neighbours. Nodes that build the ring from the same membership list
+ * agree on every key's owner without talking to each other.
+ */
+final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final Set<String> nodeIds;
+
+    ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        if (nodeIds.isEmpty()) {
+            throw new IllegalArgumentException("Ring needs at least one node");
+        }
+        this.nodeIds = Collections.unmodifiableSet(new LinkedHashSet<>(nodeIds));
+        for (String nodeId : this.nodeIds) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+    }
+
+    /**
+     * Node owning the key: the first virtual point at or after the key's hash
+     */
+    String nodeFor(String key) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    Set<String> getNodeIds() {
+        return nodeIds;
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.gameverse.service;
+
+import com.gameverse.entity.GameSession;
+import com.gameverse.repository.GameParticipantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-game chat for game sessions
+ *
+ * Chat does not touch the game state: membership is checked against a roster
+ * cached per session, each user is rate limited, and lines are broadcast once
+ * on /topic/game/{sessionId}/chat. When persistence is enabled, lines are
+ * queued and written to game_chat_messages in batches.
+ */
+@Service
+public class GameChatService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameChatService.class);
+
+    private static final long UNKNOWN_SESSION_TTL_MS = 60000;
+
+    // Chat is open while a session is waiting or being played, as in getSessionInfo
+    private static final List<GameSession.Status> CHAT_STATUSES =
+        List.of(GameSession.Status.WAITING, GameSession.Status.IN_PROGRESS);
+
+    @Autowired
+    private GameParticipantRepository gameParticipantRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${gameverse.games.chat.max-length:500}")
+    private int maxLength;
+
+    @Value("${gameverse.games.chat.rate-limit.messages:5}")
+    private int rateLimitMessages;
+
+    @Value("${gameverse.games.chat.rate-limit.window-ms:5000}")
+    private long rateLimitWindowMs;
+
+    @Value("${gameverse.games.chat.persist:false}")
+    private boolean persist;
+
+    @Value("${gameverse.games.chat.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    // Participants never change after matchmaking creates a session, so the roster of a live session is
+    // loaded once and dropped by release() when the session finishes
+    private final Map<Long, long[]> rosters = new ConcurrentHashMap<>();
+    // Unknown or finished sessions and when that answer expires, so repeats skip the database
+    private final Map<Long, Long> unknownSessions = new ConcurrentHashMap<>();
+    private final Map<Long, RateWindow> rateWindows = new ConcurrentHashMap<>();
+    private final Queue<ChatLine> pendingLines = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Fixed-window message counter for one user
+     */
+    private static class RateWindow {
+        private volatile long windowStart;
+        private int count;
+    }
+
+    public static class ChatLine {
+        private final Long sessionId;
+        private final Long userId;
+        private final String message;
+        private final LocalDateTime timestamp;
+
+        public ChatLine(Long sessionId, Long userId, String message, LocalDateTime timestamp) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+            this.message = message;
+            this.timestamp = timestamp;
+        }
+
+        // Getters
+        public Long getSessionId() { return sessionId; }
+        public Long getUserId() { return userId; }
+        public String getMessage() { return message; }
+        public LocalDateTime getTimestamp() { return timestamp; }
+    }
+
+    /**
+     * Broadcast a chat line from a session participant
+     *
+     * @param sessionId Game session ID
+     * @param userId Sender's user ID
+     * @param message Chat text
+     */
+    public void sendMessage(Long sessionId, Long userId, String message) {
+        if (message == null || message.isBlank()) {
+            throw new RuntimeException("Message cannot be empty");
+        }
+        if (message.length() > maxLength) {
+            throw new RuntimeException("Message exceeds " + maxLength + " characters");
+        }
+        // Throttle first, so probing sessions costs the sender its budget before any lookup
+        if (!tryAcquire(userId)) {
+            throw new RuntimeException("Too many messages, slow down");
+        }
+        if (!isMember(sessionId, userId)) {
+            throw new RuntimeException("Player not authorized for this session");
+        }
+
+        ChatLine line = new ChatLine(sessionId, userId, message, LocalDateTime.now());
+        messagingTemplate.convertAndSend("/topic/game/" + sessionId + "/chat", line);
+
+        if (persist) {
+            pendingLines.add(line);
+        }
+    }
+
+    /**
+     * Drop the cached roster of a finished session
+     */
+    public void release(Long sessionId) {
+        rosters.remove(sessionId);
+        unknownSessions.remove(sessionId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A chat line read the roster before the finishing transaction committed; drop it again once it has
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    rosters.remove(sessionId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Write queued chat lines in batches
+     */
+    @Scheduled(fixedDelay = 2000)
+    public void flushPendingLines() {
+        while (!pendingLines.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>(Math.min(flushBatchSize, pendingLines.size()));
+            ChatLine line;
+            while (batch.size() < flushBatchSize && (line = pendingLines.poll()) != null) {
+                batch.add(new Object[] {
+                    line.getSessionId(), line.getUserId(), line.getMessage(), Timestamp.valueOf(line.getTimestamp())
+                });
+            }
+            try {
+                jdbcTemplate.batchUpdate(
+                    "INSERT INTO game_chat_messages (session_id, user_id, message, created_at) VALUES (?, ?, ?, ?)",
+                    batch);
+            } catch (Exception e) {
+                // Chat history is best effort; never let it back up the queue
+                logger.warn("Failed to persist {} game chat lines: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Forget expired unknown-session answers
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void pruneUnknownSessions() {
+        long now = System.currentTimeMillis();
+        unknownSessions.values().removeIf(until -> until <= now);
+    }
+
+    private boolean isMember(Long sessionId, Long userId) {
+        long[] roster = rosters.get(sessionId);
+        if (roster == null) {
+            Long unknownUntil = unknownSessions.get(sessionId);
+            if (unknownUntil != null && unknownUntil > System.currentTimeMillis()) {
+                return false;
+            }
+            roster = loadRoster(sessionId);
+            if (roster.length == 0) {
+                unknownSessions.put(sessionId, System.currentTimeMillis() + UNKNOWN_SESSION_TTL_MS);
+                return false;
+            }
+            unknownSessions.remove(sessionId);
+            rosters.put(sessionId, roster);
+        }
+        for (long member : roster) {
+            if (member == userId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Participants of a waiting or in-progress session; empty for unknown and finished sessions,
+     * so a roster released when its session finished is never cached again
+     */
+    private long[] loadRoster(Long sessionId) {
+        List<Long> userIds = gameParticipantRepository.findUserIdsBySessionIdAndStatusIn(sessionId, CHAT_STATUSES);
+        long[] roster = new long[userIds.size()];
+        for (int i = 0; i < roster.length; i++) {
+            roster[i] = userIds.get(i);
+        }
+        return roster;
+    }
+
+    private boolean tryAcquire(Long userId) {
+        RateWindow window = rateWindows.computeIfAbsent(userId, id -> new RateWindow());
+        long now = System.currentTimeMillis();
+        synchronized (window) {
+            if (now - window.windowStart >= rateLimitWindowMs) {
+                window.windowStart = now;
+                window.count = 0;
+            }
+            if (window.count >= rateLimitMessages) {
+                return false;
+            }
+            window.count++;
+            return true;
+        }
+    }
+
+    /**
+     * Forget rate windows of users who have gone quiet and expired unknown sessions
+     */
+    @Scheduled(fixedRate = 300000) // 5 minutes
+    public void cleanupRateWindows() {
+        long now = System.currentTimeMillis();
+        long cutoff = now - rateLimitWindowMs;
+        rateWindows.entrySet().removeIf(entry -> entry.getValue().windowStart < cutoff);
+        unknownSessions.values().removeIf(until -> until <= now);
+    }
+}
@@ -0,0 +1,120 @@
+package com.gameverse.service;
+
+import com.gameverse.service.GameSessionService.GameStateUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Entry point for player moves
+ *
+ * Moves for sessions owned by another node are forwarded to the owner, so
+ * duplicate detection and state changes for a session always happen in one
+ * JVM. Every move is answered with an ack carrying the client sequence
+ * number, the server sequence it was applied as and its status.
+ */
+@Service
+public class GameMoveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameMoveService.class);
+
+    @Autowired
+    private GameSessionService gameSessionService;
+
+    @Autowired
+    private MoveSequenceService moveSequenceService;
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
+
+    @Autowired
+    private ClusterTransport clusterTransport;
+
+    /**
+     * Apply the move here or on the session's owner node
+     */
+    public Map<String, Object> submitMove(Long sessionId, Long userId, Map<String, Object> moveData) {
+        if (sessionOwnershipService.isOwner(sessionId)) {
+            return applyMove(sessionId, userId, moveData);
+        }
+
+        String owner = sessionOwnershipService.ownerOf(sessionId);
+        try {
+            Map<String, Object> ack = clusterTransport.forwardMove(
+                sessionOwnershipService.getNodeUrl(owner), sessionId, userId, moveData);
+            if (ack == null) {
+                throw new RuntimeException("Empty response");
+            }
+            return ack;
+        } catch (Exception e) {
+            logger.warn("Failed to forward move of session {} to node {}: {}", sessionId, owner, e.getMessage());
+            return ack(clientSeq(moveData), null, "REJECTED", "Session owner unavailable");
+        }
+    }
+
+    /**
+     * Apply the move on this node, dropping retries of a sequence number already seen
+     *
+     * Membership is checked before the sequence number is registered.
+     */
+    public Map<String, Object> applyMove(Long sessionId, Long userId, Map<String, Object> moveData) {
+        Long clientSeq = clientSeq(moveData);
+
+        // Only participants get sequence state; anyone else is turned away before it is created
+        if (!gameSessionService.isParticipant(sessionId, userId)) {
+            return ack(clientSeq, null, "REJECTED", "Player not authorized for this session");
+        }
+
+        if (clientSeq != null) {
+            MoveSequenceService.Registration registration;
+            try {
+                registration = moveSequenceService.register(sessionId, userId, clientSeq);
+            } catch (Exception e) {
+                return ack(clientSeq, null, "REJECTED", e.getMessage());
+            }
+            if (registration.getStatus() != MoveSequenceService.Status.NEW) {
+                return ack(clientSeq, registration.getServerSeq(), registration.getStatus().name(), null);
+            }
+        }
+
+        try {
+            String moveType = (String) moveData.get("type");
+            GameStateUpdate update = new GameStateUpdate(moveType, userId, moveData.get("data"));
+
+            long serverSeq = gameSessionService.updateGameState(sessionId, userId, update);
+
+            if (clientSeq != null) {
+                moveSequenceService.complete(sessionId, userId, clientSeq, serverSeq);
+            }
+            return ack(clientSeq, serverSeq, "APPLIED", null);
+
+        } catch (Exception e) {
+            if (clientSeq != null) {
+                // Nothing was applied, so a retry with the same number is processed again
+                moveSequenceService.abort(sessionId, userId, clientSeq);
+            }
+            return ack(clientSeq, null, "REJECTED", e.getMessage());
+        }
+    }
+
+    // Moves may carry a client sequence number so retries are applied once
+    private static Long clientSeq(Map<String, Object> moveData) {
+        Object seq = moveData.get("seq");
+        return seq instanceof Number ? ((Number) seq).longValue() : null;
+    }
+
+    private static Map<String, Object> ack(Long clientSeq, Long serverSeq, String status, String error) {
+        Map<String, Object> ack = new HashMap<>();
+        ack.put("seq", clientSeq);
+        ack.put("serverSeq", serverSeq);
+        ack.put("status", status);
+        if (error != null) {
+            ack.put("error", error);
+        }
+        return ack;
+    }
+}
@@ -0,0 +1,271 @@
+package com.gameverse.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gameverse.entity.GameParticipant;
+import com.gameverse.entity.GameSession;
+import com.gameverse.repository.GameParticipantRepository;
+import com.gameverse.repository.GameSessionRepository;
+import com.gameverse.service.GameSessionService.GameStateUpdate;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Move log and replay export for game sessions
+ *
+ * Every numbered state change is appended to game_moves, with a public
+ * snapshot of the game state every snapshot-interval moves so a viewer can
+ * seek without replaying from the start. Replays are written as gzip NDJSON
+ * (one header line, then move and snapshot lines in server sequence order,
+ * then the final state) straight from a streaming result set, so heap use
+ * does not grow with the length of the game.
+ */
+@Service
+public class GameReplayService {
+
+    public static final String FORMAT = "gameverse-replay/1";
+
+    @Autowired
+    private GameSessionRepository gameSessionRepository;
+
+    @Autowired
+    private GameParticipantRepository gameParticipantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${gameverse.games.replay.snapshot-interval:25}")
+    private int snapshotInterval;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Row-by-row result sets for exports (Integer.MIN_VALUE makes MySQL Connector/J stream)
+    private JdbcTemplate streamingJdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("gameverse.games.replay.snapshot-interval must be positive");
+        }
+        streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    /**
+     * One row of the move log
+     */
+    public static class MoveRecord {
+        private final Long sessionId;
+        private final long serverSeq;
+        private final Long playerId;
+        private final String moveType;
+        private final String moveData;
+        private final String stateSnapshot;
+        private final LocalDateTime createdAt;
+
+        public MoveRecord(Long sessionId, long serverSeq, Long playerId, String moveType,
+                          String moveData, String stateSnapshot, LocalDateTime createdAt) {
+            this.sessionId = sessionId;
+            this.serverSeq = serverSeq;
+            this.playerId = playerId;
+            this.moveType = moveType;
+            this.moveData = moveData;
+            this.stateSnapshot = stateSnapshot;
+            this.createdAt = createdAt;
+        }
+
+        // Getters
+        public Long getSessionId() { return sessionId; }
+        public long getServerSeq() { return serverSeq; }
+        public Long getPlayerId() { return playerId; }
+        public String getMoveType() { return moveType; }
+        public String getMoveData() { return moveData; }
+        public String getStateSnapshot() { return stateSnapshot; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+    }
+
+    /**
+     * Build the move log row for a state change
+     *
+     * @param snapshot Public game state after the change, only evaluated when a snapshot is due
+     */
+    public MoveRecord buildMove(Long sessionId, long serverSeq, GameStateUpdate update, Supplier<JsonNode> snapshot) {
+        try {
+            return new MoveRecord(
+                sessionId,
+                serverSeq,
+                update.getPlayerId(),
+                update.getType(),
+                update.getData() != null ? objectMapper.writeValueAsString(update.getData()) : null,
+                serverSeq % snapshotInterval == 0 ? objectMapper.writeValueAsString(snapshot.get()) : null,
+                update.getTimestamp()
+            );
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to record move", e);
+        }
+    }
+
+    /**
+     * Append rows to the move log; rows already logged are skipped, so replaying a batch is safe
+     */
+    public void recordMoves(List<MoveRecord> moves) {
+        jdbcTemplate.batchUpdate(
+            "INSERT IGNORE INTO game_moves (session_id, server_seq, player_id, move_type, move_data, state_snapshot, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)",
+            moves,
+            moves.size(),
+            (ps, move) -> {
+                ps.setLong(1, move.getSessionId());
+                ps.setLong(2, move.getServerSeq());
+                ps.setObject(3, move.getPlayerId());
+                ps.setString(4, move.getMoveType());
+                ps.setString(5, move.getMoveData());
+                ps.setString(6, move.getStateSnapshot());
+                ps.setTimestamp(7, Timestamp.valueOf(move.getCreatedAt()));
+            }
+        );
+    }
+
+    /**
+     * Load a session whose replay the user may export: they must have played in it
+     */
+    public GameSession getReplayableSession(Long sessionId, Long userId) {
+        GameSession session = gameSessionRepository.findById(sessionId)
+            .orElseThrow(() -> new RuntimeException("Session not found"));
+        if (!gameParticipantRepository.existsBySessionIdAndUserId(sessionId, userId)) {
+            throw new RuntimeException("User not authorized for this session");
+        }
+        if (session.getStatus() != GameSession.Status.COMPLETED) {
+            throw new RuntimeException("Replay is only available for completed sessions");
+        }
+        return session;
+    }
+
+    /**
+     * Write the session's replay to the stream as gzip NDJSON
+     */
+    public void writeReplay(GameSession session, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 8192);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(gzip, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        writeHeader(generator, session);
+
+        streamingJdbcTemplate.query(
+            "SELECT server_seq, player_id, move_type, move_data, state_snapshot, created_at " +
+            "FROM game_moves WHERE session_id = ? ORDER BY server_seq",
+            rs -> {
+                try {
+                    long serverSeq = rs.getLong(1);
+                    long playerId = rs.getLong(2);
+                    boolean hasPlayer = !rs.wasNull();
+                    String moveData = rs.getString(4);
+                    String snapshot = rs.getString(5);
+
+                    generator.writeStartObject();
+                    generator.writeStringField("type", "move");
+                    generator.writeNumberField("seq", serverSeq);
+                    if (hasPlayer) {
+                        generator.writeNumberField("playerId", playerId);
+                    }
+                    generator.writeStringField("moveType", rs.getString(3));
+                    if (moveData != null) {
+                        generator.writeFieldName("data");
+                        generator.writeRawValue(moveData);
+                    }
+                    generator.writeStringField("at", rs.getTimestamp(6).toLocalDateTime().toString());
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+
+                    if (snapshot != null) {
+                        generator.writeStartObject();
+                        generator.writeStringField("type", "snapshot");
+                        generator.writeNumberField("seq", serverSeq);
+                        generator.writeFieldName("state");
+                        generator.writeRawValue(snapshot);
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            },
+            session.getId()
+        );
+
+        generator.writeStartObject();
+        generator.writeStringField("type", "final");
+        generator.writeFieldName("state");
+        generator.writeTree(publicState(session.getGameState()));
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+
+        generator.flush();
+        gzip.finish();
+    }
+
+    private void writeHeader(JsonGenerator generator, GameSession session) throws IOException {
+        List<GameParticipant> participants = gameParticipantRepository.findBySessionId(session.getId());
+
+        generator.writeStartObject();
+        generator.writeStringField("type", "header");
+        generator.writeStringField("format", FORMAT);
+        generator.writeNumberField("sessionId", session.getId());
+        generator.writeStringField("gameType", session.getGameType().name());
+        if (session.getWinnerId() != null) {
+            generator.writeNumberField("winnerId", session.getWinnerId());
+        }
+        if (session.getStartedAt() != null) {
+            generator.writeStringField("startedAt", session.getStartedAt().toString());
+        }
+        if (session.getEndedAt() != null) {
+            generator.writeStringField("endedAt", session.getEndedAt().toString());
+        }
+        generator.writeNumberField("snapshotInterval", snapshotInterval);
+        generator.writeArrayFieldStart("players");
+        for (GameParticipant participant : participants) {
+            generator.writeStartObject();
+            generator.writeNumberField("userId", participant.getUserId());
+            if (participant.getPlayerPosition() != null) {
+                generator.writeNumberField("position", participant.getPlayerPosition());
+            }
+            if (participant.getFinalScore() != null) {
+                generator.writeNumberField("finalScore", participant.getFinalScore());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private JsonNode publicState(String gameStateJson) throws IOException {
+        if (gameStateJson == null || gameStateJson.isEmpty()) {
+            return objectMapper.createObjectNode();
+        }
+        JsonNode state = objectMapper.readTree(gameStateJson);
+        if (state instanceof ObjectNode) {
+            ((ObjectNode) state).remove(GameSessionService.privateKeys(state));
+        }
+        return state;
+    }
+}
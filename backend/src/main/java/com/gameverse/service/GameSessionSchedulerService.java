@@ -2,16 +2,31 @@ package com.gameverse.service;
 
 import com.gameverse.entity.GameSession;
 import com.gameverse.repository.GameSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.annotation.PostConstruct;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class GameSessionSchedulerService {
 
+    private static final Logger logger = LoggerFactory.getLogger(GameSessionSchedulerService.class);
+
+    // Lower bound for keyset pagination
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     @Autowired
     private GameSessionRepository gameSessionRepository;
 
@@ -21,32 +36,102 @@ public class GameSessionSchedulerService {
     @Autowired
     private MatchmakingService matchmakingService;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${gameverse.games.sweeper.chunk-size:500}")
+    private int chunkSize;
+
+    private TransactionTemplate chunkTransaction;
+
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+    }
+
     /**
      * Clean up abandoned game sessions every 5 minutes
+     *
+     * Stale sessions are walked in keyset order, one chunk at a time, and each
+     * chunk is closed with a single bulk UPDATE; players of timed-out games are
+     * notified once per chunk, and the live state of every closed session is
+     * released.
      */
     @Scheduled(fixedRate = 300000) // 5 minutes
     public void cleanupAbandonedSessions() {
         LocalDateTime cutoff = LocalDateTime.now().minusHours(2); // 2 hours ago
-        
-        List<GameSession> abandonedSessions = gameSessionRepository
-            .findByStatusAndCreatedAtBefore(GameSession.Status.WAITING, cutoff);
-        
-        for (GameSession session : abandonedSessions) {
-            session.setStatus(GameSession.Status.CANCELLED);
-            session.setEndedAt(LocalDateTime.now());
-            gameSessionRepository.save(session);
-        }
-        
+
+        int cancelled = sweep(GameSession.Status.WAITING, GameSession.Status.CANCELLED, cutoff);
+
         // Also clean up in-progress sessions that have been inactive too long
-        List<GameSession> staleSessions = gameSessionRepository
-            .findByStatusAndStartedAtBefore(GameSession.Status.IN_PROGRESS, cutoff);
-        
-        for (GameSession session : staleSessions) {
-            // End session without winner (timeout)
-            gameSessionService.endSession(session.getId(), null);
+        int timedOut = sweep(GameSession.Status.IN_PROGRESS, GameSession.Status.COMPLETED, cutoff);
+
+        if (cancelled > 0 || timedOut > 0) {
+            logger.info("Session sweep: {} waiting sessions cancelled, {} stale games ended", cancelled, timedOut);
         }
     }
 
+    private int sweep(GameSession.Status status, GameSession.Status newStatus, LocalDateTime cutoff) {
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+        LocalDateTime afterTime = EPOCH;
+        Long afterId = 0L;
+        int total = 0;
+
+        while (true) {
+            List<Object[]> rows = status == GameSession.Status.WAITING
+                ? gameSessionRepository.findStaleByCreatedAt(status, cutoff, afterTime, afterId, chunk)
+                : gameSessionRepository.findStaleByStartedAt(status, cutoff, afterTime, afterId, chunk);
+            if (rows.isEmpty()) {
+                return total;
+            }
+
+            List<Long> ids = new ArrayList<>(rows.size());
+            Map<Long, GameSession.GameType> gameTypes = new HashMap<>();
+            for (Object[] row : rows) {
+                ids.add((Long) row[0]);
+                gameTypes.put((Long) row[0], (GameSession.GameType) row[1]);
+            }
+
+            total += closeChunk(ids, gameTypes, status, newStatus);
+
+            if (rows.size() < chunkSize) {
+                return total;
+            }
+            Object[] last = rows.get(rows.size() - 1);
+            afterTime = (LocalDateTime) last[2];
+            afterId = (Long) last[0];
+        }
+    }
+
+    /**
+     * Close one chunk in a single transaction
+     *
+     * The rows still in the old status are locked first, so the ids handed on
+     * are exactly the ones this UPDATE changed; sessions that ended on their own
+     * meanwhile get no second GAME_END or completion event. Pending settlements
+     * of timed-out games are written in the same transaction.
+     */
+    private int closeChunk(List<Long> ids, Map<Long, GameSession.GameType> gameTypes,
+                           GameSession.Status status, GameSession.Status newStatus) {
+        Integer closed = chunkTransaction.execute(tx -> {
+            List<Long> locked = gameSessionRepository.lockIdsWithStatus(ids, status.name());
+            if (locked.isEmpty()) {
+                return 0;
+            }
+            LocalDateTime endedAt = LocalDateTime.now();
+            gameSessionRepository.updateStatusForIds(locked, status, newStatus, endedAt);
+            gameTypes.keySet().retainAll(locked);
+            if (newStatus == GameSession.Status.COMPLETED) {
+                // End without winner (timeout)
+                gameSessionService.handleTimedOutSessions(gameTypes, endedAt);
+            } else {
+                gameSessionService.handleCancelledSessions(locked);
+            }
+            return locked.size();
+        });
+        return closed != null ? closed : 0;
+    }
+
     /**
      * Process matchmaking queue timeouts every 30 seconds
      */
@@ -64,4 +149,4 @@ public class GameSessionSchedulerService {
         // For now, just log that it's running
         System.out.println("Game statistics update task running at: " + LocalDateTime.now());
     }
-}
\ No newline at end of file
+}
@@ -1,19 +1,24 @@
 package com.gameverse.service;
 
+import com.gameverse.engine.chess.ChessPosition;
 import com.gameverse.entity.GameSession;
+import com.gameverse.event.GameSessionCancelledEvent;
+import com.gameverse.event.GameSessionCompletedEvent;
+import com.gameverse.event.TurnTimeoutEvent;
 import com.gameverse.entity.GameParticipant;
-import com.gameverse.entity.User;
-import com.gameverse.entity.Profile;
 import com.gameverse.repository.GameSessionRepository;
 import com.gameverse.repository.GameParticipantRepository;
-import com.gameverse.repository.UserRepository;
-import com.gameverse.repository.ProfileRepository;
+import com.gameverse.service.GameReplayService.MoveRecord;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -30,13 +35,43 @@ public class GameSessionService {
     private GameParticipantRepository gameParticipantRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private SimpMessagingTemplate messagingTemplate;
 
     @Autowired
-    private ProfileRepository profileRepository;
+    private SpectatorService spectatorService;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private ChessRulesService chessRulesService;
+
+    @Autowired
+    private UnoRulesService unoRulesService;
+
+    @Autowired
+    private GameChatService gameChatService;
+
+    @Autowired
+    private TurnClockService turnClockService;
+
+    @Autowired
+    private MoveSequenceService moveSequenceService;
+
+    @Autowired
+    private GameReplayService gameReplayService;
+
+    @Autowired
+    private GameStateJournal gameStateJournal;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     
@@ -44,11 +79,16 @@ public class GameSessionService {
     private final Map<Long, Set<String>> userConnections = new ConcurrentHashMap<>();
     private final Map<Long, LocalDateTime> lastActivity = new ConcurrentHashMap<>();
 
+    // Session rosters for getSessionInfo, dropped when the session ends
+    private final Map<Long, SessionRoster> sessionRosters = new ConcurrentHashMap<>();
+
     public static class GameStateUpdate {
         private String type;
         private Long playerId;
         private Object data;
         private LocalDateTime timestamp;
+        private Map<String, Object> clock;
+        private Long serverSeq;
 
         public GameStateUpdate(String type, Long playerId, Object data) {
             this.type = type;
@@ -62,6 +102,11 @@ public class GameSessionService {
         public Long getPlayerId() { return playerId; }
         public Object getData() { return data; }
         public LocalDateTime getTimestamp() { return timestamp; }
+        public Map<String, Object> getClock() { return clock; }
+        public Long getServerSeq() { return serverSeq; }
+
+        public void setClock(Map<String, Object> clock) { this.clock = clock; }
+        public void setServerSeq(Long serverSeq) { this.serverSeq = serverSeq; }
     }
 
     public static class SessionInfo {
@@ -118,62 +163,150 @@ public class GameSessionService {
         public boolean isConnected() { return connected; }
     }
 
+    /**
+     * Immutable part of a session's info, built from the projection query
+     */
+    private static class SessionRoster {
+        private final GameSession.GameType gameType;
+        private final LocalDateTime createdAt;
+        private final List<RosterEntry> entries;
+        private final List<Long> playerOrder;
+
+        SessionRoster(List<Object[]> rows) {
+            this.gameType = (GameSession.GameType) rows.get(0)[0];
+            this.createdAt = (LocalDateTime) rows.get(0)[3];
+            this.entries = rows.stream()
+                .map(row -> new RosterEntry(
+                    (Long) row[5],
+                    row[8] != null ? (String) row[8] : "Unknown",
+                    (Integer) row[6],
+                    (Integer) row[7]))
+                .sorted(Comparator.comparing((RosterEntry e) -> e.position,
+                    Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.toUnmodifiableList());
+            this.playerOrder = entries.stream()
+                .map(e -> e.userId)
+                .collect(Collectors.toUnmodifiableList());
+        }
+
+        GameSession.GameType getGameType() { return gameType; }
+        LocalDateTime getCreatedAt() { return createdAt; }
+        List<RosterEntry> getEntries() { return entries; }
+        List<Long> getPlayerOrder() { return playerOrder; }
+    }
+
+    private static class RosterEntry {
+        private final Long userId;
+        private final String displayName;
+        private final Integer position;
+        private final Integer score;
+
+        RosterEntry(Long userId, String displayName, Integer position, Integer score) {
+            this.userId = userId;
+            this.displayName = displayName;
+            this.position = position;
+            this.score = score;
+        }
+    }
+
     @Transactional
     public SessionInfo getSessionInfo(Long sessionId, Long userId) {
-        GameSession session = gameSessionRepository.findById(sessionId)
-            .orElseThrow(() -> new RuntimeException("Session not found"));
+        GameSession.Status status;
+        String gameStateJson;
+        LocalDateTime startedAt;
+
+        // The roster is fixed for the session's lifetime; only status and state are read per call
+        SessionRoster roster = sessionRosters.get(sessionId);
+        if (roster == null) {
+            List<Object[]> rows = gameSessionRepository.findSessionInfoRows(sessionId);
+            if (rows.isEmpty()) {
+                throw new RuntimeException("Session not found");
+            }
+            Object[] first = rows.get(0);
+            status = (GameSession.Status) first[1];
+            gameStateJson = gameStateJournal.currentState(sessionId, (String) first[2]);
+            startedAt = (LocalDateTime) first[4];
+            roster = new SessionRoster(rows);
+            // Finished sessions are not cached; their rosters are released on completion
+            if (status == GameSession.Status.WAITING || status == GameSession.Status.IN_PROGRESS) {
+                sessionRosters.put(sessionId, roster);
+            }
+        } else {
+            GameSession session = gameSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Session not found"));
+            status = session.getStatus();
+            gameStateJson = currentGameState(session);
+            startedAt = session.getStartedAt();
+        }
 
         // Verify user is participant
-        List<GameParticipant> participants = gameParticipantRepository.findBySessionId(sessionId);
-        boolean isParticipant = participants.stream()
-            .anyMatch(p -> p.getUserId().equals(userId));
-        
-        if (!isParticipant) {
+        if (!roster.getPlayerOrder().contains(userId)) {
             throw new RuntimeException("User not authorized for this session");
         }
 
-        // Build player info list
-        List<PlayerInfo> players = participants.stream()
-            .map(p -> {
-                User user = userRepository.findById(p.getUserId()).orElse(null);
-                Profile profile = user != null ? profileRepository.findByUserId(user.getId()).orElse(null) : null;
-                boolean connected = isUserConnected(p.getUserId());
-                
-                return new PlayerInfo(
-                    p.getUserId(),
-                    profile != null ? profile.getDisplayName() : "Unknown",
-                    p.getPlayerPosition(),
-                    p.getFinalScore(),
-                    connected
-                );
-            })
-            .sorted(Comparator.comparing(PlayerInfo::getPosition))
-            .collect(Collectors.toList());
-
-        // Parse game state
-        Object gameState = null;
-        if (session.getGameState() != null) {
-            try {
-                gameState = objectMapper.readTree(session.getGameState());
-            } catch (Exception e) {
-                gameState = new HashMap<>();
+        // Connected flags come from presence tracking, never from the cache
+        List<PlayerInfo> players = new ArrayList<>(roster.getEntries().size());
+        for (RosterEntry entry : roster.getEntries()) {
+            players.add(new PlayerInfo(
+                entry.userId,
+                entry.displayName,
+                entry.position,
+                entry.score,
+                isUserConnected(entry.userId)
+            ));
+        }
+
+        // Deal card games on first access so players see their hands before the first move
+        Map<String, Object> state = parseGameState(gameStateJson);
+        if (roster.getGameType() == GameSession.GameType.UNO && status == GameSession.Status.IN_PROGRESS) {
+            seedPlayerOrder(state, roster.getPlayerOrder());
+            if (unoRulesService.initialize(sessionId, state)) {
+                GameSession session = gameSessionRepository.findByIdForUpdate(sessionId)
+                    .orElseThrow(() -> new RuntimeException("Session not found"));
+                saveGameState(session, state);
             }
+            unoRulesService.sendHand(sessionId, state, userId);
+        }
+        if (TurnClockService.isTimed(roster.getGameType()) && status == GameSession.Status.IN_PROGRESS) {
+            seedPlayerOrder(state, roster.getPlayerOrder());
+            startClock(sessionId, roster.getGameType(), state);
+            state.put("clock", turnClockService.getSnapshot(sessionId));
         }
 
+        // Private engine state never leaves the server
+        Object gameState = gameStateJson != null ? publicView(state) : null;
+
         return new SessionInfo(
-            session.getId(),
-            session.getGameType().name(),
-            session.getStatus().name(),
+            sessionId,
+            roster.getGameType().name(),
+            status.name(),
             players,
             gameState,
-            session.getCreatedAt(),
-            session.getStartedAt()
+            roster.getCreatedAt(),
+            startedAt
         );
     }
 
+    /**
+     * Whether the user plays in the session; served from the cached roster when there is one
+     */
+    public boolean isParticipant(Long sessionId, Long userId) {
+        SessionRoster roster = sessionRosters.get(sessionId);
+        if (roster != null) {
+            return roster.getPlayerOrder().contains(userId);
+        }
+        return gameParticipantRepository.existsBySessionIdAndUserId(sessionId, userId);
+    }
+
+    /**
+     * Validate and apply a player's move
+     *
+     * @return Server sequence number the move was applied as
+     */
     @Transactional
-    public void updateGameState(Long sessionId, Long playerId, GameStateUpdate update) {
-        GameSession session = gameSessionRepository.findById(sessionId)
+    public long updateGameState(Long sessionId, Long playerId, GameStateUpdate update) {
+        // Row lock: the turn clock's timeout thread writes the same session
+        GameSession session = gameSessionRepository.findByIdForUpdate(sessionId)
             .orElseThrow(() -> new RuntimeException("Session not found"));
 
         // Verify player is participant
@@ -185,34 +318,168 @@ public class GameSessionService {
             throw new RuntimeException("Player not authorized for this session");
         }
 
+        // Resigning is not a move of the game, so the engines never see it
+        if ("FORFEIT".equals(update.getType())) {
+            if (session.getStatus() != GameSession.Status.IN_PROGRESS) {
+                throw new RuntimeException("Invalid move");
+            }
+            return applyForfeit(session, participants, playerId, "player_forfeit");
+        }
+
+        // Parse current state once for validation and update
+        Map<String, Object> gameState = parseGameState(currentGameState(session));
+        ensurePlayerOrder(gameState, participants);
+        if (session.getGameType() == GameSession.GameType.UNO) {
+            unoRulesService.initialize(sessionId, gameState);
+        }
+
+        // Turn clocks are authoritative: a move after the deadline is too late
+        boolean timed = TurnClockService.isTimed(session.getGameType());
+        if (timed) {
+            startClock(sessionId, session.getGameType(), gameState);
+            if (turnClockService.hasExpired(sessionId, playerId)) {
+                throw new RuntimeException("Time expired");
+            }
+        }
+        Long turnBefore = asLong(gameState.get("currentPlayer"));
+
         // Validate move based on game type and current state
-        if (!validateMove(session, playerId, update)) {
+        if (!validateMove(session, gameState, playerId, update)) {
             throw new RuntimeException("Invalid move");
         }
 
-        // Update game state
-        String currentState = session.getGameState();
-        Map<String, Object> gameState = parseGameState(currentState);
-        
         // Apply the update
-        applyGameStateUpdate(gameState, update);
+        applyGameStateUpdate(session, gameState, update);
         
         // Check for game end conditions
         checkGameEndConditions(session, gameState, participants);
 
-        // Save updated state
-        try {
-            session.setGameState(objectMapper.writeValueAsString(gameState));
-            gameSessionRepository.save(session);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to save game state", e);
+        // A move by the player on turn ends their turn and starts the next player's clock
+        if (timed && session.getStatus() == GameSession.Status.IN_PROGRESS && playerId.equals(turnBefore)) {
+            update.setClock(turnClockService.passTurn(sessionId, playerId,
+                asLong(gameState.get("currentPlayer")), false));
+            recordClocks(sessionId, gameState);
         }
 
+        // Save updated state
+        long serverSeq = commitUpdate(session, gameState, update);
+
         // Update last activity
         lastActivity.put(playerId, LocalDateTime.now());
+        admissionControlService.renew(sessionId);
 
-        // Broadcast update to all participants
-        broadcastGameUpdate(sessionId, update, participants);
+        // Broadcast update to all participants and the spectator stream
+        broadcastGameUpdate(sessionId, update, participants, currentGameState(session));
+        if (session.getGameType() == GameSession.GameType.UNO) {
+            unoRulesService.sendHands(sessionId, gameState);
+        }
+
+        if (session.getStatus() == GameSession.Status.COMPLETED) {
+            completeSession(session, gameState, participants);
+        }
+        return serverSeq;
+    }
+
+    /**
+     * Auto-pass or forfeit a player whose turn clock ran out
+     *
+     * Chess loses on time; other games pass the turn, and a player who lets
+     * too many turns in a row expire forfeits. The game ends once at most one
+     * player is left.
+     */
+    @EventListener
+    @Transactional
+    public void handleTurnTimeout(TurnTimeoutEvent event) {
+        Long sessionId = event.getSessionId();
+        Long playerId = event.getPlayerId();
+        if (!turnClockService.isCurrentTurn(sessionId, event.getTurn())) {
+            return; // The player moved in time
+        }
+        if (!sessionOwnershipService.isOwner(sessionId)) {
+            // Ownership moved away; the new owner runs the clock from its own state
+            turnClockService.release(sessionId);
+            return;
+        }
+
+        GameSession session = gameSessionRepository.findByIdForUpdate(sessionId).orElse(null);
+        if (session == null || session.getStatus() != GameSession.Status.IN_PROGRESS) {
+            releaseLiveState(sessionId);
+            return;
+        }
+        if (!turnClockService.isCurrentTurn(sessionId, event.getTurn())) {
+            return; // A move committed while we waited for the row lock
+        }
+
+        List<GameParticipant> participants = gameParticipantRepository.findBySessionId(sessionId);
+        Map<String, Object> gameState = parseGameState(currentGameState(session));
+        ensurePlayerOrder(gameState, participants);
+        if (session.getGameType() == GameSession.GameType.UNO) {
+            unoRulesService.initialize(sessionId, gameState);
+        }
+
+        GameStateUpdate update = new GameStateUpdate("TURN_TIMEOUT", playerId,
+            Map.of("userId", playerId, "reason", "turn_clock_expired"));
+
+        boolean lostOnTime = session.getGameType() == GameSession.GameType.CHESS;
+        if (lostOnTime || turnClockService.recordMissedTurn(sessionId, playerId)) {
+            gameState.put("forfeit_" + playerId, true);
+            turnClockService.markForfeited(sessionId, playerId);
+        }
+
+        List<Long> activePlayers = new ArrayList<>();
+        for (Object player : (List<?>) gameState.get("playerOrder")) {
+            if (!gameState.containsKey("forfeit_" + asLong(player))) {
+                activePlayers.add(asLong(player));
+            }
+        }
+
+        if (activePlayers.size() <= 1) {
+            // Last player standing wins
+            Long winnerId = activePlayers.isEmpty() ? null : activePlayers.get(0);
+            gameState.put("winner", winnerId);
+            if (lostOnTime) {
+                gameState.put("timeout", playerId);
+            }
+            session.setStatus(GameSession.Status.COMPLETED);
+            session.setEndedAt(LocalDateTime.now());
+            session.setWinnerId(winnerId);
+        } else {
+            if (session.getGameType() == GameSession.GameType.UNO) {
+                unoRulesService.autoPass(sessionId, gameState, playerId);
+            } else {
+                gameState.put("currentPlayer", getNextPlayer(gameState, playerId));
+            }
+            update.setClock(turnClockService.passTurn(sessionId, playerId,
+                asLong(gameState.get("currentPlayer")), true));
+            recordClocks(sessionId, gameState);
+        }
+
+        commitUpdate(session, gameState, update);
+
+        broadcastGameUpdate(sessionId, update, participants, currentGameState(session));
+        if (session.getGameType() == GameSession.GameType.UNO) {
+            unoRulesService.sendHands(sessionId, gameState);
+        }
+
+        if (session.getStatus() == GameSession.Status.COMPLETED) {
+            completeSession(session, gameState, participants);
+        }
+    }
+
+    /**
+     * Spectator view of a session; unlike getSessionInfo this does not require
+     * the caller to be a participant
+     */
+    @Transactional(readOnly = true)
+    public SpectatorService.SpectatorSnapshot getSpectatorSnapshot(Long sessionId) {
+        GameSession session = gameSessionRepository.findById(sessionId)
+            .orElseThrow(() -> new RuntimeException("Session not found"));
+
+        if (session.getStatus() != GameSession.Status.IN_PROGRESS) {
+            throw new RuntimeException("Session is not live");
+        }
+
+        return spectatorService.getSnapshot(sessionId, currentGameState(session));
     }
 
     public void handlePlayerConnection(Long sessionId, Long userId, String connectionId) {
@@ -249,7 +516,8 @@ public class GameSessionService {
         broadcastGameUpdate(sessionId, disconnectionUpdate, participants);
     }
 
-    private boolean validateMove(GameSession session, Long playerId, GameStateUpdate update) {
+    private boolean validateMove(GameSession session, Map<String, Object> gameState, Long playerId,
+                                 GameStateUpdate update) {
         // Basic validation - can be extended per game type
         if (session.getStatus() != GameSession.Status.IN_PROGRESS) {
             return false;
@@ -257,34 +525,23 @@ public class GameSessionService {
 
         // Game-specific validation would go here
         return switch (session.getGameType()) {
-            case CHESS -> validateChessMove(session, playerId, update);
-            case UNO -> validateUnoMove(session, playerId, update);
+            case CHESS -> validateChessMove(session, gameState, playerId, update);
+            case UNO -> validateUnoMove(session, gameState, playerId, update);
             case CAR_RACING -> validateRacingMove(session, playerId, update);
             default -> true; // Allow all moves for other games for now
         };
     }
 
-    private boolean validateChessMove(GameSession session, Long playerId, GameStateUpdate update) {
-        // Chess-specific move validation
-        Map<String, Object> gameState = parseGameState(session.getGameState());
-        
-        // Check if it's player's turn
-        Long currentPlayer = (Long) gameState.get("currentPlayer");
-        if (!playerId.equals(currentPlayer)) {
-            return false;
-        }
-
-        // Additional chess rule validation would go here
-        return true;
+    private boolean validateChessMove(GameSession session, Map<String, Object> gameState, Long playerId,
+                                      GameStateUpdate update) {
+        // Turn order and full chess rules are checked by the engine
+        return chessRulesService.validateMove(session.getId(), gameState, playerId, update);
     }
 
-    private boolean validateUnoMove(GameSession session, Long playerId, GameStateUpdate update) {
-        // Uno-specific move validation
-        Map<String, Object> gameState = parseGameState(session.getGameState());
-        
-        // Check if it's player's turn
-        Long currentPlayer = (Long) gameState.get("currentPlayer");
-        return playerId.equals(currentPlayer);
+    private boolean validateUnoMove(GameSession session, Map<String, Object> gameState, Long playerId,
+                                    GameStateUpdate update) {
+        // Turn order, card ownership and matching are checked by the engine
+        return unoRulesService.validateMove(session.getId(), gameState, playerId, update);
     }
 
     private boolean validateRacingMove(GameSession session, Long playerId, GameStateUpdate update) {
@@ -305,10 +562,111 @@ public class GameSessionService {
         }
     }
 
-    private void applyGameStateUpdate(Map<String, Object> gameState, GameStateUpdate update) {
+    private void startClock(Long sessionId, GameSession.GameType gameType, Map<String, Object> gameState) {
+        if (!turnClockService.isRunning(sessionId)) {
+            turnClockService.start(sessionId, gameType, (List<?>) gameState.get("playerOrder"),
+                asLong(gameState.get("currentPlayer")), gameState.get("clocks"));
+        }
+    }
+
+    // Chess times survive a restart through the saved state
+    private void recordClocks(Long sessionId, Map<String, Object> gameState) {
+        Map<String, Long> remaining = turnClockService.getRemainingTimes(sessionId);
+        if (remaining != null) {
+            gameState.put("clocks", remaining);
+        }
+    }
+
+    /**
+     * Number the update, save the new state and append the update to the move log
+     *
+     * @return Server sequence number of the update
+     */
+    private long commitUpdate(GameSession session, Map<String, Object> gameState, GameStateUpdate update) {
+        long serverSeq = nextServerSeq(gameState, update);
+        persistGameState(session, gameState,
+            gameReplayService.buildMove(session.getId(), serverSeq, update, () -> publicView(gameState)));
+        return serverSeq;
+    }
+
+    /**
+     * Number the update in the session's total order of state changes
+     */
+    private long nextServerSeq(Map<String, Object> gameState, GameStateUpdate update) {
+        Long current = asLong(gameState.get("moveSeq"));
+        long serverSeq = (current != null ? current : 0) + 1;
+        gameState.put("moveSeq", serverSeq);
+        update.setServerSeq(serverSeq);
+        return serverSeq;
+    }
+
+    private void saveGameState(GameSession session, Map<String, Object> gameState) {
+        persistGameState(session, gameState, null);
+    }
+
+    /**
+     * Live sessions are only journaled when the journal is enabled; the database copy catches up
+     * in the background. Finished sessions and records the journal cannot take are saved directly.
+     */
+    private void persistGameState(GameSession session, Map<String, Object> gameState, MoveRecord move) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(gameState);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to save game state", e);
+        }
+
+        Long serverSeq = asLong(gameState.get("moveSeq"));
+        if (gameStateJournal.append(session.getId(), serverSeq != null ? serverSeq : 0, json, move)) {
+            if (session.getStatus() == GameSession.Status.IN_PROGRESS) {
+                return;
+            }
+            // The move row is already queued by the journal
+            move = null;
+        }
+
+        session.setGameState(json);
+        gameSessionRepository.save(session);
+        if (move != null) {
+            gameReplayService.recordMoves(List.of(move));
+        }
+        gameStateJournal.discard(session.getId());
+    }
+
+    /**
+     * Latest game state JSON, including changes not yet written back from the journal
+     */
+    private String currentGameState(GameSession session) {
+        return gameStateJournal.currentState(session.getId(), session.getGameState());
+    }
+
+    /**
+     * Game state as shown to clients: keys starting with "_" hold private engine state
+     */
+    private JsonNode publicView(Map<String, Object> gameState) {
+        ObjectNode view = objectMapper.valueToTree(gameState);
+        view.remove(privateKeys(view));
+        return view;
+    }
+
+    static List<String> privateKeys(JsonNode state) {
+        List<String> keys = new ArrayList<>();
+        state.fieldNames().forEachRemaining(name -> {
+            if (name.startsWith("_")) {
+                keys.add(name);
+            }
+        });
+        return keys;
+    }
+
+    private void applyGameStateUpdate(GameSession session, Map<String, Object> gameState, GameStateUpdate update) {
         // Apply update based on type
         switch (update.getType()) {
             case "MOVE" -> {
+                if (session.getGameType() == GameSession.GameType.CHESS) {
+                    chessRulesService.applyMove(session.getId(), gameState, update);
+                    break;
+                }
                 // Generic move update
                 gameState.put("lastMove", update.getData());
                 gameState.put("lastMovePlayer", update.getPlayerId());
@@ -320,10 +678,15 @@ public class GameSessionService {
                 positions.put(update.getPlayerId().toString(), update.getData());
             }
             case "CARD_PLAY" -> {
+                if (session.getGameType() == GameSession.GameType.UNO) {
+                    unoRulesService.applyMove(session.getId(), gameState, update);
+                    break;
+                }
                 // Card game move
                 gameState.put("lastCard", update.getData());
                 gameState.put("currentPlayer", getNextPlayer(gameState, update.getPlayerId()));
             }
+            case "DRAW_CARD" -> unoRulesService.applyMove(session.getId(), gameState, update);
             case "SCORE_UPDATE" -> {
                 // Score update
                 Map<String, Object> scores = (Map<String, Object>) gameState.computeIfAbsent("scores", k -> new HashMap<>());
@@ -336,12 +699,47 @@ public class GameSessionService {
 
     private Long getNextPlayer(Map<String, Object> gameState, Long currentPlayer) {
         // Simple round-robin player rotation
-        List<Long> playerOrder = (List<Long>) gameState.get("playerOrder");
-        if (playerOrder == null) return currentPlayer;
+        List<?> playerOrder = (List<?>) gameState.get("playerOrder");
+        if (playerOrder == null || playerOrder.isEmpty()) return currentPlayer;
         
-        int currentIndex = playerOrder.indexOf(currentPlayer);
+        int currentIndex = 0;
+        for (int i = 0; i < playerOrder.size(); i++) {
+            if (currentPlayer.equals(asLong(playerOrder.get(i)))) {
+                currentIndex = i;
+                break;
+            }
+        }
         int nextIndex = (currentIndex + 1) % playerOrder.size();
-        return playerOrder.get(nextIndex);
+        return asLong(playerOrder.get(nextIndex));
+    }
+
+    /**
+     * Seed turn order from player positions the first time a session's state is touched
+     */
+    private void ensurePlayerOrder(Map<String, Object> gameState, List<GameParticipant> participants) {
+        if (gameState.containsKey("playerOrder")) {
+            return;
+        }
+        seedPlayerOrder(gameState, participants.stream()
+            .sorted(Comparator.comparing(GameParticipant::getPlayerPosition,
+                Comparator.nullsLast(Comparator.naturalOrder())))
+            .map(GameParticipant::getUserId)
+            .collect(Collectors.toList()));
+    }
+
+    private void seedPlayerOrder(Map<String, Object> gameState, List<Long> playerOrder) {
+        if (gameState.containsKey("playerOrder")) {
+            return;
+        }
+        gameState.put("playerOrder", new ArrayList<>(playerOrder));
+        if (!playerOrder.isEmpty()) {
+            gameState.putIfAbsent("currentPlayer", playerOrder.get(0));
+        }
+    }
+
+    // JSON round-trips turn small numbers into Integers
+    private static Long asLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : null;
     }
 
     private void checkGameEndConditions(GameSession session, Map<String, Object> gameState, List<GameParticipant> participants) {
@@ -351,21 +749,20 @@ public class GameSessionService {
         // Game-specific end conditions
         switch (session.getGameType()) {
             case CHESS -> {
-                if (gameState.containsKey("checkmate") || gameState.containsKey("stalemate")) {
+                // Decided by the engine's live position, not by client-supplied state
+                if (chessRulesService.getStatus(session.getId(), gameState) != ChessPosition.Status.ONGOING) {
                     gameEnded = true;
-                    winnerId = (Long) gameState.get("winner");
+                    winnerId = asLong(gameState.get("winner"));
                 }
             }
             case UNO -> {
-                if (gameState.containsKey("winner")) {
-                    gameEnded = true;
-                    winnerId = (Long) gameState.get("winner");
-                }
+                winnerId = unoRulesService.getWinner(session.getId(), gameState);
+                gameEnded = winnerId != null;
             }
             case CAR_RACING -> {
                 if (gameState.containsKey("raceFinished")) {
                     gameEnded = true;
-                    winnerId = (Long) gameState.get("winner");
+                    winnerId = asLong(gameState.get("winner"));
                 }
             }
         }
@@ -375,27 +772,17 @@ public class GameSessionService {
             session.setEndedAt(LocalDateTime.now());
             session.setWinnerId(winnerId);
             
-            // Update participant scores
-            updateParticipantScores(participants, gameState);
-            
+            // Participant scores, rewards and stats are settled asynchronously
             gameSessionRepository.save(session);
         }
     }
 
-    private void updateParticipantScores(List<GameParticipant> participants, Map<String, Object> gameState) {
-        Map<String, Object> scores = (Map<String, Object>) gameState.get("scores");
-        if (scores != null) {
-            for (GameParticipant participant : participants) {
-                Object score = scores.get(participant.getUserId().toString());
-                if (score instanceof Number) {
-                    participant.setFinalScore(((Number) score).intValue());
-                    gameParticipantRepository.save(participant);
-                }
-            }
-        }
+    private void broadcastGameUpdate(Long sessionId, GameStateUpdate update, List<GameParticipant> participants) {
+        broadcastGameUpdate(sessionId, update, participants, null);
     }
 
-    private void broadcastGameUpdate(Long sessionId, GameStateUpdate update, List<GameParticipant> participants) {
+    private void broadcastGameUpdate(Long sessionId, GameStateUpdate update, List<GameParticipant> participants,
+                                     String gameStateJson) {
         for (GameParticipant participant : participants) {
             messagingTemplate.convertAndSendToUser(
                 participant.getUserId().toString(),
@@ -403,6 +790,9 @@ public class GameSessionService {
                 update
             );
         }
+
+        // Spectators share a single stream, independent of viewer count
+        spectatorService.publish(sessionId, update, gameStateJson);
     }
 
     private boolean isUserConnected(Long userId) {
@@ -424,65 +814,177 @@ public class GameSessionService {
 
     private void handleReconnectionTimeout(Long sessionId, Long userId) {
         if (!isUserConnected(userId)) {
-            // User didn't reconnect, handle as forfeit
-            GameSession session = gameSessionRepository.findById(sessionId).orElse(null);
-            if (session != null && session.getStatus() == GameSession.Status.IN_PROGRESS) {
-                
-                // Create forfeit update
-                GameStateUpdate forfeitUpdate = new GameStateUpdate("PLAYER_FORFEIT", userId,
-                    Map.of("userId", userId, "reason", "disconnection_timeout"));
-                
-                // Apply forfeit to game state
-                Map<String, Object> gameState = parseGameState(session.getGameState());
-                gameState.put("forfeit_" + userId, true);
-                
-                // Check if game should end due to forfeit
-                List<GameParticipant> participants = gameParticipantRepository.findBySessionId(sessionId);
-                long activePlayers = participants.stream()
-                    .filter(p -> !gameState.containsKey("forfeit_" + p.getUserId()))
-                    .count();
-                
-                if (activePlayers <= 1) {
-                    // End game, remaining player wins
-                    session.setStatus(GameSession.Status.COMPLETED);
-                    session.setEndedAt(LocalDateTime.now());
-                    
-                    // Find winner (last active player)
-                    participants.stream()
-                        .filter(p -> !gameState.containsKey("forfeit_" + p.getUserId()))
-                        .findFirst()
-                        .ifPresent(winner -> session.setWinnerId(winner.getUserId()));
-                }
-                
-                try {
-                    session.setGameState(objectMapper.writeValueAsString(gameState));
-                    gameSessionRepository.save(session);
-                } catch (Exception e) {
-                    // Log error
-                }
-                
-                // Broadcast forfeit to remaining players
-                broadcastGameUpdate(sessionId, forfeitUpdate, participants);
+            // Runs on a timer thread; the transaction holds the session's row lock like a move does
+            transactionTemplate.executeWithoutResult(tx -> forfeitDisconnected(sessionId, userId));
+        }
+    }
+
+    private void forfeitDisconnected(Long sessionId, Long userId) {
+        // User didn't reconnect, handle as forfeit
+        GameSession session = gameSessionRepository.findByIdForUpdate(sessionId).orElse(null);
+        if (session != null && session.getStatus() == GameSession.Status.IN_PROGRESS) {
+            List<GameParticipant> participants = gameParticipantRepository.findBySessionId(sessionId);
+            try {
+                applyForfeit(session, participants, userId, "disconnection_timeout");
+            } catch (Exception e) {
+                // Log error
             }
         }
     }
 
+    /**
+     * Take a player out of an in-progress game; the last player left wins
+     *
+     * Used for resignations and for players who did not reconnect in time.
+     * The caller holds the session's row lock.
+     *
+     * @return Server sequence number the forfeit was recorded as
+     */
+    private long applyForfeit(GameSession session, List<GameParticipant> participants, Long userId, String reason) {
+        Long sessionId = session.getId();
+        GameStateUpdate forfeitUpdate = new GameStateUpdate("PLAYER_FORFEIT", userId,
+            Map.of("userId", userId, "reason", reason));
+
+        Map<String, Object> gameState = parseGameState(currentGameState(session));
+        if (gameState.containsKey("forfeit_" + userId)) {
+            throw new RuntimeException("Player has already forfeited");
+        }
+
+        // Apply forfeit to game state
+        gameState.put("forfeit_" + userId, true);
+        turnClockService.markForfeited(sessionId, userId);
+
+        // Check if game should end due to forfeit
+        long activePlayers = participants.stream()
+            .filter(p -> !gameState.containsKey("forfeit_" + p.getUserId()))
+            .count();
+
+        if (activePlayers <= 1) {
+            // End game, remaining player wins
+            session.setStatus(GameSession.Status.COMPLETED);
+            session.setEndedAt(LocalDateTime.now());
+
+            // Find winner (last active player)
+            participants.stream()
+                .filter(p -> !gameState.containsKey("forfeit_" + p.getUserId()))
+                .findFirst()
+                .ifPresent(winner -> session.setWinnerId(winner.getUserId()));
+        }
+
+        long serverSeq = commitUpdate(session, gameState, forfeitUpdate);
+
+        // Broadcast forfeit to remaining players
+        broadcastGameUpdate(sessionId, forfeitUpdate, participants, currentGameState(session));
+
+        if (session.getStatus() == GameSession.Status.COMPLETED) {
+            completeSession(session, gameState, participants);
+        }
+        return serverSeq;
+    }
+
     @Transactional
     public void endSession(Long sessionId, Long winnerId) {
-        GameSession session = gameSessionRepository.findById(sessionId)
+        GameSession session = gameSessionRepository.findByIdForUpdate(sessionId)
             .orElseThrow(() -> new RuntimeException("Session not found"));
         
         session.setStatus(GameSession.Status.COMPLETED);
         session.setEndedAt(LocalDateTime.now());
         session.setWinnerId(winnerId);
+        session.setGameState(currentGameState(session));
         
         gameSessionRepository.save(session);
+        gameStateJournal.discard(sessionId);
         
         // Notify all participants
         List<GameParticipant> participants = gameParticipantRepository.findBySessionId(sessionId);
-        GameStateUpdate endUpdate = new GameStateUpdate("GAME_END", winnerId,
-            Map.of("winner", winnerId, "endTime", LocalDateTime.now().toString()));
+        Map<String, Object> endData = new HashMap<>();
+        endData.put("winner", winnerId);
+        endData.put("endTime", LocalDateTime.now().toString());
+        GameStateUpdate endUpdate = new GameStateUpdate("GAME_END", winnerId, endData);
         
         broadcastGameUpdate(sessionId, endUpdate, participants);
+        completeSession(session, parseGameState(currentGameState(session)), participants);
+    }
+
+    /**
+     * Notify players of sessions the sweeper ended without a winner, one participant query per chunk
+     *
+     * @param gameTypes Game type of each ended session, by session ID
+     * @param endedAt End time written by the sweeper
+     */
+    public void handleTimedOutSessions(Map<Long, GameSession.GameType> gameTypes, LocalDateTime endedAt) {
+        Map<Long, List<GameParticipant>> participantsBySession = gameParticipantRepository
+            .findBySessionIdIn(new ArrayList<>(gameTypes.keySet())).stream()
+            .collect(Collectors.groupingBy(GameParticipant::getSessionId));
+
+        Map<String, Object> endData = new HashMap<>();
+        endData.put("winner", null);
+        endData.put("reason", "timeout");
+        endData.put("endTime", endedAt.toString());
+
+        gameTypes.forEach((sessionId, gameType) -> {
+            List<GameParticipant> participants = participantsBySession.getOrDefault(sessionId, List.of());
+            broadcastGameUpdate(sessionId, new GameStateUpdate("GAME_END", null, endData), participants);
+            completeSession(sessionId, gameType, null, endedAt, Map.of(), participants);
+        });
+    }
+
+    /**
+     * Drop the in-memory state of waiting sessions the sweeper cancelled
+     */
+    public void handleCancelledSessions(List<Long> sessionIds) {
+        for (Long sessionId : sessionIds) {
+            eventPublisher.publishEvent(new GameSessionCancelledEvent(sessionId));
+            releaseLiveState(sessionId);
+        }
+    }
+
+    /**
+     * Hand a completed session to settlement and drop its in-memory state
+     */
+    private void completeSession(GameSession session, Map<String, Object> gameState,
+                                 List<GameParticipant> participants) {
+        completeSession(session.getId(), session.getGameType(), session.getWinnerId(), session.getEndedAt(),
+            gameState, participants);
+    }
+
+    private void completeSession(Long sessionId, GameSession.GameType gameType, Long winnerId,
+                                 LocalDateTime endedAt, Map<String, Object> gameState,
+                                 List<GameParticipant> participants) {
+        List<Long> participantIds = new ArrayList<>(participants.size());
+        Map<Long, Integer> finalScores = new HashMap<>();
+        Object scores = gameState.get("scores");
+        for (GameParticipant participant : participants) {
+            participantIds.add(participant.getUserId());
+            Object score = scores instanceof Map ? ((Map<?, ?>) scores).get(participant.getUserId().toString()) : null;
+            if (score instanceof Number) {
+                finalScores.put(participant.getUserId(), ((Number) score).intValue());
+            }
+        }
+
+        // Recorded as a pending settlement by the surrounding transaction, settled after it commits
+        eventPublisher.publishEvent(new GameSessionCompletedEvent(
+            sessionId,
+            gameType.name(),
+            winnerId,
+            participantIds,
+            finalScores,
+            endedAt
+        ));
+
+        releaseLiveState(sessionId);
+    }
+
+    /**
+     * Drop in-memory engine state, rosters and clocks, and close the spectator stream of a finished session
+     */
+    private void releaseLiveState(Long sessionId) {
+        spectatorService.closeStream(sessionId);
+        chessRulesService.release(sessionId);
+        unoRulesService.release(sessionId);
+        gameChatService.release(sessionId);
+        sessionRosters.remove(sessionId);
+        turnClockService.release(sessionId);
+        moveSequenceService.release(sessionId);
     }
 }
\ No newline at end of file
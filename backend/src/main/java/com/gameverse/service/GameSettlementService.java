@@ -0,0 +1,172 @@
+package com.gameverse.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gameverse.entity.GameCoinTransaction;
+import com.gameverse.event.GameSessionCompletedEvent;
+import com.gameverse.repository.ProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settles finished game sessions: final scores, winner reward and profile stats
+ *
+ * game_settlements is an outbox. The transaction that completes a session
+ * also writes its pending row (winner and final scores), so a completed
+ * session always has one. After commit the row is settled asynchronously,
+ * so ending a game costs the move path nothing; rows still pending after a
+ * failure or a restart are retried by a periodic job. Settling locks the row
+ * and marks it settled in the same transaction as the writes, so each
+ * session is paid out at most once however many nodes or retries race.
+ */
+@Service
+public class GameSettlementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameSettlementService.class);
+
+    private static final int RETRY_BATCH = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private GameCoinService gameCoinService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private TransactionTemplate settleTransaction;
+
+    private static class PendingSettlement {
+        private final String gameType;
+        private final Long winnerId;
+        private final Map<Long, Integer> finalScores;
+
+        PendingSettlement(String gameType, Long winnerId, Map<Long, Integer> finalScores) {
+            this.gameType = gameType;
+            this.winnerId = winnerId;
+            this.finalScores = finalScores;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        settleTransaction = new TransactionTemplate(transactionManager);
+        settleTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Write the pending settlement inside the completing transaction
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void recordPending(GameSessionCompletedEvent event) {
+        String scores;
+        try {
+            scores = objectMapper.writeValueAsString(event.getFinalScores());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize final scores", e);
+        }
+        jdbcTemplate.update(
+            "INSERT IGNORE INTO game_settlements (session_id, game_type, winner_id, final_scores, created_at) " +
+            "VALUES (?, ?, ?, ?, NOW())",
+            event.getSessionId(), event.getGameType(), event.getWinnerId(), scores);
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionCompleted(GameSessionCompletedEvent event) {
+        settleQuietly(event.getSessionId());
+    }
+
+    /**
+     * Settle sessions whose first attempt failed or was lost with its node
+     */
+    @Scheduled(fixedDelay = 60000) // 1 minute
+    public void retryPendingSettlements() {
+        List<Long> sessionIds = jdbcTemplate.queryForList(
+            "SELECT session_id FROM game_settlements WHERE settled_at IS NULL " +
+            "AND created_at < NOW() - INTERVAL 1 MINUTE ORDER BY created_at LIMIT ?",
+            Long.class, RETRY_BATCH);
+        sessionIds.forEach(this::settleQuietly);
+    }
+
+    private void settleQuietly(Long sessionId) {
+        try {
+            settleTransaction.executeWithoutResult(status -> settle(sessionId));
+        } catch (Exception e) {
+            // The row stays pending and the retry job picks it up
+            logger.warn("Failed to settle game session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private void settle(Long sessionId) {
+        List<PendingSettlement> pending = jdbcTemplate.query(
+            "SELECT game_type, winner_id, final_scores FROM game_settlements " +
+            "WHERE session_id = ? AND settled_at IS NULL FOR UPDATE",
+            (rs, rowNum) -> {
+                long winner = rs.getLong(2);
+                return new PendingSettlement(rs.getString(1), rs.wasNull() ? null : winner, parseScores(rs.getString(3)));
+            },
+            sessionId);
+        if (pending.isEmpty()) {
+            logger.debug("Session {} already settled", sessionId);
+            return;
+        }
+        PendingSettlement settlement = pending.get(0);
+
+        // Final scores in one batch
+        if (!settlement.finalScores.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(settlement.finalScores.size());
+            settlement.finalScores.forEach((userId, score) -> rows.add(new Object[] {score, sessionId, userId}));
+            jdbcTemplate.batchUpdate(
+                "UPDATE game_participants SET final_score = ? WHERE session_id = ? AND user_id = ?", rows);
+        }
+
+        // Played/won counters for every participant
+        profileRepository.recordSessionResults(sessionId, settlement.gameType, settlement.winnerId);
+
+        Long winnerId = settlement.winnerId;
+        if (winnerId != null) {
+            GameCoinTransaction reward = gameCoinService.awardGameWinCoins(
+                winnerId, settlement.gameType, String.valueOf(sessionId));
+            jdbcTemplate.update(
+                "UPDATE game_participants SET coins_won = ? WHERE session_id = ? AND user_id = ?",
+                reward.getAmount(), sessionId, winnerId);
+        }
+
+        jdbcTemplate.update("UPDATE game_settlements SET settled_at = NOW() WHERE session_id = ?", sessionId);
+        logger.info("Settled game session {} (winner: {})", sessionId, winnerId);
+    }
+
+    private Map<Long, Integer> parseScores(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<Long, Integer>>() {});
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to parse final scores", e);
+        }
+    }
+}
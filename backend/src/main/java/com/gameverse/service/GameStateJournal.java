@@ -0,0 +1,569 @@
+package com.gameverse.service;
+
+import com.gameverse.service.GameReplayService.MoveRecord;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Crash-recovery journal for live game state
+ *
+ * With the journal enabled, a state change of an IN_PROGRESS session is
+ * appended to a local memory-mapped file instead of being written to
+ * game_sessions in the move's transaction. A change made in a transaction is
+ * held by that transaction and appended only once it commits; while it
+ * commits, readers of the session wait for the outcome, so a rolled-back move
+ * is never visible and a committed one is never missed. The mapping survives
+ * a JVM crash and is forced to disk every force-interval-ms; a background
+ * flush writes the latest state per session, plus the queued move log rows,
+ * to the database every flush-interval-ms, then moves the active segment's
+ * flushed watermark up to what it wrote and deletes the full segments it has
+ * covered. The active segment keeps taking appends until it is full.
+ *
+ * State is written only over an older copy (by moveSeq), so a replayed or
+ * late journal record never overwrites a newer row, and final states of
+ * sessions ended elsewhere are still written. On startup, anything still in
+ * the journal is written back to the database before the node takes traffic;
+ * if that fails, it is served from memory and written by the next flush.
+ */
+@Service
+public class GameStateJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameStateJournal.class);
+
+    private static final long COMMIT_WAIT_MS = 5000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GameReplayService gameReplayService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${gameverse.games.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${gameverse.games.journal.directory:data/journal}")
+    private String directory;
+
+    @Value("${gameverse.games.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    private final Map<Long, PendingState> pendingStates = new ConcurrentHashMap<>();
+    private final Queue<MoveRecord> pendingMoves = new ConcurrentLinkedQueue<>();
+
+    // Sessions whose transaction is committing a journaled change
+    private final Map<Long, Committing> committing = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+
+    // Guarded by this journal's append lock
+    private final List<JournalSegment> sealed = new ArrayList<>();
+    // Segments of a previous run whose recovery failed; retired by the first successful flush
+    private final List<Path> recovered = new ArrayList<>();
+    private JournalSegment active;
+
+    private TransactionTemplate writeThroughTransaction;
+    private long nextSegment;
+    private int segmentSize;
+
+    private static class PendingState {
+        private final long serverSeq;
+        private final String json;
+
+        PendingState(long serverSeq, String json) {
+            this.serverSeq = serverSeq;
+            this.json = json;
+        }
+    }
+
+    /**
+     * A change held by its transaction until commit
+     */
+    private static class StagedRecord {
+        private final Long sessionId;
+        private final PendingState state;
+        private final byte[] record;
+        private final MoveRecord move;
+
+        StagedRecord(Long sessionId, PendingState state, byte[] record, MoveRecord move) {
+            this.sessionId = sessionId;
+            this.state = state;
+            this.record = record;
+            this.move = move;
+        }
+    }
+
+    private static class Committing {
+        private final Thread owner = Thread.currentThread();
+        private final PendingState state;
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        Committing(PendingState state) {
+            this.state = state;
+        }
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        writeThroughTransaction = new TransactionTemplate(transactionManager);
+        writeThroughTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        segmentSize = segmentSizeMb * 1024 * 1024;
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+
+        List<Path> segments = listSegments(dir);
+        if (!segments.isEmpty()) {
+            recover(segments);
+        }
+        synchronized (this) {
+            active = openSegment();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Journal a state change of a live session, once the surrounding transaction commits
+     *
+     * @param move Move log row for the change, or null
+     * @return false if the record could not be journaled and must be written to the database directly
+     */
+    public boolean append(Long sessionId, long serverSeq, String stateJson, MoveRecord move) {
+        if (!enabled) {
+            return false;
+        }
+        byte[] record;
+        try {
+            record = encode(sessionId, serverSeq, stateJson, move);
+        } catch (IOException e) {
+            return false;
+        }
+        if (!JournalSegment.fits(segmentSize, record)) {
+            return false;
+        }
+
+        StagedRecord staged = new StagedRecord(sessionId, new PendingState(serverSeq, stateJson), record, move);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            staged().add(staged);
+            return true;
+        }
+        return write(staged);
+    }
+
+    /**
+     * Latest state of the session: the journaled state if newer than the database copy
+     */
+    public String currentState(Long sessionId, String databaseState) {
+        List<StagedRecord> ownChanges = stagedIfBound();
+        for (int i = ownChanges.size() - 1; i >= 0; i--) {
+            if (ownChanges.get(i).sessionId.equals(sessionId)) {
+                return ownChanges.get(i).state.json;
+            }
+        }
+
+        Committing commit = committing.get(sessionId);
+        if (commit != null) {
+            if (commit.owner == Thread.currentThread()) {
+                return commit.state.json;
+            }
+            awaitCommit(sessionId, commit);
+        }
+
+        PendingState pending = pendingStates.get(sessionId);
+        return pending != null ? pending.json : databaseState;
+    }
+
+    /**
+     * Forget journaled state after the session's state was written to the database directly
+     */
+    public void discard(Long sessionId) {
+        pendingStates.remove(sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${gameverse.games.journal.force-interval-ms:100}")
+    public void force() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (active != null) {
+                active.force();
+            }
+        }
+    }
+
+    /**
+     * Write journaled state and moves to the database and drop the segments that are covered
+     */
+    @Scheduled(fixedDelayString = "${gameverse.games.journal.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        // Database writes happen outside the append lock so moves are never blocked on them
+        synchronized (flushLock) {
+            flushPending();
+        }
+    }
+
+    private void flushPending() {
+        // Everything in these segments, and below the mark in the active one, was appended
+        // before the snapshot of pending work below
+        List<JournalSegment> covered;
+        List<Path> coveredRecovered;
+        JournalSegment marked;
+        int mark;
+        synchronized (this) {
+            covered = new ArrayList<>(sealed);
+            coveredRecovered = new ArrayList<>(recovered);
+            marked = active;
+            mark = active.position();
+        }
+
+        List<MoveRecord> moves = new ArrayList<>();
+        MoveRecord move;
+        while ((move = pendingMoves.poll()) != null) {
+            moves.add(move);
+        }
+        List<Map.Entry<Long, PendingState>> states = new ArrayList<>(pendingStates.entrySet());
+
+        try {
+            if (!moves.isEmpty()) {
+                gameReplayService.recordMoves(moves);
+            }
+            if (!states.isEmpty()) {
+                writeStates(states);
+            }
+        } catch (Exception e) {
+            pendingMoves.addAll(moves);
+            logger.warn("Failed to flush game state journal: {}", e.getMessage());
+            return;
+        }
+
+        for (Map.Entry<Long, PendingState> state : states) {
+            pendingStates.remove(state.getKey(), state.getValue());
+        }
+        synchronized (this) {
+            // Recovery replays only what was appended after the mark
+            marked.markFlushed(mark);
+            if (marked == active && active.position() == mark && mark > segmentSize / 2) {
+                // Fully covered and past half way: start a fresh segment here rather than on a move
+                try {
+                    JournalSegment next = openSegment();
+                    covered.add(active);
+                    active = next;
+                } catch (IOException e) {
+                    logger.warn("Failed to roll game state journal: {}", e.getMessage());
+                }
+            }
+        }
+        for (JournalSegment segment : covered) {
+            try {
+                segment.close();
+                Files.deleteIfExists(segment.getPath());
+            } catch (IOException e) {
+                logger.warn("Failed to delete journal segment {}: {}", segment.getPath(), e.getMessage());
+            }
+        }
+        for (Path path : coveredRecovered) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("Failed to delete journal segment {}: {}", path, e.getMessage());
+            }
+        }
+        synchronized (this) {
+            sealed.removeAll(covered);
+            recovered.removeAll(coveredRecovered);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        synchronized (this) {
+            try {
+                active.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close game state journal: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void writeStates(List<Map.Entry<Long, PendingState>> states) {
+        // Whatever the status, a row already holding a later state (saved directly, e.g. on completion) is kept
+        jdbcTemplate.batchUpdate(
+            "UPDATE game_sessions SET game_state = ? WHERE id = ? " +
+            "AND (game_state IS NULL OR COALESCE(JSON_EXTRACT(game_state, '$.moveSeq'), 0) <= ?)",
+            states,
+            states.size(),
+            (ps, state) -> {
+                ps.setString(1, state.getValue().json);
+                ps.setLong(2, state.getKey());
+                ps.setLong(3, state.getValue().serverSeq);
+            }
+        );
+    }
+
+    /**
+     * Write back everything left in the journal by a previous run, then delete it
+     */
+    private void recover(List<Path> segments) throws IOException {
+        Map<Long, PendingState> states = new HashMap<>();
+        List<MoveRecord> moves = new ArrayList<>();
+        for (Path path : segments) {
+            JournalSegment.read(path, payload -> decode(payload, states, moves));
+        }
+
+        try {
+            for (int i = 0; i < moves.size(); i += 500) {
+                gameReplayService.recordMoves(moves.subList(i, Math.min(i + 500, moves.size())));
+            }
+            writeStates(new ArrayList<>(states.entrySet()));
+        } catch (Exception e) {
+            // Serve the journaled state instead of the stale rows; the next flush writes it and retires
+            // the segments, which stay on disk until then. New records go to a later segment.
+            logger.error("Failed to recover game state journal, keeping {} segments: {}", segments.size(), e.getMessage());
+            nextSegment = segmentIndex(segments.get(segments.size() - 1)) + 1;
+            pendingStates.putAll(states);
+            pendingMoves.addAll(moves);
+            synchronized (this) {
+                recovered.addAll(segments);
+            }
+            return;
+        }
+
+        for (Path path : segments) {
+            Files.deleteIfExists(path);
+        }
+        logger.info("Recovered {} sessions and {} moves from game state journal", states.size(), moves.size());
+    }
+
+    /**
+     * Append a committed change to the active segment and make it visible
+     *
+     * @return false if the journal could not take it
+     */
+    private boolean write(StagedRecord staged) {
+        synchronized (this) {
+            try {
+                if (!active.append(staged.record)) {
+                    active.force();
+                    sealed.add(active);
+                    active = openSegment();
+                    active.append(staged.record);
+                }
+            } catch (IOException e) {
+                logger.error("Failed to roll game state journal: {}", e.getMessage());
+                return false;
+            }
+            // Visible to readers only once journaled, so a read never returns state that could be lost
+            pendingStates.merge(staged.sessionId, staged.state,
+                (current, next) -> next.serverSeq >= current.serverSeq ? next : current);
+            if (staged.move != null) {
+                pendingMoves.add(staged.move);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Changes held by the current transaction, registering its commit hooks on first use
+     */
+    private List<StagedRecord> staged() {
+        @SuppressWarnings("unchecked")
+        List<StagedRecord> staged = (List<StagedRecord>) TransactionSynchronizationManager.getResource(this);
+        if (staged != null) {
+            return staged;
+        }
+        List<StagedRecord> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private final Map<Long, Committing> commits = new HashMap<>();
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // Still holding the session's row lock: whoever locks it next waits for the outcome
+                for (StagedRecord record : created) {
+                    Committing commit = new Committing(record.state);
+                    commits.put(record.sessionId, commit);
+                    committing.put(record.sessionId, commit);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(GameStateJournal.this);
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        for (StagedRecord record : created) {
+                            if (!write(record)) {
+                                writeThrough(record);
+                            }
+                        }
+                    }
+                } finally {
+                    commits.forEach((sessionId, commit) -> {
+                        committing.remove(sessionId, commit);
+                        commit.done.countDown();
+                    });
+                }
+            }
+        });
+        return created;
+    }
+
+    private List<StagedRecord> stagedIfBound() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return List.of();
+        }
+        @SuppressWarnings("unchecked")
+        List<StagedRecord> staged = (List<StagedRecord>) TransactionSynchronizationManager.getResource(this);
+        return staged != null ? staged : List.of();
+    }
+
+    private void awaitCommit(Long sessionId, Committing commit) {
+        try {
+            if (!commit.done.await(COMMIT_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                logger.warn("Timed out waiting for the journaled change of session {} to commit", sessionId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Committed change the journal could not take: write it to the database instead
+     */
+    private void writeThrough(StagedRecord record) {
+        try {
+            // The committed transaction's connection may still be bound, so this runs in a new one
+            writeThroughTransaction.executeWithoutResult(tx -> {
+                writeStates(List.of(Map.entry(record.sessionId, record.state)));
+                if (record.move != null) {
+                    gameReplayService.recordMoves(List.of(record.move));
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Lost committed game state of session {}: {}", record.sessionId, e.getMessage());
+        }
+    }
+
+    private JournalSegment openSegment() throws IOException {
+        Path path = Paths.get(directory, String.format("journal-%016d.log", nextSegment++));
+        return JournalSegment.create(path, segmentSize);
+    }
+
+    private static List<Path> listSegments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                .filter(path -> path.getFileName().toString().matches("journal-\\d{16}\\.log"))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private static long segmentIndex(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+    }
+
+    private static byte[] encode(Long sessionId, long serverSeq, String stateJson, MoveRecord move) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(stateJson.length() + 256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(sessionId);
+        out.writeLong(serverSeq);
+        writeString(out, stateJson);
+        out.writeBoolean(move != null);
+        if (move != null) {
+            out.writeLong(move.getPlayerId() != null ? move.getPlayerId() : -1);
+            writeString(out, move.getMoveType());
+            writeString(out, move.getMoveData());
+            writeString(out, move.getStateSnapshot());
+            out.writeLong(move.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void decode(ByteBuffer payload, Map<Long, PendingState> states, List<MoveRecord> moves) {
+        long sessionId = payload.getLong();
+        long serverSeq = payload.getLong();
+        String stateJson = readString(payload);
+        states.merge(sessionId, new PendingState(serverSeq, stateJson),
+            (current, next) -> next.serverSeq >= current.serverSeq ? next : current);
+
+        if (payload.get() != 0) {
+            long playerId = payload.getLong();
+            String moveType = readString(payload);
+            String moveData = readString(payload);
+            String snapshot = readString(payload);
+            LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(payload.getLong()), ZoneId.systemDefault());
+            moves.add(new MoveRecord(sessionId, serverSeq, playerId >= 0 ? playerId : null,
+                moveType, moveData, snapshot, createdAt));
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,89 @@
+package com.gameverse.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Forwards moves, other owner-only session calls and room calls to the owner node over its internal cluster endpoints
+ */
+@Component
+public class HttpClusterTransport implements ClusterTransport {
+
+    public static final String TOKEN_HEADER = "X-Cluster-Token";
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
+
+    @Value("${gameverse.cluster.forward-timeout-ms:5000}")
+    private int forwardTimeoutMs;
+
+    private RestTemplate restTemplate;
+
+    @PostConstruct
+    void init() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(forwardTimeoutMs);
+        requestFactory.setReadTimeout(forwardTimeoutMs);
+        restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @Override
+    public Map<String, Object> forwardMove(String nodeUrl, Long sessionId, Long userId, Map<String, Object> moveData) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("userId", userId);
+        body.put("move", moveData);
+
+        return post(nodeUrl + "/internal/cluster/sessions/" + sessionId + "/moves", body);
+    }
+
+    @Override
+    public Map<String, Object> forwardSessionCall(String nodeUrl, Long sessionId, String operation,
+                                                  Map<String, Object> body) {
+        return post(nodeUrl + "/internal/cluster/sessions/" + sessionId + "/" + operation, body);
+    }
+
+    @Override
+    public Map<String, Object> forwardRoomCall(String nodeUrl, String roomId, String operation,
+                                               Map<String, Object> body) {
+        return post(nodeUrl + "/internal/cluster/rooms/" + roomId + "/" + operation, body);
+    }
+
+    @Override
+    public Map<String, Object> forwardUserCall(String nodeUrl, Long userId, String operation,
+                                               Map<String, Object> body) {
+        return post(nodeUrl + "/internal/cluster/users/" + userId + "/" + operation, body);
+    }
+
+    @Override
+    public void relayBroadcast(String nodeUrl, String destination, Object payload) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("destination", destination);
+        body.put("payload", payload);
+        post(nodeUrl + "/internal/cluster/broadcast", body);
+    }
+
+    private Map<String, Object> post(String url, Map<String, Object> body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(TOKEN_HEADER, sessionOwnershipService.getClusterToken());
+
+        return restTemplate.exchange(
+            url,
+            HttpMethod.POST,
+            new HttpEntity<>(body, headers),
+            new ParameterizedTypeReference<Map<String, Object>>() {}
+        ).getBody();
+    }
+}
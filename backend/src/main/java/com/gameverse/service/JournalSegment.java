@@ -0,0 +1,142 @@
+package com.gameverse.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * One fixed-size, memory-mapped journal file
+ *
+ * The file starts with the flushed watermark, the offset below which every
+ * record is already in the database, followed by records framed as
+ * [magic][length][crc32][payload]. Appending is a copy into the mapping,
+ * which the OS keeps even if the JVM dies; force() makes it durable against
+ * power loss as well. A new file is zero-filled, so reading stops at the
+ * first slot without the magic, and a record torn by a crash fails its
+ * checksum.
+ */
+final class JournalSegment {
+
+    private static final int MAGIC = 0x474A524E;
+    private static final int HEADER_BYTES = 12;
+    // Flushed watermark, padded to keep records aligned
+    private static final int DATA_START = 8;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private boolean dirty;
+
+    private JournalSegment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path path, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.position(DATA_START);
+        return new JournalSegment(path, channel, buffer);
+    }
+
+    /**
+     * Hand every intact record of the file above its flushed watermark to the consumer, in append order
+     */
+    static void read(Path path, Consumer<ByteBuffer> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < DATA_START) {
+                return;
+            }
+            // Files written before the watermark existed start with a record
+            if (buffer.getInt(0) != MAGIC) {
+                int flushed = buffer.getInt(0);
+                buffer.position(flushed >= DATA_START && flushed <= buffer.limit() ? flushed : DATA_START);
+            }
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= HEADER_BYTES && buffer.getInt(buffer.position()) == MAGIC) {
+                buffer.getInt();
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    return;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    return;
+                }
+                consumer.accept(payload);
+                buffer.position(buffer.position() + length);
+            }
+        }
+    }
+
+    /**
+     * @return false if the record does not fit in the rest of the file
+     */
+    boolean append(byte[] payload) {
+        if (buffer.remaining() < HEADER_BYTES + payload.length) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int start = buffer.position();
+
+        // Payload first and magic last, so a reader never sees a header without its record
+        buffer.position(start + HEADER_BYTES);
+        buffer.put(payload);
+        buffer.putInt(start + 4, payload.length);
+        buffer.putInt(start + 8, (int) crc.getValue());
+        buffer.putInt(start, MAGIC);
+        dirty = true;
+        return true;
+    }
+
+    boolean isEmpty() {
+        return buffer.position() == DATA_START;
+    }
+
+    /**
+     * Offset after the last appended record
+     */
+    int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Record durably that everything below the offset is in the database, so recovery skips it
+     */
+    void markFlushed(int offset) {
+        buffer.putInt(0, offset);
+        buffer.force(0, DATA_START);
+    }
+
+    static boolean fits(int segmentSize, byte[] payload) {
+        return HEADER_BYTES + payload.length <= segmentSize;
+    }
+
+    void force() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    Path getPath() {
+        return path;
+    }
+}
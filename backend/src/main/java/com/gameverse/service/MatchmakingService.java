@@ -4,14 +4,27 @@ import com.gameverse.entity.GameSession;
 import com.gameverse.entity.GameParticipant;
 import com.gameverse.entity.User;
 import com.gameverse.entity.Profile;
+import com.gameverse.event.GameSessionCancelledEvent;
+import com.gameverse.event.GameSessionCompletedEvent;
 import com.gameverse.repository.GameSessionRepository;
 import com.gameverse.repository.GameParticipantRepository;
 import com.gameverse.repository.UserRepository;
 import com.gameverse.repository.ProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -23,6 +36,8 @@ import java.util.stream.Collectors;
 @Service
 public class MatchmakingService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MatchmakingService.class);
+
     @Autowired
     private GameSessionRepository gameSessionRepository;
 
@@ -38,10 +53,33 @@ public class MatchmakingService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private TurnClockService turnClockService;
+
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate matchTransaction;
+
     // In-memory queue management (in production, use Redis)
     private final Map<String, Queue<MatchmakingRequest>> gameQueues = new ConcurrentHashMap<>();
     private final Map<Long, MatchmakingRequest> userRequests = new ConcurrentHashMap<>();
 
+    // Matches formed while the node was at capacity, started in order as sessions finish
+    private final Map<String, Queue<List<MatchmakingRequest>>> admissionQueues = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        matchTransaction = new TransactionTemplate(transactionManager);
+        matchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
     public static class MatchmakingRequest {
         private Long userId;
         private String gameType;
@@ -193,12 +231,30 @@ public class MatchmakingService {
 
         // If we have enough players for a match
         if (potentialMatch.size() >= getMinPlayersForGame(gameType)) {
+            Queue<List<MatchmakingRequest>> pending = admissionQueues.get(gameType);
+            boolean waitingMatches = pending != null && !pending.isEmpty();
+
+            // Over capacity the match waits its turn instead of being rejected
+            if (waitingMatches || !admissionControlService.tryAcquire(GameSession.GameType.valueOf(gameType))) {
+                holdForAdmission(gameType, potentialMatch);
+                return;
+            }
             createMatch(potentialMatch);
         }
     }
 
-    @Transactional
+    /**
+     * Create a match's session in its own transaction
+     *
+     * The completion listener runs after the finished game's transaction has
+     * committed, so the match must not join it; every caller gets a fresh one.
+     * The slot bound to the session is released again if it rolls back.
+     */
     private void createMatch(List<MatchmakingRequest> matchedRequests) {
+        matchTransaction.executeWithoutResult(tx -> insertMatch(matchedRequests));
+    }
+
+    private void insertMatch(List<MatchmakingRequest> matchedRequests) {
         if (matchedRequests.isEmpty()) return;
 
         String gameType = matchedRequests.get(0).getGameType();
@@ -214,7 +270,22 @@ public class MatchmakingService {
         session.setPrizePool(BigDecimal.ZERO);
         session.setCreatedAt(LocalDateTime.now());
         
-        session = gameSessionRepository.save(session);
+        try {
+            session = gameSessionRepository.save(session);
+        } catch (RuntimeException e) {
+            admissionControlService.cancel(session.getGameType());
+            throw e;
+        }
+        admissionControlService.bind(session.getId(), session.getGameType());
+        Long sessionId = session.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    admissionControlService.release(sessionId);
+                }
+            }
+        });
 
         // Create participants
         List<MatchedPlayer> players = new ArrayList<>();
@@ -264,6 +335,116 @@ public class MatchmakingService {
         session.setStatus(GameSession.Status.IN_PROGRESS);
         session.setStartedAt(LocalDateTime.now());
         gameSessionRepository.save(session);
+
+        // The first player's turn clock starts with the game, on the node owning the session;
+        // any other node leaves it to the owner, which starts it on the first session info or move
+        if (sessionOwnershipService.isOwner(session.getId())) {
+            List<Long> playerOrder = players.stream()
+                .map(player -> Long.valueOf(player.getId()))
+                .collect(Collectors.toList());
+            turnClockService.start(session.getId(), session.getGameType(), playerOrder,
+                playerOrder.isEmpty() ? null : playerOrder.get(0), null);
+        }
+    }
+
+    private void holdForAdmission(String gameType, List<MatchmakingRequest> match) {
+        Queue<MatchmakingRequest> queue = gameQueues.get(gameType);
+        if (queue != null) {
+            match.forEach(queue::remove);
+        }
+        Queue<List<MatchmakingRequest>> pending = admissionQueues.computeIfAbsent(gameType, k -> new ConcurrentLinkedQueue<>());
+        pending.offer(match);
+        notifyAdmissionDelay(gameType, match, pending.size());
+    }
+
+    /**
+     * Start held matches of a game type while capacity allows
+     */
+    private void drainAdmissionQueue(String gameType) {
+        Queue<List<MatchmakingRequest>> pending = admissionQueues.get(gameType);
+        if (pending == null) {
+            return;
+        }
+        GameSession.GameType type = GameSession.GameType.valueOf(gameType);
+        synchronized (pending) {
+            List<MatchmakingRequest> match;
+            while ((match = pending.peek()) != null) {
+                // Players who left the queue meanwhile drop out of the match
+                match.removeIf(request -> userRequests.get(request.getUserId()) != request);
+                if (match.size() < getMinPlayersForGame(gameType)) {
+                    pending.poll();
+                    match.forEach(gameQueues.computeIfAbsent(gameType, k -> new ConcurrentLinkedQueue<>())::offer);
+                    continue;
+                }
+                if (!admissionControlService.tryAcquire(type)) {
+                    break;
+                }
+                try {
+                    createMatch(match);
+                } catch (RuntimeException e) {
+                    // The slot was given back by the rollback; the players go back to the queue
+                    logger.warn("Failed to start held {} match: {}", gameType, e.getMessage());
+                    pending.poll();
+                    requeue(gameType, match);
+                    break;
+                }
+                pending.poll();
+            }
+        }
+        tryMatchmaking(gameType);
+    }
+
+    /**
+     * Put the players of a match that could not be started back in the matchmaking queue
+     */
+    private void requeue(String gameType, List<MatchmakingRequest> match) {
+        Queue<MatchmakingRequest> queue = gameQueues.computeIfAbsent(gameType, k -> new ConcurrentLinkedQueue<>());
+        for (MatchmakingRequest request : match) {
+            // The rolled back match may already have taken the request out of userRequests
+            MatchmakingRequest current = userRequests.putIfAbsent(request.getUserId(), request);
+            if (current == null || current == request) {
+                queue.offer(request);
+            }
+        }
+    }
+
+    private void notifyAdmissionDelay(String gameType, List<MatchmakingRequest> match, int position) {
+        AdmissionControlService.AdmissionStatus admission =
+            admissionControlService.getStatus(GameSession.GameType.valueOf(gameType));
+        for (MatchmakingRequest request : match) {
+            messagingTemplate.convertAndSendToUser(
+                request.getUserId().toString(),
+                "/queue/matchmaking/backpressure",
+                Map.of(
+                    "message", "Match found - waiting for a free game slot",
+                    "gameType", gameType,
+                    "position", position,
+                    "admission", admission
+                )
+            );
+        }
+    }
+
+    /**
+     * Free the finished session's slot and start the next held match, off the mover's thread
+     */
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionCompleted(GameSessionCompletedEvent event) {
+        releaseAndDrain(event.getSessionId());
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionCancelled(GameSessionCancelledEvent event) {
+        releaseAndDrain(event.getSessionId());
+    }
+
+    private void releaseAndDrain(Long sessionId) {
+        GameSession.GameType gameType = admissionControlService.release(sessionId);
+        if (gameType != null) {
+            drainAdmissionQueue(gameType.name());
+        }
     }
 
     private boolean canMatchPlayers(MatchmakingRequest player1, MatchmakingRequest player2) {
@@ -337,6 +518,16 @@ public class MatchmakingService {
 
     // Scheduled method to handle queue timeouts and expanded searches
     public void processQueueTimeouts() {
+        // Held matches wait for capacity, not for players, so they never time out;
+        // retry them (slots may have been reclaimed) and refresh their positions
+        for (Map.Entry<String, Queue<List<MatchmakingRequest>>> entry : admissionQueues.entrySet()) {
+            drainAdmissionQueue(entry.getKey());
+            int position = 1;
+            for (List<MatchmakingRequest> match : entry.getValue()) {
+                notifyAdmissionDelay(entry.getKey(), match, position++);
+            }
+        }
+
         LocalDateTime cutoff = LocalDateTime.now().minusMinutes(1); // 1 minute timeout
         
         for (Map.Entry<String, Queue<MatchmakingRequest>> entry : gameQueues.entrySet()) {
@@ -0,0 +1,128 @@
+package com.gameverse.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Duplicate detection for client move sequence numbers
+ *
+ * Each player of a session has a sliding window over the last 64 client
+ * sequence numbers: the highest number seen plus a bitmask of which numbers
+ * below it have been used, and the server sequence each one was applied as.
+ * A retried move is recognised with a couple of bit operations and answered
+ * with the original server sequence instead of being applied again.
+ */
+@Service
+public class MoveSequenceService {
+
+    private static final int WINDOW = 64;
+
+    private final Map<Long, Map<Long, SequenceWindow>> windows = new ConcurrentHashMap<>();
+
+    public enum Status {
+        /** First time this sequence number is seen; process the move */
+        NEW,
+        /** Already applied or in flight; do not process again */
+        DUPLICATE,
+        /** Older than the window; cannot be told apart from a duplicate, so dropped */
+        STALE
+    }
+
+    public static class Registration {
+        private final Status status;
+        private final Long serverSeq;
+
+        public Registration(Status status, Long serverSeq) {
+            this.status = status;
+            this.serverSeq = serverSeq;
+        }
+
+        // Getters
+        public Status getStatus() { return status; }
+        public Long getServerSeq() { return serverSeq; }
+    }
+
+    private static class SequenceWindow {
+        private long highest;
+        private long seen;
+        private final long[] serverSeqs = new long[WINDOW];
+    }
+
+    /**
+     * Claim a client sequence number before processing the move
+     */
+    public Registration register(Long sessionId, Long playerId, long clientSeq) {
+        if (clientSeq <= 0) {
+            throw new RuntimeException("Invalid sequence number");
+        }
+        SequenceWindow window = windows.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+            .computeIfAbsent(playerId, id -> new SequenceWindow());
+
+        synchronized (window) {
+            int slot = (int) (clientSeq & (WINDOW - 1));
+            if (clientSeq > window.highest) {
+                long shift = clientSeq - window.highest;
+                window.seen = shift >= WINDOW ? 1L : (window.seen << shift) | 1L;
+                window.highest = clientSeq;
+                window.serverSeqs[slot] = 0;
+                return new Registration(Status.NEW, null);
+            }
+
+            long offset = window.highest - clientSeq;
+            if (offset >= WINDOW) {
+                return new Registration(Status.STALE, null);
+            }
+            long bit = 1L << offset;
+            if ((window.seen & bit) != 0) {
+                long serverSeq = window.serverSeqs[slot];
+                return new Registration(Status.DUPLICATE, serverSeq > 0 ? serverSeq : null);
+            }
+            window.seen |= bit;
+            window.serverSeqs[slot] = 0;
+            return new Registration(Status.NEW, null);
+        }
+    }
+
+    /**
+     * Remember the server sequence the move was applied as, for acks to retries
+     */
+    public void complete(Long sessionId, Long playerId, long clientSeq, long serverSeq) {
+        SequenceWindow window = getWindow(sessionId, playerId);
+        if (window == null) {
+            return;
+        }
+        synchronized (window) {
+            long offset = window.highest - clientSeq;
+            if (offset >= 0 && offset < WINDOW) {
+                window.serverSeqs[(int) (clientSeq & (WINDOW - 1))] = serverSeq;
+            }
+        }
+    }
+
+    /**
+     * Release a claimed sequence number whose move failed, so a retry is processed
+     */
+    public void abort(Long sessionId, Long playerId, long clientSeq) {
+        SequenceWindow window = getWindow(sessionId, playerId);
+        if (window == null) {
+            return;
+        }
+        synchronized (window) {
+            long offset = window.highest - clientSeq;
+            if (offset >= 0 && offset < WINDOW) {
+                window.seen &= ~(1L << offset);
+            }
+        }
+    }
+
+    public void release(Long sessionId) {
+        windows.remove(sessionId);
+    }
+
+    private SequenceWindow getWindow(Long sessionId, Long playerId) {
+        Map<Long, SequenceWindow> players = windows.get(sessionId);
+        return players != null ? players.get(playerId) : null;
+    }
+}
@@ -0,0 +1,94 @@
+package com.gameverse.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Room broadcasts for subscribers on every node
+ *
+ * Room changes happen on the room's owner node, but its subscribers may be
+ * connected to any node, each with its own in-memory broker. The owner sends
+ * to its own subscribers and relays each broadcast to every other node off
+ * the caller's thread, one queue per peer so a room's messages arrive in
+ * order. A peer that is down or too far behind loses broadcasts; its clients
+ * catch up through the history and participant snapshot endpoints.
+ */
+@Service
+public class RoomBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomBroadcaster.class);
+
+    private static final String ROOM_TOPIC_PREFIX = "/topic/room/";
+    private static final int RELAY_QUEUE_CAPACITY = 10000;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
+
+    @Autowired
+    private ClusterTransport clusterTransport;
+
+    private final Map<String, ExecutorService> relays = new ConcurrentHashMap<>();
+
+    /**
+     * Send to this node's subscribers and relay to every other node
+     */
+    public void broadcast(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+        for (String peerUrl : sessionOwnershipService.getPeerUrls()) {
+            try {
+                relays.computeIfAbsent(peerUrl, url -> newRelay()).execute(() -> relay(peerUrl, destination, payload));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Relay queue to {} is full, dropped broadcast to {}", peerUrl, destination);
+            }
+        }
+    }
+
+    /**
+     * Deliver a broadcast relayed by a room's owner to this node's subscribers
+     *
+     * @throws IllegalArgumentException if the destination is not a room topic
+     */
+    public void deliver(String destination, Object payload) {
+        if (destination == null || !destination.startsWith(ROOM_TOPIC_PREFIX)) {
+            throw new IllegalArgumentException("Not a room topic: " + destination);
+        }
+        messagingTemplate.convertAndSend(destination, payload);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relays.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    private void relay(String peerUrl, String destination, Object payload) {
+        try {
+            clusterTransport.relayBroadcast(peerUrl, destination, payload);
+        } catch (Exception e) {
+            logger.warn("Failed to relay broadcast to {} via {}: {}", destination, peerUrl, e.getMessage());
+        }
+    }
+
+    private static ExecutorService newRelay() {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(RELAY_QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "room-broadcast-relay");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+}
@@ -0,0 +1,229 @@
+package com.gameverse.service;
+
+import com.gameverse.dto.response.RoomResponse;
+import com.gameverse.entity.Room;
+import com.gameverse.repository.RoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory search over active room names and descriptions for the lobby
+ *
+ * Every active room is indexed by the trigrams of its lowercased name and
+ * description. A query intersects the posting sets of its own trigrams and
+ * confirms each candidate with a substring check; queries shorter than a
+ * trigram scan the in-memory entries instead. Matches are ranked by the live
+ * occupancy from the room registry for rooms this node owns, and by the
+ * count read at the last rebuild for rooms owned elsewhere, so a search
+ * never touches the database.
+ *
+ * Rooms created on this node are added immediately. The whole index is
+ * rebuilt from the database periodically and after bulk deactivation, which
+ * picks up rooms created or closed elsewhere.
+ */
+@Service
+public class RoomDiscoveryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomDiscoveryIndex.class);
+
+    private static final int GRAM = 3;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomRegistry roomRegistry;
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
+
+    @Value("${gameverse.rooms.search.max-results:20}")
+    private int maxResults;
+
+    private volatile Index index = new Index();
+
+    private static class Entry {
+        private final String id;
+        private final String name;
+        private final String description;
+        private final int maxCapacity;
+        private final LocalDateTime createdAt;
+        // rooms.current_count as read; includes seats leased by the owner but not yet taken
+        private final int currentCount;
+        private final String searchName;
+        private final String searchDescription;
+
+        Entry(String id, String name, String description, int maxCapacity, LocalDateTime createdAt, int currentCount) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.maxCapacity = maxCapacity;
+            this.createdAt = createdAt;
+            this.currentCount = currentCount;
+            this.searchName = normalize(name);
+            this.searchDescription = normalize(description);
+        }
+
+        boolean matches(String query) {
+            return searchName.contains(query) || searchDescription.contains(query);
+        }
+    }
+
+    /**
+     * Entries and trigram postings; replaced as a whole on rebuild
+     */
+    private static class Index {
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+
+        void add(Entry entry) {
+            entries.put(entry.id, entry);
+            for (String gram : grams(entry.searchName, entry.searchDescription)) {
+                postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(entry.id);
+            }
+        }
+    }
+
+    /**
+     * Rebuild the index from the active rooms in the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${gameverse.rooms.search.refresh-interval-ms:60000}",
+               initialDelayString = "${gameverse.rooms.search.refresh-interval-ms:60000}")
+    public void rebuild() {
+        try {
+            Index rebuilt = new Index();
+            for (Object[] row : roomRepository.findActiveRoomRows()) {
+                rebuilt.add(new Entry((String) row[0], (String) row[1], (String) row[2],
+                    (Integer) row[3], (LocalDateTime) row[4], row[5] != null ? (Integer) row[5] : 0));
+            }
+            index = rebuilt;
+        } catch (Exception e) {
+            logger.warn("Failed to rebuild room search index: {}", e.getMessage());
+        }
+    }
+
+    public void add(Room room) {
+        index.add(new Entry(room.getId(), room.getName(), room.getDescription(),
+            room.getMaxCapacity(), room.getCreatedAt(), room.getCurrentCount() != null ? room.getCurrentCount() : 0));
+    }
+
+    /**
+     * An active room with its live occupancy, or null if the index does not have it
+     */
+    public RoomResponse get(String roomId) {
+        Entry entry = index.entries.get(roomId);
+        return entry != null ? toResponse(entry, countOf(entry)) : null;
+    }
+
+    /**
+     * Active rooms whose name or description contains the search term, fullest first
+     */
+    public List<RoomResponse> search(String searchTerm) {
+        String query = normalize(searchTerm);
+        Index current = index;
+
+        Collection<Entry> candidates;
+        if (query.length() < GRAM) {
+            candidates = current.entries.values();
+        } else {
+            candidates = new ArrayList<>();
+            for (String roomId : intersect(current, query)) {
+                Entry entry = current.entries.get(roomId);
+                if (entry != null) {
+                    candidates.add(entry);
+                }
+            }
+        }
+
+        List<Entry> matches = new ArrayList<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (Entry entry : candidates) {
+            if (entry.matches(query)) {
+                matches.add(entry);
+                counts.put(entry.id, countOf(entry));
+            }
+        }
+        matches.sort(Comparator.comparing((Entry entry) -> counts.get(entry.id)).reversed()
+            .thenComparing(entry -> entry.createdAt, Comparator.nullsLast(Comparator.reverseOrder())));
+
+        List<RoomResponse> results = new ArrayList<>();
+        for (Entry entry : matches.subList(0, Math.min(maxResults, matches.size()))) {
+            results.add(toResponse(entry, counts.get(entry.id)));
+        }
+        return results;
+    }
+
+    /**
+     * Live occupancy of an owned room; other nodes' rooms are only held by their owner's registry
+     */
+    private int countOf(Entry entry) {
+        return sessionOwnershipService.isRoomOwner(entry.id) ? roomRegistry.getCount(entry.id) : entry.currentCount;
+    }
+
+    /**
+     * Rooms having every trigram of the query, smallest posting set first
+     */
+    private static Set<String> intersect(Index index, String query) {
+        List<Set<String>> sets = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Set<String> rooms = index.postings.get(gram);
+            if (rooms == null) {
+                return Set.of();
+            }
+            sets.add(rooms);
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+        Set<String> result = new HashSet<>(sets.get(0));
+        for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+            result.retainAll(sets.get(i));
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String... texts) {
+        Set<String> grams = new HashSet<>();
+        for (String text : texts) {
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                grams.add(text.substring(i, i + GRAM));
+            }
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static RoomResponse toResponse(Entry entry, int currentCount) {
+        RoomResponse response = new RoomResponse();
+        response.setId(entry.id);
+        response.setName(entry.name);
+        response.setDescription(entry.description);
+        response.setMaxCapacity(entry.maxCapacity);
+        response.setCurrentCount(currentCount);
+        response.setAvailableSpots(Math.max(0, entry.maxCapacity - currentCount));
+        response.setIsActive(true);
+        response.setIsFull(currentCount >= entry.maxCapacity);
+        response.setCreatedAt(entry.createdAt);
+        return response;
+    }
+}
@@ -0,0 +1,186 @@
+package com.gameverse.service;
+
+import com.gameverse.repository.ChatMessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest chat messages of each open room, ready to send
+ *
+ * Every room has a ring of its most recent messages as rendered responses. A
+ * ring is warmed from the database with a single query the first time the room
+ * is read and is then kept current by the send path, so opening a room costs
+ * no query and no per-message profile lookups. Rings of rooms nobody has
+ * touched for a while are dropped.
+ *
+ * Only the room's owner node reads and appends (see RoomRoutingService), so
+ * every message sent to the room passes through its ring and the ring has no
+ * gaps. A ring left behind when the room moves to another node would miss
+ * that node's messages, so it is dropped and warmed again from the database
+ * if the room comes back.
+ */
+@Service
+public class RoomMessageCache {
+
+    public static final int CAPACITY = 50;
+
+    @Autowired
+    private ChatMessageRepository messageRepository;
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
+
+    private final Map<String, MessageRing> rings = new ConcurrentHashMap<>();
+
+    /**
+     * Fixed-size ring, oldest entry overwritten first; guarded by its own lock
+     */
+    private static class MessageRing {
+        private final RoomService.MessageResponse[] entries = new RoomService.MessageResponse[CAPACITY];
+        private int next;
+        private int size;
+        private boolean warmed;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        void add(RoomService.MessageResponse message) {
+            entries[next] = message;
+            next = (next + 1) % CAPACITY;
+            size = Math.min(size + 1, CAPACITY);
+        }
+
+        List<RoomService.MessageResponse> newestFirst(int limit) {
+            int count = Math.min(limit, size);
+            List<RoomService.MessageResponse> messages = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                messages.add(entries[(next - i + CAPACITY) % CAPACITY]);
+            }
+            return messages;
+        }
+    }
+
+    /**
+     * Add a message that was just sent
+     */
+    public void append(String roomId, RoomService.MessageResponse message) {
+        MessageRing ring = rings.computeIfAbsent(roomId, id -> new MessageRing());
+        synchronized (ring) {
+            ring.add(message);
+        }
+        ring.lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * Latest messages of the room, newest first
+     *
+     * @param limit Number of messages, at most CAPACITY
+     */
+    public List<RoomService.MessageResponse> getRecent(String roomId, int limit) {
+        MessageRing ring = warmedRing(roomId);
+        synchronized (ring) {
+            return ring.newestFirst(limit);
+        }
+    }
+
+    /**
+     * Cached messages older than a message, newest first
+     *
+     * The owner's ring holds the latest messages of the room without gaps, so these
+     * are the newest messages before the cursor even if there are fewer than limit.
+     */
+    public List<RoomService.MessageResponse> getBefore(String roomId, long beforeId, int limit) {
+        MessageRing ring = warmedRing(roomId);
+        List<RoomService.MessageResponse> messages = new ArrayList<>();
+        synchronized (ring) {
+            for (RoomService.MessageResponse message : ring.newestFirst(ring.size)) {
+                if (messages.size() == limit) {
+                    break;
+                }
+                if (message.getId() < beforeId) {
+                    messages.add(message);
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Cached messages newer than a message, oldest first
+     *
+     * @return null if the ring does not reach back to the cursor, so messages may be missing
+     */
+    public List<RoomService.MessageResponse> getAfter(String roomId, long afterId, int limit) {
+        MessageRing ring = warmedRing(roomId);
+        List<RoomService.MessageResponse> newer = new ArrayList<>();
+        synchronized (ring) {
+            boolean covered = false;
+            for (RoomService.MessageResponse message : ring.newestFirst(ring.size)) {
+                if (message.getId() <= afterId) {
+                    covered = true;
+                    break;
+                }
+                newer.add(message);
+            }
+            if (!covered) {
+                return null;
+            }
+        }
+        Collections.reverse(newer);
+        return newer.size() > limit ? new ArrayList<>(newer.subList(0, limit)) : newer;
+    }
+
+    /**
+     * Drop rings of rooms not read or written since the cutoff, and of rooms this node no longer owns
+     */
+    public void evictIdle(long cutoffMillis) {
+        rings.entrySet().removeIf(entry -> entry.getValue().lastAccess < cutoffMillis
+            || !sessionOwnershipService.isRoomOwner(entry.getKey()));
+    }
+
+    private MessageRing warmedRing(String roomId) {
+        MessageRing ring = rings.computeIfAbsent(roomId, id -> new MessageRing());
+        ring.lastAccess = System.currentTimeMillis();
+        synchronized (ring) {
+            if (ring.warmed) {
+                return ring;
+            }
+        }
+
+        // Queried outside the lock; sends that land meanwhile are merged in by id
+        List<RoomService.MessageResponse> loaded = loadRecent(roomId);
+        synchronized (ring) {
+            if (!ring.warmed) {
+                TreeMap<Long, RoomService.MessageResponse> byId = new TreeMap<>();
+                for (RoomService.MessageResponse message : loaded) {
+                    byId.put(message.getId(), message);
+                }
+                for (RoomService.MessageResponse message : ring.newestFirst(ring.size)) {
+                    byId.put(message.getId(), message);
+                }
+                ring.next = 0;
+                ring.size = 0;
+                // Message ids are time ordered, so id order is send order
+                for (RoomService.MessageResponse message : byId.values()) {
+                    ring.add(message);
+                }
+                ring.warmed = true;
+            }
+        }
+        return ring;
+    }
+
+    private List<RoomService.MessageResponse> loadRecent(String roomId) {
+        List<RoomService.MessageResponse> messages = new ArrayList<>();
+        for (Object[] row : messageRepository.findRecentMessageRows(roomId, PageRequest.of(0, CAPACITY))) {
+            messages.add(RoomService.MessageResponse.fromRow(row));
+        }
+        return messages;
+    }
+}
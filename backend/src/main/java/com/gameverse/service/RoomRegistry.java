@@ -0,0 +1,735 @@
+package com.gameverse.service;
+
+import com.gameverse.dto.response.RoomParticipantResponse;
+import com.gameverse.entity.Room;
+import com.gameverse.repository.RoomParticipantRepository;
+import com.gameverse.repository.RoomRepository;
+import com.gameverse.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory membership of the rooms this node owns
+ *
+ * Each room is held by its owner node only (see RoomRoutingService), which
+ * decides leaves and activity without touching the database: the room keeps
+ * its members and count in memory and every user maps to the one room they
+ * are in among the rooms held here. Changes are queued and written to
+ * room_participants in batches by a background flush. Active memberships of
+ * owned rooms are loaded once at startup; other rooms are loaded on first use.
+ *
+ * Capacity is gated by rooms.current_count, so a room whose owner changes
+ * with the membership list is not overfilled while the previous owner still
+ * holds it. A node leases seats from it in blocks, one conditional update per
+ * block, and joins take a leased seat by CAS. Seats freed by leaves go back
+ * to the room's lease, and the flush gives every unused leased seat back.
+ */
+@Service
+public class RoomRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomRegistry.class);
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomParticipantRepository participantRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
+
+    @Value("${gameverse.rooms.seat-lease-block:8}")
+    private int seatLeaseBlock;
+
+    private final Map<String, RoomState> rooms = new ConcurrentHashMap<>();
+    private final Map<Long, String> userRooms = new ConcurrentHashMap<>();
+
+    private final Queue<MembershipChange> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final Set<String> dirtyRooms = ConcurrentHashMap.newKeySet();
+    // Seats to give back per room: unused leased seats and leaves of loaded members
+    private final Map<String, Integer> releasedSeats = new ConcurrentHashMap<>();
+    // Changes of a failed flush; only the flush touches it
+    private final Map<String, MembershipChange> unflushed = new LinkedHashMap<>();
+
+    // A user's join, move and leave run under the user's stripe, so one user is never in two rooms
+    private static final int USER_LOCK_STRIPES = 256;
+    private final Object[] userLocks = new Object[USER_LOCK_STRIPES];
+    {
+        for (int i = 0; i < USER_LOCK_STRIPES; i++) {
+            userLocks[i] = new Object();
+        }
+    }
+
+    // Count of a room dropped from the registry; joins that see it reload the room
+    private static final int EVICTED = -1;
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    // Rooms with no seat leased or released for this long have every join written, so their rows can be counted
+    private static final int RECONCILE_QUIET_SECONDS = 60;
+
+    /**
+     * Live state of one room
+     *
+     * The count is the number of members held here. A join bumps it by CAS
+     * before taking its seat, so a room cannot be evicted while a join is
+     * in flight. Spare counts seats leased from rooms.current_count that no
+     * member holds; a new block is leased under the room's monitor.
+     */
+    private static class RoomState {
+        private final String roomId;
+        private final boolean active;
+        private final Map<Long, Member> members = new ConcurrentHashMap<>();
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicInteger spare = new AtomicInteger();
+        // Seeded from the clock so a room reloaded after eviction never repeats a version
+        private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+        RoomState(String roomId, boolean active) {
+            this.roomId = roomId;
+            this.active = active;
+        }
+
+        /**
+         * @return false if the room was evicted
+         */
+        boolean tryClaimSlot() {
+            while (true) {
+                int current = count.get();
+                if (current == EVICTED) {
+                    return false;
+                }
+                if (count.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    public static class Member {
+        private final Long userId;
+        private final String displayName;
+        private final String avatarId;
+        private final LocalDateTime joinedAt;
+        // Epoch millis; a heartbeat is a single volatile write, no allocation
+        private volatile long lastActivity;
+        private volatile boolean activityDirty;
+        // Joined through this node on a leased seat; members loaded from the database may be another node's
+        private final boolean seated;
+
+        public Member(Long userId, String displayName, String avatarId, LocalDateTime joinedAt, LocalDateTime lastActivity) {
+            this(userId, displayName, avatarId, joinedAt, lastActivity, false);
+        }
+
+        Member(Long userId, String displayName, String avatarId, LocalDateTime joinedAt, LocalDateTime lastActivity,
+               boolean seated) {
+            this.userId = userId;
+            this.displayName = displayName;
+            this.avatarId = avatarId;
+            this.joinedAt = joinedAt;
+            this.lastActivity = lastActivity != null ? Timestamp.valueOf(lastActivity).getTime() : System.currentTimeMillis();
+            this.seated = seated;
+        }
+
+        public RoomParticipantResponse toResponse() {
+            return new RoomParticipantResponse(userId, displayName, avatarId, joinedAt, getLastActivity());
+        }
+
+        // Getters
+        public Long getUserId() { return userId; }
+        public String getDisplayName() { return displayName; }
+        public String getAvatarId() { return avatarId; }
+        public LocalDateTime getJoinedAt() { return joinedAt; }
+        public LocalDateTime getLastActivity() { return new Timestamp(lastActivity).toLocalDateTime(); }
+    }
+
+    /**
+     * A join, a leave or the idle removals of one sweep, with the room version it produced
+     */
+    public static class MembershipEvent {
+        private final String roomId;
+        private final long version;
+        private final List<Member> members;
+        private final MembershipEvent left;
+
+        MembershipEvent(String roomId, long version, List<Member> members) {
+            this(roomId, version, members, null);
+        }
+
+        MembershipEvent(String roomId, long version, List<Member> members, MembershipEvent left) {
+            this.roomId = roomId;
+            this.version = version;
+            this.members = members;
+            this.left = left;
+        }
+
+        // Getters
+        public String getRoomId() { return roomId; }
+        public long getVersion() { return version; }
+        public Member getMember() { return members.get(0); }
+        public List<Member> getMembers() { return members; }
+        /** Leave of the room the user moved out of on a join, or null */
+        public MembershipEvent getLeft() { return left; }
+    }
+
+    /**
+     * Members of a room as of a version
+     */
+    public static class Snapshot {
+        private final long version;
+        private final List<Member> members;
+
+        Snapshot(long version, List<Member> members) {
+            this.version = version;
+            this.members = members;
+        }
+
+        // Getters
+        public long getVersion() { return version; }
+        public List<Member> getMembers() { return members; }
+    }
+
+    private static class MembershipChange {
+        private final String roomId;
+        private final Long userId;
+        private final boolean active;
+        private final LocalDateTime joinedAt;
+        private final LocalDateTime at;
+        // Leave of a loaded member: its seat is given back only if the write finds the row still active
+        private final boolean releasesSeat;
+
+        MembershipChange(String roomId, Long userId, boolean active, LocalDateTime joinedAt, LocalDateTime at,
+                         boolean releasesSeat) {
+            this.roomId = roomId;
+            this.userId = userId;
+            this.active = active;
+            this.joinedAt = joinedAt;
+            this.at = at;
+            this.releasesSeat = releasesSeat;
+        }
+    }
+
+    /**
+     * Load every active membership of the rooms this node owns
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveMemberships() {
+        try {
+            Map<String, List<Object[]>> byRoom = new HashMap<>();
+            for (Object[] row : participantRepository.findActiveMemberRows()) {
+                if (!sessionOwnershipService.isRoomOwner((String) row[0])) {
+                    continue;
+                }
+                byRoom.computeIfAbsent((String) row[0], id -> new ArrayList<>()).add(row);
+            }
+            byRoom.forEach((roomId, rows) -> rooms.computeIfAbsent(roomId, id -> loadRoom(id, rows)));
+            logger.info("Room registry: {} users in {} rooms at startup", userRooms.size(), rooms.size());
+        } catch (Exception e) {
+            logger.warn("Failed to load room memberships: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Add the user to the room, leaving the room they were in
+     *
+     * The move is atomic per user: concurrent joins of one user are applied one
+     * after the other, so the user always ends up in exactly one room.
+     *
+     * @return The join, with the new member and the leave of the previous room, if any
+     * @throws IllegalArgumentException if the room is full or inactive, or the user is already in it
+     */
+    public MembershipEvent join(String roomId, Long userId) {
+        // Identity is read before taking any lock
+        Member previous = findMember(userId);
+        Member member;
+        LocalDateTime now = LocalDateTime.now();
+        if (previous != null) {
+            member = new Member(userId, previous.displayName, previous.avatarId, now, now, true);
+        } else {
+            List<Object[]> rows = userRepository.findMemberInfoRows(userId);
+            if (rows.isEmpty()) {
+                throw new RuntimeException("User not found: " + userId);
+            }
+            member = new Member(userId, (String) rows.get(0)[1], (String) rows.get(0)[2], now, now, true);
+        }
+
+        synchronized (userLock(userId)) {
+            while (true) {
+                RoomState room = getRoomState(roomId);
+                if (room.members.containsKey(userId)) {
+                    throw new IllegalArgumentException("User is already in this room");
+                }
+                if (!room.active) {
+                    throw new IllegalArgumentException("Room is not accepting new participants (full or inactive)");
+                }
+                if (!room.tryClaimSlot()) {
+                    continue;
+                }
+                boolean seated;
+                try {
+                    seated = takeSeat(room);
+                } catch (RuntimeException e) {
+                    room.count.decrementAndGet();
+                    throw e;
+                }
+                if (!seated) {
+                    room.count.decrementAndGet();
+                    throw new IllegalArgumentException("Room is not accepting new participants (full or inactive)");
+                }
+                if (room.members.putIfAbsent(userId, member) != null) {
+                    room.count.decrementAndGet();
+                    room.spare.incrementAndGet();
+                    throw new IllegalArgumentException("User is already in this room");
+                }
+                String previousRoomId = userRooms.put(userId, roomId);
+                recordJoin(room, member, now);
+                long version = room.version.incrementAndGet();
+
+                // Users can only be in one room at a time
+                MembershipEvent left = previousRoomId != null ? removeMember(previousRoomId, userId, now) : null;
+                return new MembershipEvent(roomId, version, List.of(member), left);
+            }
+        }
+    }
+
+    /**
+     * Remove the user from the room
+     *
+     * @return The leave, or null if the user was not in the room
+     */
+    public MembershipEvent leave(String roomId, Long userId) {
+        synchronized (userLock(userId)) {
+            return removeMember(roomId, userId, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Room the user is currently in, or null
+     */
+    public String getCurrentRoom(Long userId) {
+        return userRooms.get(userId);
+    }
+
+    /**
+     * Current number of members held here; 0 for rooms not held in memory
+     */
+    public int getCount(String roomId) {
+        RoomState room = rooms.get(roomId);
+        return room != null ? Math.max(room.count.get(), 0) : 0;
+    }
+
+    public boolean isMember(String roomId, Long userId) {
+        RoomState room = rooms.get(roomId);
+        if (room == null) {
+            return false;
+        }
+        return room.members.containsKey(userId);
+    }
+
+    /**
+     * Record activity of a member
+     *
+     * @return The member, or null if the user is not in the room
+     */
+    public Member touch(String roomId, Long userId) {
+        RoomState room = rooms.get(roomId);
+        if (room == null) {
+            return null;
+        }
+        Member member = room.members.get(userId);
+        if (member == null) {
+            return null;
+        }
+        member.lastActivity = System.currentTimeMillis();
+        if (!member.activityDirty) {
+            member.activityDirty = true;
+        }
+        return member;
+    }
+
+    /**
+     * Members of the room in join order
+     */
+    public List<Member> getMembers(String roomId) {
+        return getSnapshot(roomId).members;
+    }
+
+    /**
+     * Members of the room in join order, with the version they reflect
+     *
+     * Retried until no change lands while copying. A change whose member update
+     * is visible before its version is reported again as a delta, which clients
+     * apply idempotently.
+     */
+    public Snapshot getSnapshot(String roomId) {
+        RoomState room = getRoomState(roomId);
+        while (true) {
+            long version = room.version.get();
+            List<Member> members = new ArrayList<>(room.members.values());
+            if (room.version.get() == version) {
+                members.sort(Comparator.comparing(Member::getJoinedAt));
+                return new Snapshot(version, members);
+            }
+        }
+    }
+
+    /**
+     * Remove members idle since before the threshold
+     *
+     * @return One event per affected room, holding all of its removed members under a single version
+     */
+    public List<MembershipEvent> removeIdleMembers(LocalDateTime threshold) {
+        List<MembershipEvent> removed = new ArrayList<>();
+        long cutoff = Timestamp.valueOf(threshold).getTime();
+        LocalDateTime now = LocalDateTime.now();
+        for (RoomState room : rooms.values()) {
+            List<Member> idle = new ArrayList<>();
+            for (Member member : room.members.values()) {
+                if (member.lastActivity < cutoff && room.members.remove(member.userId, member)) {
+                    userRooms.remove(member.userId, room.roomId);
+                    recordLeave(room, member, now);
+                    room.count.decrementAndGet();
+                    idle.add(member);
+                }
+            }
+            if (!idle.isEmpty()) {
+                removed.add(new MembershipEvent(room.roomId, room.version.incrementAndGet(), idle));
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Drop empty rooms from memory so changes made to them in the database are picked up
+     */
+    public synchronized void evictEmptyRooms() {
+        for (RoomState room : rooms.values()) {
+            // Claiming the zero count means no join can slip in between the check and the removal;
+            // a room still holding leased seats waits for the flush to give them back
+            if (!dirtyRooms.contains(room.roomId) && room.spare.get() == 0 && room.count.compareAndSet(0, EVICTED)) {
+                rooms.remove(room.roomId, room);
+            }
+        }
+    }
+
+    /**
+     * Write queued membership changes and give back released and unused leased seats
+     */
+    @Scheduled(fixedDelay = 1000)
+    public synchronized void flush() {
+        // Only the latest change per membership matters; changes of a failed flush are older than anything queued since
+        Map<String, MembershipChange> latest = new LinkedHashMap<>(unflushed);
+        unflushed.clear();
+        MembershipChange change;
+        while ((change = pendingChanges.poll()) != null) {
+            latest.put(change.roomId + ":" + change.userId, change);
+        }
+        List<String> roomIds = new ArrayList<>(dirtyRooms);
+        roomIds.forEach(dirtyRooms::remove);
+
+        try {
+            writeMemberships(new ArrayList<>(latest.values()));
+        } catch (Exception e) {
+            unflushed.putAll(latest);
+            dirtyRooms.addAll(roomIds);
+            logger.warn("Failed to persist room memberships: {}", e.getMessage());
+        }
+        for (RoomState room : rooms.values()) {
+            int spare = room.spare.getAndSet(0);
+            if (spare > 0) {
+                releasedSeats.merge(room.roomId, spare, Integer::sum);
+            }
+        }
+        writeReleasedSeats();
+    }
+
+    /**
+     * Write the latest activity of members active since the last run
+     *
+     * Heartbeats only stamp the member in memory, so however often a client
+     * beats, each member costs at most one row update per interval.
+     */
+    @Scheduled(fixedDelayString = "${gameverse.rooms.activity-flush-interval-ms:5000}")
+    public synchronized void flushActivity() {
+        List<Object[]> rows = new ArrayList<>();
+        List<Member> flushed = new ArrayList<>();
+        for (RoomState room : rooms.values()) {
+            for (Member member : room.members.values()) {
+                if (member.activityDirty) {
+                    // Cleared before reading the stamp, so a heartbeat landing now is written next time
+                    member.activityDirty = false;
+                    flushed.add(member);
+                    rows.add(new Object[] { new Timestamp(member.lastActivity), room.roomId, member.userId });
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            batchUpdate(
+                "UPDATE room_participants SET last_activity = ? WHERE room_id = ? AND user_id = ? AND is_active = TRUE",
+                rows);
+        } catch (Exception e) {
+            flushed.forEach(member -> member.activityDirty = true);
+            logger.warn("Failed to persist room activity: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recount rooms.current_count from the active rows of quiet rooms
+     *
+     * Seats drift when a change is lost, e.g. the leave of a loaded member
+     * superseded by a rejoin before it was written, or a failed release that
+     * died with its node. Only rooms untouched for a while are
+     * recounted, as a fresh join has its seat before its row. The count is
+     * taken from the table, never from this node's partial view, so any node
+     * may run it.
+     */
+    @Scheduled(fixedDelayString = "${gameverse.rooms.cleanup-interval:300000}")
+    public void reconcileCounts() {
+        try {
+            int updated = jdbcTemplate.update(
+                "UPDATE rooms r SET r.current_count = " +
+                "(SELECT COUNT(*) FROM room_participants rp WHERE rp.room_id = r.id AND rp.is_active = TRUE) " +
+                "WHERE r.is_active = TRUE AND r.updated_at < NOW() - INTERVAL ? SECOND",
+                RECONCILE_QUIET_SECONDS);
+            if (updated > 0) {
+                logger.info("Reconciled participant counts of {} rooms", updated);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to reconcile room counts: {}", e.getMessage());
+        }
+    }
+
+    private void writeMemberships(List<MembershipChange> changes) {
+        List<MembershipChange> joins = changes.stream().filter(c -> c.active).toList();
+        List<MembershipChange> leaves = changes.stream().filter(c -> !c.active).toList();
+
+        if (!joins.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO room_participants (room_id, user_id, joined_at, is_active, last_activity) " +
+                "VALUES (?, ?, ?, TRUE, ?) " +
+                "ON DUPLICATE KEY UPDATE joined_at = VALUES(joined_at), is_active = TRUE, last_activity = VALUES(last_activity)",
+                joins,
+                FLUSH_BATCH_SIZE,
+                (ps, join) -> {
+                    ps.setString(1, join.roomId);
+                    ps.setLong(2, join.userId);
+                    ps.setTimestamp(3, Timestamp.valueOf(join.joinedAt));
+                    ps.setTimestamp(4, Timestamp.valueOf(join.at));
+                }
+            );
+        }
+        if (!leaves.isEmpty()) {
+            int[][] updated = jdbcTemplate.batchUpdate(
+                "UPDATE room_participants SET is_active = FALSE, last_activity = ? " +
+                "WHERE room_id = ? AND user_id = ? AND is_active = TRUE",
+                leaves,
+                FLUSH_BATCH_SIZE,
+                (ps, leave) -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(leave.at));
+                    ps.setString(2, leave.roomId);
+                    ps.setLong(3, leave.userId);
+                }
+            );
+            // A loaded member may have left through its own node already; only a row this write ended frees a seat
+            int index = 0;
+            for (int[] batch : updated) {
+                for (int count : batch) {
+                    MembershipChange leave = leaves.get(index++);
+                    if (leave.releasesSeat && count == 1) {
+                        releasedSeats.merge(leave.roomId, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeReleasedSeats() {
+        List<Object[]> rows = new ArrayList<>();
+        for (String roomId : new ArrayList<>(releasedSeats.keySet())) {
+            Integer seats = releasedSeats.remove(roomId);
+            if (seats != null) {
+                rows.add(new Object[] { seats, roomId });
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            batchUpdate(
+                "UPDATE rooms SET current_count = GREATEST(0, current_count - ?), updated_at = CURRENT_TIMESTAMP WHERE id = ?",
+                rows);
+        } catch (Exception e) {
+            rows.forEach(row -> releasedSeats.merge((String) row[1], (Integer) row[0], Integer::sum));
+            logger.warn("Failed to release room seats: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Take one of the room's leased seats, leasing a new block when none is left
+     *
+     * @return false if the room is full or no longer active
+     */
+    private boolean takeSeat(RoomState room) {
+        while (true) {
+            int spare = room.spare.get();
+            if (spare > 0) {
+                if (room.spare.compareAndSet(spare, spare - 1)) {
+                    return true;
+                }
+                continue;
+            }
+            // One lease per room at a time; joins arriving meanwhile take from the block it brings
+            synchronized (room) {
+                if (room.spare.get() == 0) {
+                    int leased = leaseSeats(room.roomId);
+                    if (leased == 0) {
+                        return false;
+                    }
+                    room.spare.addAndGet(leased);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lease up to a block of the room's free seats across all nodes
+     *
+     * @return Seats leased; 0 if the room is full or no longer active
+     */
+    private int leaseSeats(String roomId) {
+        // LAST_INSERT_ID(expr) hands the granted size back on this connection, so the lease is one row update
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (PreparedStatement lease = connection.prepareStatement(
+                    "UPDATE rooms SET current_count = current_count + LAST_INSERT_ID(LEAST(?, max_capacity - current_count)), " +
+                    "updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE id = ? AND is_active = TRUE AND current_count < max_capacity")) {
+                lease.setInt(1, Math.max(1, seatLeaseBlock));
+                lease.setString(2, roomId);
+                if (lease.executeUpdate() == 0) {
+                    return 0;
+                }
+            }
+            try (PreparedStatement granted = connection.prepareStatement("SELECT LAST_INSERT_ID()");
+                 ResultSet rs = granted.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        });
+    }
+
+    /**
+     * Queue the join for the database; the caller advances the room version once the change is visible
+     */
+    private void recordJoin(RoomState room, Member member, LocalDateTime at) {
+        pendingChanges.add(new MembershipChange(room.roomId, member.userId, true, member.joinedAt, at, false));
+        dirtyRooms.add(room.roomId);
+    }
+
+    /**
+     * Queue the leave; a seat leased here goes back to the room's lease for the next join
+     */
+    private void recordLeave(RoomState room, Member member, LocalDateTime at) {
+        pendingChanges.add(new MembershipChange(room.roomId, member.userId, false, member.joinedAt, at, !member.seated));
+        dirtyRooms.add(room.roomId);
+        if (member.seated) {
+            room.spare.incrementAndGet();
+        }
+    }
+
+    /**
+     * Run a batch statement in chunks so no flush sends an unbounded batch
+     */
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += FLUSH_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + FLUSH_BATCH_SIZE, rows.size())));
+        }
+    }
+
+    private MembershipEvent removeMember(String roomId, Long userId, LocalDateTime now) {
+        RoomState room = rooms.get(roomId);
+        if (room == null) {
+            return null;
+        }
+        Member member = room.members.remove(userId);
+        if (member == null) {
+            return null;
+        }
+        userRooms.remove(userId, roomId);
+        // Marked dirty before the slot is freed so the room cannot be evicted with the leave unwritten
+        recordLeave(room, member, now);
+        room.count.decrementAndGet();
+        return new MembershipEvent(roomId, room.version.incrementAndGet(), List.of(member));
+    }
+
+    private Object userLock(Long userId) {
+        return userLocks[Math.floorMod(userId.hashCode(), USER_LOCK_STRIPES)];
+    }
+
+    private Member findMember(Long userId) {
+        String roomId = userRooms.get(userId);
+        RoomState room = roomId != null ? rooms.get(roomId) : null;
+        if (room == null) {
+            return null;
+        }
+        return room.members.get(userId);
+    }
+
+    private RoomState getRoomState(String roomId) {
+        RoomState room = rooms.get(roomId);
+        if (room != null) {
+            return room;
+        }
+        return rooms.computeIfAbsent(roomId,
+            id -> loadRoom(id, participantRepository.findActiveMemberRowsByRoomId(id)));
+    }
+
+    private RoomState loadRoom(String roomId, List<Object[]> memberRows) {
+        Room entity = roomRepository.findById(roomId)
+            .orElseThrow(() -> new RuntimeException("Room not found: " + roomId));
+        RoomState room = new RoomState(roomId, Boolean.TRUE.equals(entity.getIsActive()));
+
+        List<Object[]> sorted = new ArrayList<>(memberRows);
+        sorted.sort(Comparator.comparing(row -> (LocalDateTime) row[4]));
+        for (Object[] row : sorted) {
+            Long userId = (Long) row[1];
+            room.members.put(userId, new Member(userId, (String) row[2], (String) row[3],
+                (LocalDateTime) row[4], (LocalDateTime) row[5]));
+            userRooms.put(userId, roomId);
+        }
+        room.count.set(room.members.size());
+        return room;
+    }
+}
@@ -0,0 +1,326 @@
+package com.gameverse.service;
+
+import com.gameverse.exception.RateLimitException;
+import com.gameverse.exception.ServiceBusyException;
+import com.gameverse.repository.RoomParticipantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs room membership, chat and live reads on the room's owner node
+ *
+ * A room's members, its participant versions and its ring of recent
+ * messages live in memory on one node (see RoomRegistry and
+ * RoomMessageCache), picked by SessionOwnershipService. Calls received on
+ * any other node are forwarded to it. Which room a user is in is tracked
+ * on the user's own owner node: joins and leaves go there first, so moving
+ * to a room held by another node still takes the user out of the previous
+ * one. Refusals come back as the exception the owner threw; a failure to
+ * reach the owner is reported as busy instead of falling back to local
+ * state.
+ */
+@Service
+public class RoomRoutingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomRoutingService.class);
+
+    private static final long OWNER_UNAVAILABLE_RETRY_MS = 1000;
+
+    // A user's join and leave run under the user's stripe; held across the call to the room's owner
+    private static final int USER_LOCK_STRIPES = 1024;
+    private final Object[] userLocks = new Object[USER_LOCK_STRIPES];
+    {
+        for (int i = 0; i < USER_LOCK_STRIPES; i++) {
+            userLocks[i] = new Object();
+        }
+    }
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomParticipantRepository participantRepository;
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
+
+    @Autowired
+    private ClusterTransport clusterTransport;
+
+    // Room of each user owned by this node; may be stale after idle removal, which only costs a no-op leave
+    private final Map<Long, String> currentRooms = new ConcurrentHashMap<>();
+
+    /**
+     * Load the current room of every user this node tracks
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCurrentRooms() {
+        try {
+            for (Object[] row : participantRepository.findActiveMembershipIds()) {
+                Long userId = (Long) row[1];
+                if (sessionOwnershipService.isUserOwner(userId)) {
+                    currentRooms.put(userId, (String) row[0]);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to load current rooms: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Join a room, leaving the room the user was in
+     *
+     * @return RoomParticipantResponse when this node owns the room, otherwise the owner's JSON of it
+     */
+    public Object joinRoom(String roomId, Long userId) {
+        if (sessionOwnershipService.isUserOwner(userId)) {
+            return applyUserCall(userId, "join", userBody(roomId));
+        }
+        return forwardUser(userId, "join", userBody(roomId)).get("result");
+    }
+
+    public void leaveRoom(String roomId, Long userId) {
+        if (sessionOwnershipService.isUserOwner(userId)) {
+            applyUserCall(userId, "leave", userBody(roomId));
+            return;
+        }
+        forwardUser(userId, "leave", userBody(roomId));
+    }
+
+    public void leaveAllRooms(Long userId) {
+        if (sessionOwnershipService.isUserOwner(userId)) {
+            applyUserCall(userId, "leave-all", new HashMap<>());
+            return;
+        }
+        forwardUser(userId, "leave-all", new HashMap<>());
+    }
+
+    /**
+     * @return MessageResponse when this node owns the room, otherwise the owner's JSON of it
+     */
+    public Object sendMessage(String roomId, Long userId, String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("userId", userId);
+        body.put("message", message);
+        return roomCall(roomId, "send", body);
+    }
+
+    public void updateUserActivity(String roomId, Long userId) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("userId", userId);
+        roomCall(roomId, "activity", body);
+    }
+
+    public Object getActiveParticipants(String roomId) {
+        return roomCall(roomId, "participants", new HashMap<>());
+    }
+
+    public Object getParticipantSnapshot(String roomId) {
+        return roomCall(roomId, "snapshot", new HashMap<>());
+    }
+
+    public Object getRecentMessages(String roomId, int limit) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("limit", limit);
+        return roomCall(roomId, "recent", body);
+    }
+
+    public Object getMessagesBefore(String roomId, long beforeId, int limit) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("beforeId", beforeId);
+        body.put("limit", limit);
+        return roomCall(roomId, "before", body);
+    }
+
+    public Object getMessagesAfter(String roomId, long afterId, int limit) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("afterId", afterId);
+        body.put("limit", limit);
+        return roomCall(roomId, "after", body);
+    }
+
+    /**
+     * Room operation, applied here; this node owns the room or was asked by the owner's view of the ring
+     *
+     * @param operation join, leave, send, activity, participants, snapshot, recent, before or after
+     * @return The operation's result, or null if it has none
+     */
+    public Object applyRoomCall(String roomId, String operation, Map<String, Object> body) {
+        switch (operation) {
+            case "join":
+                return roomService.joinRoom(roomId, longValue(body, "userId"));
+            case "leave":
+                roomService.leaveRoom(roomId, longValue(body, "userId"));
+                return null;
+            case "send":
+                Object message = body.get("message");
+                return roomService.sendMessage(roomId, longValue(body, "userId"),
+                    message instanceof String ? (String) message : null);
+            case "activity":
+                roomService.updateUserActivity(roomId, longValue(body, "userId"));
+                return null;
+            case "participants":
+                return roomService.getActiveParticipants(roomId);
+            case "snapshot":
+                return roomService.getParticipantSnapshot(roomId);
+            case "recent":
+                return roomService.getRecentMessages(roomId, (int) longValue(body, "limit"));
+            case "before":
+                return roomService.getMessagesBefore(roomId, longValue(body, "beforeId"), (int) longValue(body, "limit"));
+            case "after":
+                return roomService.getMessagesAfter(roomId, longValue(body, "afterId"), (int) longValue(body, "limit"));
+            default:
+                throw new IllegalArgumentException("Unknown room operation: " + operation);
+        }
+    }
+
+    /**
+     * Join or leave of a user tracked by this node
+     *
+     * The room's owner applies the change; the user's previous room is left
+     * only after the join was accepted, so a refused join keeps the user where
+     * they were.
+     *
+     * @param operation join, leave or leave-all
+     */
+    public Object applyUserCall(Long userId, String operation, Map<String, Object> body) {
+        Object roomValue = body.get("roomId");
+        String roomId = roomValue != null ? roomValue.toString() : null;
+        synchronized (userLock(userId)) {
+            switch (operation) {
+                case "join": {
+                    Object participant = roomCall(roomId, "join", memberBody(userId));
+                    String previous = currentRooms.put(userId, roomId);
+                    if (previous != null && !previous.equals(roomId)) {
+                        leaveQuietly(previous, userId);
+                    }
+                    return participant;
+                }
+                case "leave":
+                    roomCall(roomId, "leave", memberBody(userId));
+                    currentRooms.remove(userId, roomId);
+                    return null;
+                case "leave-all": {
+                    String previous = currentRooms.remove(userId);
+                    if (previous != null) {
+                        roomCall(previous, "leave", memberBody(userId));
+                    }
+                    return null;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown user operation: " + operation);
+            }
+        }
+    }
+
+    /**
+     * Error body of a refused call, carrying enough to rethrow it on the calling node
+     */
+    public static Map<String, Object> errorBody(Exception e) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", String.valueOf(e.getMessage()));
+        if (e instanceof IllegalArgumentException) {
+            error.put("errorType", "invalid");
+        } else if (e instanceof RateLimitException) {
+            error.put("errorType", "rate_limited");
+            error.put("retryAfterMs", ((RateLimitException) e).getRetryAfterMs());
+        } else if (e instanceof ServiceBusyException) {
+            error.put("errorType", "busy");
+            error.put("retryAfterMs", ((ServiceBusyException) e).getRetryAfterMs());
+        }
+        return error;
+    }
+
+    private Object roomCall(String roomId, String operation, Map<String, Object> body) {
+        if (sessionOwnershipService.isRoomOwner(roomId)) {
+            return applyRoomCall(roomId, operation, body);
+        }
+        String owner = sessionOwnershipService.roomOwnerOf(roomId);
+        Map<String, Object> result;
+        try {
+            result = clusterTransport.forwardRoomCall(sessionOwnershipService.getNodeUrl(owner), roomId, operation, body);
+        } catch (Exception e) {
+            logger.warn("Failed to forward {} of room {} to node {}: {}", operation, roomId, owner, e.getMessage());
+            throw new ServiceBusyException("Room owner unavailable", OWNER_UNAVAILABLE_RETRY_MS);
+        }
+        return checked(result).get("result");
+    }
+
+    private Map<String, Object> forwardUser(Long userId, String operation, Map<String, Object> body) {
+        String owner = sessionOwnershipService.userOwnerOf(userId);
+        Map<String, Object> result;
+        try {
+            result = clusterTransport.forwardUserCall(sessionOwnershipService.getNodeUrl(owner), userId, operation, body);
+        } catch (Exception e) {
+            logger.warn("Failed to forward {} of user {} to node {}: {}", operation, userId, owner, e.getMessage());
+            throw new ServiceBusyException("Room owner unavailable", OWNER_UNAVAILABLE_RETRY_MS);
+        }
+        return checked(result);
+    }
+
+    /**
+     * Rethrow a refusal the owner answered in the body
+     */
+    private static Map<String, Object> checked(Map<String, Object> result) {
+        if (result == null) {
+            throw new ServiceBusyException("Room owner unavailable", OWNER_UNAVAILABLE_RETRY_MS);
+        }
+        Object error = result.get("error");
+        if (error == null) {
+            return result;
+        }
+        Object type = result.get("errorType");
+        long retryAfterMs = result.get("retryAfterMs") != null ? longValue(result, "retryAfterMs") : 0;
+        if ("invalid".equals(type)) {
+            throw new IllegalArgumentException(error.toString());
+        }
+        if ("rate_limited".equals(type)) {
+            throw new RateLimitException(error.toString(), retryAfterMs);
+        }
+        if ("busy".equals(type)) {
+            throw new ServiceBusyException(error.toString(), retryAfterMs);
+        }
+        throw new RuntimeException(error.toString());
+    }
+
+    private void leaveQuietly(String roomId, Long userId) {
+        try {
+            roomCall(roomId, "leave", memberBody(userId));
+        } catch (Exception e) {
+            // The membership is cleared by the idle sweep of the room's owner
+            logger.warn("Failed to leave room {} after user {} moved: {}", roomId, userId, e.getMessage());
+        }
+    }
+
+    private Object userLock(Long userId) {
+        return userLocks[Math.floorMod(userId.hashCode(), USER_LOCK_STRIPES)];
+    }
+
+    private static Map<String, Object> userBody(String roomId) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("roomId", roomId);
+        return body;
+    }
+
+    private static Map<String, Object> memberBody(Long userId) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("userId", userId);
+        return body;
+    }
+
+    private static long longValue(Map<String, Object> body, String key) {
+        Object value = body.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + key);
+        }
+        return Long.parseLong(value.toString());
+    }
+}
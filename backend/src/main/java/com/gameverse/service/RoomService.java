@@ -1,39 +1,45 @@
 package com.gameverse.service;
 
+import com.gameverse.dto.response.ParticipantEventResponse;
+import com.gameverse.dto.response.ParticipantSnapshotResponse;
+import com.gameverse.dto.response.RoomParticipantResponse;
+import com.gameverse.dto.response.RoomResponse;
 import com.gameverse.entity.ChatMessage;
 import com.gameverse.entity.Room;
-import com.gameverse.entity.RoomParticipant;
-import com.gameverse.entity.User;
+import com.gameverse.exception.ServiceBusyException;
 import com.gameverse.repository.ChatMessageRepository;
-import com.gameverse.repository.RoomParticipantRepository;
 import com.gameverse.repository.RoomRepository;
 import com.gameverse.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing virtual rooms and real-time chat functionality
  * Handles room creation, participant management, and message broadcasting
+ *
+ * Membership, activity, sending and live reads are served from memory (see
+ * RoomRegistry and ChatMessageWriter) and run without a transaction. They
+ * must run on the room's owner node; callers go through RoomRoutingService.
  */
 @Service
 @Transactional
 public class RoomService {
 
-    @Autowired
-    private RoomRepository roomRepository;
+    private static final Logger logger = LoggerFactory.getLogger(RoomService.class);
 
     @Autowired
-    private RoomParticipantRepository participantRepository;
+    private RoomRepository roomRepository;
 
     @Autowired
     private ChatMessageRepository messageRepository;
@@ -42,13 +48,33 @@ public class RoomService {
     private UserRepository userRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private RoomBroadcaster roomBroadcaster;
+
+    @Autowired
+    private RoomRegistry roomRegistry;
+
+    @Autowired
+    private ChatMessageWriter chatMessageWriter;
+
+    @Autowired
+    private RoomMessageCache roomMessageCache;
+
+    @Autowired
+    private RoomDiscoveryIndex roomDiscoveryIndex;
+
+    @Autowired
+    private ChatRateLimiter chatRateLimiter;
+
+    @Autowired
+    private ChatArchiveService chatArchiveService;
 
     // Configuration constants
     private static final int DEFAULT_MAX_CAPACITY = 50;
     private static final int INACTIVE_THRESHOLD_MINUTES = 30;
-    private static final int MESSAGE_HISTORY_LIMIT = 50;
+    private static final int MESSAGE_HISTORY_LIMIT = RoomMessageCache.CAPACITY;
     private static final int MAX_MESSAGE_LENGTH = 1000;
+    private static final int HISTORY_PAGE_LIMIT = 100;
+    private static final long CHAT_BUSY_RETRY_MS = 1000;
 
     /**
      * Create a new room
@@ -70,7 +96,9 @@ public class RoomService {
         capacity = Math.min(capacity, DEFAULT_MAX_CAPACITY);
 
         Room room = new Room(roomId, name.trim(), description, capacity);
-        return roomRepository.save(room);
+        room = roomRepository.save(room);
+        roomDiscoveryIndex.add(room);
+        return room;
     }
 
     /**
@@ -78,43 +106,28 @@ public class RoomService {
      * 
      * @param roomId Room ID
      * @param userId User ID
-     * @return RoomParticipant record
+     * @return The new participant
      * @throws IllegalArgumentException if room is full or user already in room
      */
-    public RoomParticipant joinRoom(String roomId, Long userId) {
-        Room room = getRoomById(roomId);
-        User user = getUserById(userId);
-
-        // Check if room can accept new participants
-        if (!room.canAcceptNewParticipant()) {
-            throw new IllegalArgumentException("Room is not accepting new participants (full or inactive)");
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RoomParticipantResponse joinRoom(String roomId, Long userId) {
+        // Capacity and membership are decided in memory; the database catches up asynchronously.
+        // The registry also takes the user out of their previous room in the same step.
+        RoomRegistry.MembershipEvent join = roomRegistry.join(roomId, userId);
+        RoomRegistry.Member member = join.getMember();
+
+        if (join.getLeft() != null) {
+            announceLeave(join.getLeft());
         }
 
-        // Check if user is already in the room
-        if (participantRepository.isUserActiveInRoom(roomId, userId)) {
-            throw new IllegalArgumentException("User is already in this room");
-        }
-
-        // Deactivate user from other rooms (users can only be in one room at a time)
-        leaveAllRooms(userId);
-
-        // Create participant record
-        RoomParticipant participant = new RoomParticipant(room, user);
-        participant = participantRepository.save(participant);
-
-        // Update room participant count
-        room.incrementParticipantCount();
-        roomRepository.save(room);
-
         // Send system message about user joining
-        sendSystemMessage(room, user.getProfile() != null ? 
-            user.getProfile().getDisplayName() + " joined the room" : 
+        sendSystemMessage(roomId, member.getDisplayName() != null ? 
+            member.getDisplayName() + " joined the room" : 
             "User joined the room");
 
-        // Broadcast updated participant list
-        broadcastParticipantList(roomId);
+        broadcastParticipantEvent(ParticipantEventResponse.Type.JOIN, join);
 
-        return participant;
+        return member.toResponse();
     }
 
     /**
@@ -123,29 +136,12 @@ public class RoomService {
      * @param roomId Room ID
      * @param userId User ID
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void leaveRoom(String roomId, Long userId) {
-        Optional<RoomParticipant> participantOpt = participantRepository.findActiveByRoomIdAndUserId(roomId, userId);
+        RoomRegistry.MembershipEvent leave = roomRegistry.leave(roomId, userId);
         
-        if (participantOpt.isPresent()) {
-            RoomParticipant participant = participantOpt.get();
-            User user = participant.getUser();
-            Room room = participant.getRoom();
-
-            // Deactivate participant
-            participant.deactivate();
-            participantRepository.save(participant);
-
-            // Update room participant count
-            room.decrementParticipantCount();
-            roomRepository.save(room);
-
-            // Send system message about user leaving
-            sendSystemMessage(room, user.getProfile() != null ? 
-                user.getProfile().getDisplayName() + " left the room" : 
-                "User left the room");
-
-            // Broadcast updated participant list
-            broadcastParticipantList(roomId);
+        if (leave != null) {
+            announceLeave(leave);
         }
     }
 
@@ -154,11 +150,12 @@ public class RoomService {
      * 
      * @param userId User ID
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void leaveAllRooms(Long userId) {
-        List<RoomParticipant> activeParticipations = participantRepository.findActiveRoomsByUserId(userId);
+        String roomId = roomRegistry.getCurrentRoom(userId);
         
-        for (RoomParticipant participant : activeParticipations) {
-            leaveRoom(participant.getRoom().getId(), userId);
+        if (roomId != null) {
+            leaveRoom(roomId, userId);
         }
     }
 
@@ -168,9 +165,11 @@ public class RoomService {
      * @param roomId Room ID
      * @param userId User ID
      * @param message Message content
-     * @return ChatMessage record
+     * @return The message as broadcast
+     * @throws IllegalArgumentException if the message is invalid or the user is not in the room
      */
-    public ChatMessage sendMessage(String roomId, Long userId, String message) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public MessageResponse sendMessage(String roomId, Long userId, String message) {
         if (message == null || message.trim().isEmpty()) {
             throw new IllegalArgumentException("Message cannot be empty");
         }
@@ -179,38 +178,43 @@ public class RoomService {
             throw new IllegalArgumentException("Message too long (max " + MAX_MESSAGE_LENGTH + " characters)");
         }
 
-        Room room = getRoomById(roomId);
-        User user = getUserById(userId);
-
-        // Verify user is active participant in room
-        if (!participantRepository.isUserActiveInRoom(roomId, userId)) {
+        // Verify user is active participant in room; this also records their activity
+        RoomRegistry.Member member = roomRegistry.touch(roomId, userId);
+        if (member == null) {
             throw new IllegalArgumentException("User is not an active participant in this room");
         }
 
-        // Update user activity
-        participantRepository.updateParticipantActivity(roomId, userId);
+        // Refused senders cost nothing beyond this point: no id, no write, no broadcast
+        chatRateLimiter.acquire(roomId, userId);
 
-        // Create and save message
-        ChatMessage chatMessage = new ChatMessage(room, user, message.trim());
-        chatMessage = messageRepository.save(chatMessage);
+        // Queue before broadcasting so nothing is shown that cannot be stored
+        ChatMessageWriter.QueuedMessage queued = new ChatMessageWriter.QueuedMessage(chatMessageWriter.nextId(),
+            roomId, userId, message.trim(), ChatMessage.MessageType.TEXT, LocalDateTime.now());
+        if (!chatMessageWriter.offer(queued)) {
+            throw new ServiceBusyException("Chat is busy, please try again", CHAT_BUSY_RETRY_MS);
+        }
 
-        // Broadcast message to all participants
-        broadcastMessage(chatMessage);
+        MessageResponse response = createMessageResponse(queued,
+            member.getDisplayName() != null ? member.getDisplayName() : "Anonymous");
+        roomMessageCache.append(roomId, response);
+        broadcastMessage(roomId, response);
 
-        return chatMessage;
+        return response;
     }
 
     /**
-     * Get room details with participant list
+     * Get the room header: name, capacity and occupancy
+     * 
+     * Active rooms are served from the discovery index and the registry;
+     * only rooms it does not know yet are read from the database, and never
+     * with their participants.
      * 
      * @param roomId Room ID
-     * @return Room with participants
+     * @return Room header
      */
-    public Room getRoomWithParticipants(String roomId) {
-        Room room = getRoomById(roomId);
-        // Participants are loaded lazily, but we can trigger loading here if needed
-        room.getParticipants().size(); // Trigger lazy loading
-        return room;
+    public RoomResponse getRoomHeader(String roomId) {
+        RoomResponse header = roomDiscoveryIndex.get(roomId);
+        return header != null ? header : new RoomResponse(getRoomById(roomId));
     }
 
     /**
@@ -219,8 +223,26 @@ public class RoomService {
      * @param roomId Room ID
      * @return List of active participants
      */
-    public List<RoomParticipant> getActiveParticipants(String roomId) {
-        return participantRepository.findActiveParticipantsByRoomId(roomId);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<RoomParticipantResponse> getActiveParticipants(String roomId) {
+        return roomRegistry.getMembers(roomId).stream()
+            .map(RoomRegistry.Member::toResponse)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the full participant list of a room with the version it reflects
+     * 
+     * @param roomId Room ID
+     * @return Participant snapshot
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ParticipantSnapshotResponse getParticipantSnapshot(String roomId) {
+        RoomRegistry.Snapshot snapshot = roomRegistry.getSnapshot(roomId);
+        List<RoomParticipantResponse> participants = snapshot.getMembers().stream()
+            .map(RoomRegistry.Member::toResponse)
+            .collect(Collectors.toList());
+        return new ParticipantSnapshotResponse(roomId, snapshot.getVersion(), participants);
     }
 
     /**
@@ -228,12 +250,69 @@ public class RoomService {
      * 
      * @param roomId Room ID
      * @param limit Number of messages to retrieve
-     * @return List of recent messages
+     * @return List of recent messages, newest first
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<MessageResponse> getRecentMessages(String roomId, int limit) {
+        return roomMessageCache.getRecent(roomId, Math.min(limit, MESSAGE_HISTORY_LIMIT));
+    }
+
+    /**
+     * Get messages sent before a message, for scrolling back through history
+     * 
+     * @param roomId Room ID
+     * @param beforeId Oldest message the client has
+     * @param limit Number of messages to retrieve (max 100)
+     * @return Messages, newest first
      */
-    public List<ChatMessage> getRecentMessages(String roomId, int limit) {
-        Pageable pageable = PageRequest.of(0, Math.min(limit, MESSAGE_HISTORY_LIMIT));
-        Page<ChatMessage> messagePage = messageRepository.findRecentMessagesByRoomId(roomId, pageable);
-        return messagePage.getContent();
+    public List<MessageResponse> getMessagesBefore(String roomId, long beforeId, int limit) {
+        limit = Math.max(1, Math.min(limit, HISTORY_PAGE_LIMIT));
+        List<MessageResponse> messages = roomMessageCache.getBefore(roomId, beforeId, limit);
+        if (messages.size() < limit) {
+            // Everything older than the cached tail is in the database
+            long cursor = messages.isEmpty() ? beforeId : messages.get(messages.size() - 1).getId();
+            for (Object[] row : messageRepository.findMessageRowsBefore(
+                    roomId, cursor, PageRequest.of(0, limit - messages.size()))) {
+                messages.add(MessageResponse.fromRow(row));
+            }
+        }
+        if (messages.size() < limit) {
+            // And everything older than that has been archived
+            long cursor = messages.isEmpty() ? beforeId : messages.get(messages.size() - 1).getId();
+            messages.addAll(chatArchiveService.getBefore(roomId, cursor, limit - messages.size()));
+        }
+        return messages;
+    }
+
+    /**
+     * Get messages sent after a message, for catching up after a reconnect
+     * 
+     * A full page means there may be more; ask again from the last message returned.
+     * 
+     * @param roomId Room ID
+     * @param afterId Newest message the client has
+     * @param limit Number of messages to retrieve (max 100)
+     * @return Messages, oldest first
+     */
+    public List<MessageResponse> getMessagesAfter(String roomId, long afterId, int limit) {
+        limit = Math.max(1, Math.min(limit, HISTORY_PAGE_LIMIT));
+        List<MessageResponse> cached = roomMessageCache.getAfter(roomId, afterId, limit);
+        if (cached != null) {
+            return cached;
+        }
+
+        // The gap reaches past the cache; recent messages may not be written yet and old ones may be archived, so merge all three
+        TreeMap<Long, MessageResponse> byId = new TreeMap<>();
+        for (MessageResponse message : chatArchiveService.getAfter(roomId, afterId, limit)) {
+            byId.put(message.getId(), message);
+        }
+        for (Object[] row : messageRepository.findMessageRowsAfter(roomId, afterId, PageRequest.of(0, limit))) {
+            byId.put((Long) row[0], MessageResponse.fromRow(row));
+        }
+        for (MessageResponse message : roomMessageCache.getRecent(roomId, RoomMessageCache.CAPACITY)) {
+            byId.put(message.getId(), message);
+        }
+        return byId.values().stream().limit(limit).collect(Collectors.toList());
     }
 
     /**
@@ -256,16 +335,13 @@ public class RoomService {
     }
 
     /**
-     * Search rooms by name
+     * Search active rooms by name or description, served from memory
      * 
      * @param searchTerm Search term
-     * @return List of matching rooms
+     * @return Matching rooms, most occupied first
      */
-    public List<Room> searchRooms(String searchTerm) {
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return getAvailableRooms();
-        }
-        return roomRepository.searchRooms(searchTerm.trim());
+    public List<RoomResponse> searchRooms(String searchTerm) {
+        return roomDiscoveryIndex.search(searchTerm);
     }
 
     /**
@@ -274,8 +350,9 @@ public class RoomService {
      * @param roomId Room ID
      * @param userId User ID
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updateUserActivity(String roomId, Long userId) {
-        participantRepository.updateParticipantActivity(roomId, userId);
+        roomRegistry.touch(roomId, userId);
     }
 
     /**
@@ -285,25 +362,22 @@ public class RoomService {
     public void cleanupInactiveParticipants() {
         LocalDateTime threshold = LocalDateTime.now().minusMinutes(INACTIVE_THRESHOLD_MINUTES);
         
-        // Get inactive participants before deactivating them
-        List<RoomParticipant> inactiveParticipants = participantRepository.findInactiveParticipants(threshold);
-        
-        // Deactivate inactive participants
-        int deactivatedCount = participantRepository.deactivateInactiveParticipants(threshold);
+        // Idle members are removed in memory; rows and counts follow in chunks with the registry flush
+        List<RoomRegistry.MembershipEvent> removed = roomRegistry.removeIdleMembers(threshold);
         
-        // Update room counts for affected rooms
-        for (RoomParticipant participant : inactiveParticipants) {
-            String roomId = participant.getRoom().getId();
-            long activeCount = participantRepository.countActiveParticipantsByRoomId(roomId);
-            roomRepository.updateParticipantCount(roomId, (int) activeCount);
-            
-            // Broadcast updated participant list
-            broadcastParticipantList(roomId);
+        // One event per affected room, however many of its members went idle
+        for (RoomRegistry.MembershipEvent event : removed) {
+            broadcastParticipantEvent(ParticipantEventResponse.Type.IDLE, event);
         }
 
         // Deactivate empty rooms
+        roomRegistry.evictEmptyRooms();
+        roomMessageCache.evictIdle(System.currentTimeMillis() - INACTIVE_THRESHOLD_MINUTES * 60_000L);
         LocalDateTime roomThreshold = LocalDateTime.now().minusHours(1);
-        roomRepository.deactivateEmptyRooms(roomThreshold);
+        if (roomRepository.deactivateEmptyRooms(roomThreshold) > 0) {
+            // Bulk update; the search index does not know which rooms were closed
+            roomDiscoveryIndex.rebuild();
+        }
     }
 
     /**
@@ -331,43 +405,59 @@ public class RoomService {
             .orElseThrow(() -> new RuntimeException("Room not found: " + roomId));
     }
 
-    private User getUserById(Long userId) {
-        return userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found: " + userId));
-    }
-
     private String generateRoomId() {
         // Generate a short, unique room ID
         return "room_" + UUID.randomUUID().toString().substring(0, 8);
     }
 
-    private void sendSystemMessage(Room room, String message) {
-        ChatMessage systemMessage = new ChatMessage(room, null, message, ChatMessage.MessageType.SYSTEM);
-        systemMessage = messageRepository.save(systemMessage);
-        broadcastMessage(systemMessage);
+    private void sendSystemMessage(String roomId, String message) {
+        ChatMessageWriter.QueuedMessage queued = new ChatMessageWriter.QueuedMessage(chatMessageWriter.nextId(),
+            roomId, null, message, ChatMessage.MessageType.SYSTEM, LocalDateTime.now());
+        // Join and leave notices are still shown when the buffer is full; only their history is lost
+        if (!chatMessageWriter.offer(queued)) {
+            logger.warn("Chat buffer full, system message in room {} not persisted", roomId);
+        }
+        MessageResponse response = createMessageResponse(queued, "System");
+        roomMessageCache.append(roomId, response);
+        broadcastMessage(roomId, response);
+    }
+
+    private void announceLeave(RoomRegistry.MembershipEvent leave) {
+        RoomRegistry.Member member = leave.getMember();
+
+        // Send system message about user leaving
+        sendSystemMessage(leave.getRoomId(), member.getDisplayName() != null ? 
+            member.getDisplayName() + " left the room" : 
+            "User left the room");
+
+        broadcastParticipantEvent(ParticipantEventResponse.Type.LEAVE, leave);
     }
 
-    private void broadcastMessage(ChatMessage message) {
-        String destination = "/topic/room/" + message.getRoom().getId() + "/messages";
-        messagingTemplate.convertAndSend(destination, createMessageResponse(message));
+    private void broadcastMessage(String roomId, MessageResponse message) {
+        String destination = "/topic/room/" + roomId + "/messages";
+        roomBroadcaster.broadcast(destination, message);
     }
 
-    private void broadcastParticipantList(String roomId) {
-        List<RoomParticipant> participants = getActiveParticipants(roomId);
-        String destination = "/topic/room/" + roomId + "/participants";
-        messagingTemplate.convertAndSend(destination, participants);
+    private void broadcastParticipantEvent(ParticipantEventResponse.Type type, RoomRegistry.MembershipEvent event) {
+        ParticipantEventResponse response;
+        if (type == ParticipantEventResponse.Type.IDLE) {
+            List<Long> userIds = event.getMembers().stream()
+                .map(RoomRegistry.Member::getUserId)
+                .collect(Collectors.toList());
+            response = new ParticipantEventResponse(type, event.getRoomId(), event.getVersion(), null, null);
+            response.setUserIds(userIds);
+        } else {
+            RoomRegistry.Member member = event.getMember();
+            response = new ParticipantEventResponse(type, event.getRoomId(), event.getVersion(),
+                member.getUserId(), type == ParticipantEventResponse.Type.JOIN ? member.toResponse() : null);
+        }
+        String destination = "/topic/room/" + event.getRoomId() + "/participants";
+        roomBroadcaster.broadcast(destination, response);
     }
 
-    private MessageResponse createMessageResponse(ChatMessage message) {
-        return new MessageResponse(
-            message.getId(),
-            message.getUser() != null ? message.getUser().getId() : null,
-            message.getUser() != null && message.getUser().getProfile() != null ? 
-                message.getUser().getProfile().getDisplayName() : "System",
-            message.getMessage(),
-            message.getMessageType().name(),
-            message.getCreatedAt()
-        );
+    private MessageResponse createMessageResponse(ChatMessageWriter.QueuedMessage message, String userName) {
+        return new MessageResponse(message.getId(), message.getUserId(), userName, message.getMessage(),
+            message.getMessageType().name(), message.getCreatedAt());
     }
 
     // Data classes for responses
@@ -399,6 +489,16 @@ public class RoomService {
         private final String messageType;
         private final LocalDateTime timestamp;
 
+        /**
+         * From a (id, userId, displayName, message, messageType, createdAt) row
+         */
+        public static MessageResponse fromRow(Object[] row) {
+            Long userId = (Long) row[1];
+            String userName = userId == null ? "System" : row[2] != null ? (String) row[2] : "Anonymous";
+            return new MessageResponse((Long) row[0], userId, userName, (String) row[3],
+                ((ChatMessage.MessageType) row[4]).name(), (LocalDateTime) row[5]);
+        }
+
         public MessageResponse(Long id, Long userId, String userName, String message, String messageType, LocalDateTime timestamp) {
             this.id = id;
             this.userId = userId;
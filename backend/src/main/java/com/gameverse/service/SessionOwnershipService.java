@@ -0,0 +1,155 @@
+package com.gameverse.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Session-to-node ownership for multi-node deployments
+ *
+ * Each game session is owned by exactly one backend node, picked by consistent
+ * hashing over the membership list, and only the owner applies its moves and
+ * serves its live state (see SessionRoutingService) so live game state never
+ * diverges between JVMs. Chat rooms, and the room each user is in, are placed
+ * on the same ring (see RoomRoutingService). Without a membership list the
+ * local node owns everything.
+ */
+@Service
+public class SessionOwnershipService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionOwnershipService.class);
+
+    @Value("${gameverse.cluster.node-id:local}")
+    private String nodeId;
+
+    // e.g. "node-a=http://10.0.0.1:8080/api/v1,node-b=http://10.0.0.2:8080/api/v1"
+    @Value("${gameverse.cluster.nodes:}")
+    private String nodes;
+
+    @Value("${gameverse.cluster.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Value("${gameverse.cluster.token:}")
+    private String clusterToken;
+
+    private volatile Map<String, String> members;
+    private volatile ConsistentHashRing ring;
+
+    @PostConstruct
+    void init() {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        for (String entry : nodes.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length == 2) {
+                parsed.put(parts[0].trim(), parts[1].trim());
+            }
+        }
+        if (parsed.isEmpty()) {
+            parsed.put(nodeId, "");
+        } else if (!parsed.containsKey(nodeId)) {
+            logger.warn("Node {} is not in the cluster membership list and will own no sessions", nodeId);
+        }
+        updateMembership(parsed);
+    }
+
+    /**
+     * Replace the membership list; sessions move only between changed nodes
+     *
+     * @param members Node ID to base URL of its API
+     */
+    public void updateMembership(Map<String, String> members) {
+        Map<String, String> copy = Collections.unmodifiableMap(new LinkedHashMap<>(members));
+        this.ring = new ConsistentHashRing(copy.keySet(), virtualNodes);
+        this.members = copy;
+        logger.info("Cluster membership: {}", copy.keySet());
+    }
+
+    public String getLocalNodeId() {
+        return nodeId;
+    }
+
+    public String ownerOf(Long sessionId) {
+        return ring.nodeFor("session:" + sessionId);
+    }
+
+    public boolean isOwner(Long sessionId) {
+        return nodeId.equals(ownerOf(sessionId));
+    }
+
+    public String roomOwnerOf(String roomId) {
+        return ring.nodeFor("room:" + roomId);
+    }
+
+    public boolean isRoomOwner(String roomId) {
+        return nodeId.equals(roomOwnerOf(roomId));
+    }
+
+    /**
+     * Node keeping track of which room the user is in
+     */
+    public String userOwnerOf(Long userId) {
+        return ring.nodeFor("user:" + userId);
+    }
+
+    public boolean isUserOwner(Long userId) {
+        return nodeId.equals(userOwnerOf(userId));
+    }
+
+    /**
+     * Base URLs of every other member
+     */
+    public List<String> getPeerUrls() {
+        List<String> urls = new ArrayList<>();
+        members.forEach((member, url) -> {
+            if (!member.equals(nodeId) && !url.isEmpty()) {
+                urls.add(url);
+            }
+        });
+        return urls;
+    }
+
+    /**
+     * Position of this node in the membership list, the same on every node
+     *
+     * @return -1 if this node is not a member
+     */
+    public int getLocalNodeIndex() {
+        int index = 0;
+        for (String member : members.keySet()) {
+            if (member.equals(nodeId)) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    public String getNodeUrl(String memberId) {
+        return members.get(memberId);
+    }
+
+    public String getClusterToken() {
+        return clusterToken;
+    }
+
+    /**
+     * Whether a request between nodes carries the shared cluster token
+     */
+    public boolean isTrusted(String token) {
+        if (clusterToken.isEmpty() || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(clusterToken.getBytes(StandardCharsets.UTF_8),
+            token.getBytes(StandardCharsets.UTF_8));
+    }
+}
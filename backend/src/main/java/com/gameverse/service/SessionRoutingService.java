@@ -0,0 +1,135 @@
+package com.gameverse.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs session reads, presence, game chat and ending a session on the session's owner node
+ *
+ * Like moves (see GameMoveService), these touch per-session state that lives
+ * only on the owner: the cached roster, the UNO deal and hands, the turn
+ * clock, connection tracking with its disconnect-forfeit timer, and the chat
+ * roster. Calls received on any other node are forwarded; a failure to reach
+ * the owner surfaces as an error instead of falling back to local state.
+ */
+@Service
+public class SessionRoutingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionRoutingService.class);
+
+    @Autowired
+    private GameSessionService gameSessionService;
+
+    @Autowired
+    private GameChatService gameChatService;
+
+    @Autowired
+    private SessionOwnershipService sessionOwnershipService;
+
+    @Autowired
+    private ClusterTransport clusterTransport;
+
+    /**
+     * Session info for a participant, from the owner node
+     *
+     * @return SessionInfo when this node owns the session, otherwise the owner's JSON of it
+     */
+    public Object getSessionInfo(Long sessionId, Long userId) {
+        if (sessionOwnershipService.isOwner(sessionId)) {
+            return gameSessionService.getSessionInfo(sessionId, userId);
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("userId", userId);
+        return forward(sessionId, "info", body);
+    }
+
+    /**
+     * Track a player's connection on the owner node
+     *
+     * @param connectionId Connection ID local to this node; qualified with the node ID so IDs of different nodes never collide
+     */
+    public void handlePlayerConnection(Long sessionId, Long userId, String connectionId) {
+        updatePresence(sessionId, userId, qualify(connectionId), true);
+    }
+
+    public void handlePlayerDisconnection(Long sessionId, Long userId, String connectionId) {
+        updatePresence(sessionId, userId, qualify(connectionId), false);
+    }
+
+    /**
+     * Presence update, applied here; connectionId is already qualified
+     */
+    public void applyPresence(Long sessionId, Long userId, String connectionId, boolean connected) {
+        if (connected) {
+            gameSessionService.handlePlayerConnection(sessionId, userId, connectionId);
+        } else {
+            gameSessionService.handlePlayerDisconnection(sessionId, userId, connectionId);
+        }
+    }
+
+    public void sendChatMessage(Long sessionId, Long userId, String message) {
+        if (sessionOwnershipService.isOwner(sessionId)) {
+            gameChatService.sendMessage(sessionId, userId, message);
+            return;
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("userId", userId);
+        body.put("message", message);
+        forward(sessionId, "chat", body);
+    }
+
+    /**
+     * End the session on the owner node, which releases its live state
+     */
+    public void endSession(Long sessionId, Long winnerId) {
+        if (sessionOwnershipService.isOwner(sessionId)) {
+            gameSessionService.endSession(sessionId, winnerId);
+            return;
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("winnerId", winnerId);
+        forward(sessionId, "end", body);
+    }
+
+    private void updatePresence(Long sessionId, Long userId, String connectionId, boolean connected) {
+        if (sessionOwnershipService.isOwner(sessionId)) {
+            applyPresence(sessionId, userId, connectionId, connected);
+            return;
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("userId", userId);
+        body.put("connectionId", connectionId);
+        body.put("connected", connected);
+        forward(sessionId, "presence", body);
+    }
+
+    private Map<String, Object> forward(Long sessionId, String operation, Map<String, Object> body) {
+        String owner = sessionOwnershipService.ownerOf(sessionId);
+        Map<String, Object> result;
+        try {
+            result = clusterTransport.forwardSessionCall(
+                sessionOwnershipService.getNodeUrl(owner), sessionId, operation, body);
+        } catch (Exception e) {
+            logger.warn("Failed to forward {} of session {} to node {}: {}", operation, sessionId, owner, e.getMessage());
+            throw new RuntimeException("Session owner unavailable");
+        }
+        if (result == null) {
+            throw new RuntimeException("Session owner unavailable");
+        }
+        // The owner answers refusals in the body, like move acks
+        Object error = result.get("error");
+        if (error != null) {
+            throw new RuntimeException(error.toString());
+        }
+        return result;
+    }
+
+    private String qualify(String connectionId) {
+        return sessionOwnershipService.getLocalNodeId() + ":" + connectionId;
+    }
+}
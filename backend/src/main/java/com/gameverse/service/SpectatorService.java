@@ -0,0 +1,259 @@
+package com.gameverse.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gameverse.service.GameSessionService.GameStateUpdate;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for spectating live game sessions
+ *
+ * Every session has one shared spectator stream published on
+ * /topic/game/{sessionId}/spectate. The move path only hands the update to the
+ * stream; serialization happens once per update on the stream thread and the
+ * resulting frame is fanned out by the broker, so the cost of a move does not
+ * depend on how many viewers are watching. A new subscription to the topic
+ * first receives a snapshot of the current view, sent to that subscription
+ * only.
+ *
+ * Streams are closed when their session ends; streams of sessions that stop
+ * publishing without ending (e.g. owned by a node that went away) are dropped
+ * once idle for as long as the session sweeper waits.
+ */
+@Service
+public class SpectatorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpectatorService.class);
+
+    // Same as the session sweeper's cutoff for abandoned sessions
+    private static final long IDLE_STREAM_MS = 2 * 60 * 60 * 1000L;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Replies to one subscription go straight to the client, like @SubscribeMapping replies
+    @Autowired
+    @Qualifier("clientOutboundChannel")
+    private MessageChannel clientOutboundChannel;
+
+    // Delay applied to the spectator view (e.g. to stop viewers relaying moves to players)
+    @Value("${gameverse.games.spectator.delay-ms:0}")
+    private long delayMs;
+
+    private final Map<Long, SpectatorStream> streams = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService streamExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "spectator-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Latest frame delivered to spectators of a session
+     */
+    private static class SpectatorStream {
+        private volatile JsonNode gameState;
+        private volatile long frameSequence;
+        private volatile LocalDateTime lastFrameAt;
+        private volatile long lastPublished = System.currentTimeMillis();
+        private volatile boolean closed;
+    }
+
+    public static class SpectatorSnapshot {
+        private final Long sessionId;
+        private final long frameSequence;
+        private final long delayMs;
+        private final Object gameState;
+        private final LocalDateTime lastFrameAt;
+
+        public SpectatorSnapshot(Long sessionId, long frameSequence, long delayMs,
+                                 Object gameState, LocalDateTime lastFrameAt) {
+            this.sessionId = sessionId;
+            this.frameSequence = frameSequence;
+            this.delayMs = delayMs;
+            this.gameState = gameState;
+            this.lastFrameAt = lastFrameAt;
+        }
+
+        // Getters
+        public Long getSessionId() { return sessionId; }
+        public long getFrameSequence() { return frameSequence; }
+        public long getDelayMs() { return delayMs; }
+        public Object getGameState() { return gameState; }
+        public LocalDateTime getLastFrameAt() { return lastFrameAt; }
+    }
+
+    /**
+     * Hand an update to the session's spectator stream.
+     * Constant time on the caller's thread regardless of viewer count.
+     *
+     * @param sessionId Game session ID
+     * @param update Update that was broadcast to the players
+     * @param gameStateJson Game state after the update, or null if unchanged
+     */
+    public void publish(Long sessionId, GameStateUpdate update, String gameStateJson) {
+        SpectatorStream stream = streams.computeIfAbsent(sessionId, id -> new SpectatorStream());
+        if (stream.closed) {
+            return;
+        }
+        stream.lastPublished = System.currentTimeMillis();
+        if (delayMs > 0) {
+            streamExecutor.schedule(() -> deliver(sessionId, stream, update, gameStateJson),
+                delayMs, TimeUnit.MILLISECONDS);
+        } else {
+            streamExecutor.execute(() -> deliver(sessionId, stream, update, gameStateJson));
+        }
+    }
+
+    /**
+     * Snapshot of the (delayed) spectator view, sent to new viewers on subscribe
+     *
+     * @param sessionId Game session ID
+     * @param persistedStateJson Persisted game state, used when the stream has no frame yet
+     * @return Current spectator snapshot
+     */
+    public SpectatorSnapshot getSnapshot(Long sessionId, String persistedStateJson) {
+        SpectatorStream stream = streams.get(sessionId);
+        if (stream != null && stream.gameState != null) {
+            return new SpectatorSnapshot(sessionId, stream.frameSequence, delayMs,
+                stream.gameState, stream.lastFrameAt);
+        }
+        // Only fall back to the live state when viewers are not meant to lag behind
+        Object gameState = delayMs == 0 ? readState(persistedStateJson) : null;
+        return new SpectatorSnapshot(sessionId, 0, delayMs, gameState, null);
+    }
+
+    /**
+     * Send a snapshot to a viewer on the subscription they just opened
+     *
+     * @param connectionId STOMP session of the viewer
+     * @param subscriptionId Subscription to the spectate topic
+     * @param destination Destination of the subscription
+     * @param snapshot Snapshot from getSnapshot
+     */
+    public void sendSnapshot(String connectionId, String subscriptionId, String destination, SpectatorSnapshot snapshot) {
+        try {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId(connectionId);
+            headers.setSubscriptionId(subscriptionId);
+            headers.setDestination(destination);
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            headers.setLeaveMutable(true);
+            clientOutboundChannel.send(MessageBuilder.createMessage(
+                objectMapper.writeValueAsBytes(snapshot), headers.getMessageHeaders()));
+        } catch (Exception e) {
+            logger.warn("Failed to send spectator snapshot for session {}: {}", snapshot.getSessionId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drop streams that have not published for a long time
+     */
+    @Scheduled(fixedRate = 300000) // 5 minutes
+    public void evictIdleStreams() {
+        long cutoff = System.currentTimeMillis() - IDLE_STREAM_MS;
+        streams.forEach((sessionId, stream) -> {
+            if (stream.lastPublished < cutoff) {
+                closeStream(sessionId);
+            }
+        });
+    }
+
+    /**
+     * Close a session's stream once the final frame has been delivered
+     *
+     * @param sessionId Game session ID
+     */
+    public void closeStream(Long sessionId) {
+        SpectatorStream stream = streams.get(sessionId);
+        if (stream == null) {
+            return;
+        }
+        // Runs behind any frames still waiting out the delay
+        streamExecutor.schedule(() -> {
+            stream.closed = true;
+            streams.remove(sessionId, stream);
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void deliver(Long sessionId, SpectatorStream stream, GameStateUpdate update, String gameStateJson) {
+        try {
+            JsonNode gameState = gameStateJson != null ? readState(gameStateJson) : stream.gameState;
+            long sequence = stream.frameSequence + 1;
+
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("sequence", sequence);
+            frame.put("type", update.getType());
+            frame.put("playerId", update.getPlayerId());
+            frame.put("data", update.getData());
+            frame.put("timestamp", update.getTimestamp());
+            if (update.getClock() != null) {
+                frame.put("clock", update.getClock());
+            }
+            if (gameStateJson != null) {
+                frame.put("gameState", gameState);
+            }
+
+            // Serialize once; the broker fans the same payload out to every viewer
+            byte[] payload = objectMapper.writeValueAsBytes(frame);
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            headers.setLeaveMutable(true);
+            Message<byte[]> message = MessageBuilder.createMessage(payload, headers.getMessageHeaders());
+            messagingTemplate.send("/topic/game/" + sessionId + "/spectate", message);
+
+            stream.gameState = gameState;
+            stream.frameSequence = sequence;
+            stream.lastFrameAt = update.getTimestamp();
+        } catch (Exception e) {
+            logger.warn("Failed to deliver spectator frame for session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private JsonNode readState(String gameStateJson) {
+        if (gameStateJson == null || gameStateJson.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode state = objectMapper.readTree(gameStateJson);
+            // Private engine state (e.g. UNO hands) is never shown to viewers
+            if (state instanceof ObjectNode) {
+                ((ObjectNode) state).remove(GameSessionService.privateKeys(state));
+            }
+            return state;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,120 @@
+package com.gameverse.service;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timer wheel shared by all turn clocks
+ *
+ * One thread advances the wheel every tick and hands expired tasks to an
+ * executor, so scheduling and cancelling a timeout are O(1) no matter how many
+ * sessions are running. Buckets are only touched by the wheel thread; new
+ * timeouts are queued and moved into their bucket on the next tick.
+ */
+final class TimerWheel {
+
+    /**
+     * Handle for a scheduled task
+     */
+    static final class Timeout {
+        private final long deadlineTick;
+        private final Runnable task;
+        private volatile boolean cancelled;
+
+        private Timeout(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout>[] buckets;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Executor executor;
+    private final Thread worker;
+
+    private final long startNanos = System.nanoTime();
+    private volatile boolean running = true;
+
+    /**
+     * @param tickMs Wheel resolution
+     * @param bucketCount Number of buckets, rounded up to a power of two
+     * @param executor Runs expired tasks, off the wheel thread
+     */
+    @SuppressWarnings("unchecked")
+    TimerWheel(long tickMs, int bucketCount, Executor executor, String threadName) {
+        int size = Integer.highestOneBit(Math.max(bucketCount - 1, 1)) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.mask = size - 1;
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.executor = executor;
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Run the task once the delay has passed, rounded up to the next tick
+     */
+    Timeout schedule(Runnable task, long delayMs) {
+        long deadlineNanos = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(delayMs, 0));
+        Timeout timeout = new Timeout((deadlineNanos + tickNanos - 1) / tickNanos, task);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long sleepNanos = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            tick++;
+
+            Timeout timeout;
+            while ((timeout = pending.poll()) != null) {
+                if (!timeout.cancelled) {
+                    // Deadlines that already passed fire in the current bucket
+                    buckets[(int) (Math.max(timeout.deadlineTick, tick) & mask)].add(timeout);
+                }
+            }
+
+            Iterator<Timeout> it = buckets[(int) (tick & mask)].iterator();
+            while (it.hasNext()) {
+                Timeout entry = it.next();
+                if (entry.cancelled) {
+                    it.remove();
+                } else if (entry.deadlineTick <= tick) {
+                    it.remove();
+                    try {
+                        executor.execute(entry.task);
+                    } catch (RuntimeException e) {
+                        // Executor shut down or saturated; the wheel itself must keep turning
+                    }
+                }
+            }
+        }
+    }
+}
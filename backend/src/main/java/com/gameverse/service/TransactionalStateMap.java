@@ -0,0 +1,146 @@
+package com.gameverse.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Live per-session engine objects whose changes become visible on commit
+ *
+ * Inside a transaction, edit() hands out a working copy bound to that
+ * transaction; later reads in the same transaction see the copy while every
+ * other thread keeps seeing the committed object. The copy replaces it after
+ * commit and is dropped on rollback, so the in-memory game never runs ahead
+ * of the saved one. Outside a transaction the committed object is edited in
+ * place, as before.
+ *
+ * Callers synchronize on the object they read or change. The object replaced
+ * on commit is kept as a spare and recycled by the copier for the next move.
+ *
+ * @param <T> Engine object type
+ */
+final class TransactionalStateMap<T> {
+
+    private final Map<Long, T> committed = new ConcurrentHashMap<>();
+    private final Map<Long, T> spares = new ConcurrentHashMap<>();
+
+    // (source, spare or null) -> copy of source
+    private final BiFunction<T, T, T> copier;
+
+    TransactionalStateMap(BiFunction<T, T, T> copier) {
+        this.copier = copier;
+    }
+
+    /**
+     * The object this thread should see: its own working copy, or the committed one
+     */
+    T get(Long sessionId) {
+        T working = pending().get(sessionId);
+        return working != null ? working : committed.get(sessionId);
+    }
+
+    /**
+     * get(), loading the committed object from saved state when there is none
+     *
+     * @param loader Builds the object from committed state; may return null
+     */
+    T load(Long sessionId, Supplier<T> loader) {
+        T current = get(sessionId);
+        if (current != null) {
+            return current;
+        }
+        T loaded = loader.get();
+        return loaded != null ? committed.computeIfAbsent(sessionId, id -> loaded) : null;
+    }
+
+    /**
+     * Install a new object unless the session already has one; created only once however many callers race
+     *
+     * @return The session's object
+     */
+    T create(Long sessionId, Supplier<T> factory) {
+        T current = get(sessionId);
+        if (current != null) {
+            return current;
+        }
+        boolean[] created = new boolean[1];
+        T result = committed.computeIfAbsent(sessionId, id -> {
+            created[0] = true;
+            return factory.get();
+        });
+        if (created[0] && TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A deal that is never saved must not outlive its transaction
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        committed.remove(sessionId, result);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Object to apply a change to
+     *
+     * @param current Object returned by get() or load()
+     */
+    T edit(Long sessionId, T current) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return current;
+        }
+        Map<Long, T> pending = pending();
+        T working = pending.get(sessionId);
+        if (working != null) {
+            return working;
+        }
+        if (TransactionSynchronizationManager.getResource(this) == null) {
+            bind(pending);
+        }
+        synchronized (current) {
+            working = copier.apply(current, spares.remove(sessionId));
+        }
+        pending.put(sessionId, working);
+        return working;
+    }
+
+    void remove(Long sessionId) {
+        committed.remove(sessionId);
+        spares.remove(sessionId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, T> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Map.of();
+        }
+        Map<Long, T> pending = (Map<Long, T>) TransactionSynchronizationManager.getResource(this);
+        return pending != null ? pending : new HashMap<>();
+    }
+
+    private void bind(Map<Long, T> pending) {
+        TransactionSynchronizationManager.bindResource(this, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TransactionalStateMap.this);
+                if (status != STATUS_COMMITTED) {
+                    return;
+                }
+                pending.forEach((sessionId, working) ->
+                    // A session released meanwhile (e.g. it just ended) stays released
+                    committed.computeIfPresent(sessionId, (id, previous) -> {
+                        spares.put(id, previous);
+                        return working;
+                    }));
+            }
+        });
+    }
+}
@@ -0,0 +1,326 @@
+package com.gameverse.service;
+
+import com.gameverse.entity.GameSession;
+import com.gameverse.event.TurnTimeoutEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-authoritative clocks for turn-based games
+ *
+ * CHESS runs a game clock per player with an increment per move; UNO gives
+ * every turn a fixed time limit. LUDO and RUMMY are untimed: their generic
+ * moves do not say when a turn ends, so a clock could never hand the turn on
+ * and would forfeit players who are still playing. Clocks live in memory and their
+ * deadlines sit on one shared timer wheel. When a deadline passes a
+ * TurnTimeoutEvent is published and GameSessionService auto-passes the turn or
+ * ends the game. Chess clock times are also written into the game state under
+ * "clocks" so a restarted server resumes them.
+ */
+@Service
+public class TurnClockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TurnClockService.class);
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${gameverse.games.clock.chess-initial-ms:600000}")
+    private long chessInitialMs;
+
+    @Value("${gameverse.games.clock.chess-increment-ms:5000}")
+    private long chessIncrementMs;
+
+    @Value("${gameverse.games.clock.turn-limit-ms:30000}")
+    private long turnLimitMs;
+
+    @Value("${gameverse.games.clock.max-missed-turns:3}")
+    private int maxMissedTurns;
+
+    private final Map<Long, SessionClock> clocks = new ConcurrentHashMap<>();
+
+    private final ExecutorService timeoutExecutor = Executors.newFixedThreadPool(2, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "turn-clock-timeout-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final TimerWheel wheel = new TimerWheel(100, 512, timeoutExecutor, "turn-clock-wheel");
+
+    /**
+     * Clock state of one session; all access is synchronized on the instance
+     */
+    private static class SessionClock {
+        private final boolean gameClock;
+        private final long[] players;
+        private final long[] remainingMs;
+        private final int[] missedTurns;
+        private final boolean[] forfeited;
+        private int currentSeat = -1;
+        private long turnStartedAt;
+        private long turnDeadline;
+        private long turn;
+        private TimerWheel.Timeout timeout;
+
+        SessionClock(boolean gameClock, long[] players) {
+            this.gameClock = gameClock;
+            this.players = players;
+            this.remainingMs = new long[players.length];
+            this.missedTurns = new int[players.length];
+            this.forfeited = new boolean[players.length];
+        }
+
+        int seatOf(Long playerId) {
+            for (int seat = 0; seat < players.length; seat++) {
+                if (playerId != null && players[seat] == playerId) {
+                    return seat;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Whether sessions of this game type run on a clock
+     */
+    public static boolean isTimed(GameSession.GameType gameType) {
+        return gameType == GameSession.GameType.CHESS
+            || gameType == GameSession.GameType.UNO;
+    }
+
+    /**
+     * Start the session's clock unless it is already running
+     *
+     * @param playerOrder Players in turn order
+     * @param currentPlayer Player whose turn it is
+     * @param savedClocks Chess times previously written to the game state, or null
+     */
+    public void start(Long sessionId, GameSession.GameType gameType, List<?> playerOrder, Long currentPlayer,
+                      Object savedClocks) {
+        if (!isTimed(gameType) || playerOrder == null || playerOrder.size() < 2 || clocks.containsKey(sessionId)) {
+            return;
+        }
+        long[] players = new long[playerOrder.size()];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = ((Number) playerOrder.get(i)).longValue();
+        }
+
+        SessionClock clock = new SessionClock(gameType == GameSession.GameType.CHESS, players);
+        for (int seat = 0; seat < players.length; seat++) {
+            Object saved = savedClocks instanceof Map ? ((Map<?, ?>) savedClocks).get(String.valueOf(players[seat])) : null;
+            clock.remainingMs[seat] = saved instanceof Number ? ((Number) saved).longValue() : chessInitialMs;
+        }
+
+        if (clocks.putIfAbsent(sessionId, clock) == null) {
+            synchronized (clock) {
+                int seat = clock.seatOf(currentPlayer);
+                startTurn(sessionId, clock, seat >= 0 ? seat : 0);
+            }
+        }
+    }
+
+    public boolean isRunning(Long sessionId) {
+        return clocks.containsKey(sessionId);
+    }
+
+    /**
+     * Whether the player's time ran out on the current turn (their move is too late)
+     */
+    public boolean hasExpired(Long sessionId, Long playerId) {
+        SessionClock clock = clocks.get(sessionId);
+        if (clock == null) {
+            return false;
+        }
+        synchronized (clock) {
+            return clock.seatOf(playerId) == clock.currentSeat && now() >= clock.turnDeadline;
+        }
+    }
+
+    /**
+     * Whether a timeout event still refers to the turn in progress
+     */
+    public boolean isCurrentTurn(Long sessionId, long turn) {
+        SessionClock clock = clocks.get(sessionId);
+        if (clock == null) {
+            return false;
+        }
+        synchronized (clock) {
+            return clock.turn == turn;
+        }
+    }
+
+    /**
+     * Charge the mover for the turn and start the next player's turn
+     *
+     * @param timedOut Whether the turn ended because the clock ran out
+     * @return Clock snapshot for the broadcast update
+     */
+    public Map<String, Object> passTurn(Long sessionId, Long mover, Long nextPlayer, boolean timedOut) {
+        SessionClock clock = clocks.get(sessionId);
+        if (clock == null) {
+            return null;
+        }
+        synchronized (clock) {
+            int seat = clock.seatOf(mover);
+            if (seat >= 0 && seat == clock.currentSeat) {
+                if (clock.gameClock) {
+                    long remaining = clock.remainingMs[seat] - (now() - clock.turnStartedAt);
+                    clock.remainingMs[seat] = Math.max(remaining, 0) + (timedOut ? 0 : chessIncrementMs);
+                }
+                if (!timedOut) {
+                    clock.missedTurns[seat] = 0;
+                }
+            }
+            int next = clock.seatOf(nextPlayer);
+            startTurn(sessionId, clock, next >= 0 ? next : clock.currentSeat);
+            return snapshot(clock);
+        }
+    }
+
+    /**
+     * Count a turn the player let run out
+     *
+     * @return true once the player has missed too many turns in a row and should forfeit
+     */
+    public boolean recordMissedTurn(Long sessionId, Long playerId) {
+        SessionClock clock = clocks.get(sessionId);
+        if (clock == null) {
+            return false;
+        }
+        synchronized (clock) {
+            int seat = clock.seatOf(playerId);
+            return seat >= 0 && ++clock.missedTurns[seat] >= maxMissedTurns;
+        }
+    }
+
+    /**
+     * Forfeited players keep their seat but their turns expire immediately
+     */
+    public void markForfeited(Long sessionId, Long playerId) {
+        SessionClock clock = clocks.get(sessionId);
+        if (clock == null) {
+            return;
+        }
+        synchronized (clock) {
+            int seat = clock.seatOf(playerId);
+            if (seat >= 0) {
+                clock.forfeited[seat] = true;
+            }
+        }
+    }
+
+    /**
+     * Current clock state, or null if the session has no clock
+     */
+    public Map<String, Object> getSnapshot(Long sessionId) {
+        SessionClock clock = clocks.get(sessionId);
+        if (clock == null) {
+            return null;
+        }
+        synchronized (clock) {
+            return snapshot(clock);
+        }
+    }
+
+    /**
+     * Chess times keyed by player ID, for persisting in the game state
+     */
+    public Map<String, Long> getRemainingTimes(Long sessionId) {
+        SessionClock clock = clocks.get(sessionId);
+        if (clock == null || !clock.gameClock) {
+            return null;
+        }
+        synchronized (clock) {
+            return remainingTimes(clock);
+        }
+    }
+
+    /**
+     * Stop the session's clock
+     */
+    public void release(Long sessionId) {
+        SessionClock clock = clocks.remove(sessionId);
+        if (clock != null) {
+            synchronized (clock) {
+                if (clock.timeout != null) {
+                    clock.timeout.cancel();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        timeoutExecutor.shutdownNow();
+    }
+
+    private void startTurn(Long sessionId, SessionClock clock, int seat) {
+        if (clock.timeout != null) {
+            clock.timeout.cancel();
+        }
+        long limit = clock.forfeited[seat] ? 0 : clock.gameClock ? clock.remainingMs[seat] : turnLimitMs;
+        long turn = ++clock.turn;
+        long playerId = clock.players[seat];
+
+        clock.currentSeat = seat;
+        clock.turnStartedAt = now();
+        clock.turnDeadline = clock.turnStartedAt + limit;
+        clock.timeout = wheel.schedule(() -> {
+            try {
+                eventPublisher.publishEvent(new TurnTimeoutEvent(sessionId, playerId, turn));
+            } catch (Exception e) {
+                logger.warn("Failed to handle turn timeout for session {}: {}", sessionId, e.getMessage());
+            }
+        }, limit);
+    }
+
+    private Map<String, Object> snapshot(SessionClock clock) {
+        long now = now();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("currentPlayer", clock.players[clock.currentSeat]);
+        snapshot.put("turnRemainingMs", Math.max(clock.turnDeadline - now, 0));
+        if (clock.gameClock) {
+            snapshot.put("remainingMs", remainingTimes(clock));
+            snapshot.put("incrementMs", chessIncrementMs);
+        } else {
+            snapshot.put("turnLimitMs", turnLimitMs);
+        }
+        snapshot.put("serverTime", System.currentTimeMillis());
+        return snapshot;
+    }
+
+    private Map<String, Long> remainingTimes(SessionClock clock) {
+        long elapsed = now() - clock.turnStartedAt;
+        Map<String, Long> remaining = new LinkedHashMap<>();
+        for (int seat = 0; seat < clock.players.length; seat++) {
+            long ms = clock.remainingMs[seat] - (seat == clock.currentSeat ? elapsed : 0);
+            remaining.put(String.valueOf(clock.players[seat]), Math.max(ms, 0));
+        }
+        return remaining;
+    }
+
+    // Monotonic milliseconds
+    private static long now() {
+        return System.nanoTime() / 1_000_000;
+    }
+}
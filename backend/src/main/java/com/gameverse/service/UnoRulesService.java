@@ -0,0 +1,218 @@
+package com.gameverse.service;
+
+import com.gameverse.engine.uno.UnoCard;
+import com.gameverse.engine.uno.UnoGame;
+import com.gameverse.service.GameSessionService.GameStateUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-side UNO rules for game sessions
+ *
+ * The authoritative game lives in memory as a UnoGame and is persisted in the
+ * game state under the private "_uno" key (stripped from anything sent to
+ * clients). The public part of the state carries the top card, current color,
+ * turn, direction and hand sizes; each player's hand goes only to that player
+ * on /user/queue/game/{sessionId}/hand. A move is played on a working copy
+ * that replaces the live game only when the move's transaction commits, and a
+ * session is dealt once however many players open it at the same time.
+ *
+ * Moves: CARD_PLAY {"card": {"color": "red", "value": 7}, "chosenColor": "blue"}
+ * and DRAW_CARD (draw one card and pass).
+ */
+@Service
+public class UnoRulesService {
+
+    public static final String STATE_KEY = "_uno";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final TransactionalStateMap<UnoGame> games = new TransactionalStateMap<>(
+        (source, spare) -> UnoGame.fromBytes(source.toBytes()));
+    private final SecureRandom seedSource = new SecureRandom();
+
+    /**
+     * Deal a new game if the session has none yet
+     *
+     * @return true if the game state was changed and needs saving
+     */
+    public boolean initialize(Long sessionId, Map<String, Object> gameState) {
+        if (gameState.containsKey(STATE_KEY)) {
+            return false;
+        }
+        List<?> playerOrder = (List<?>) gameState.get("playerOrder");
+        if (playerOrder == null || playerOrder.size() < 2) {
+            return false;
+        }
+        long[] players = new long[playerOrder.size()];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = ((Number) playerOrder.get(i)).longValue();
+        }
+        // Racing callers all get the one deal and all write it; the saves are identical
+        UnoGame game = games.create(sessionId, () -> UnoGame.deal(players, seedSource.nextLong()));
+        synchronized (game) {
+            writeState(game, gameState);
+        }
+        return true;
+    }
+
+    public boolean validateMove(Long sessionId, Map<String, Object> gameState, Long playerId, GameStateUpdate update) {
+        UnoGame game = getGame(sessionId, gameState);
+        if (game == null) {
+            return false;
+        }
+        synchronized (game) {
+            int seat = game.seatOf(playerId);
+            if (seat < 0) {
+                return false;
+            }
+            return switch (update.getType()) {
+                case "CARD_PLAY" -> game.canPlay(seat, parseCard(update.getData()), parseChosenColor(update.getData()));
+                case "DRAW_CARD" -> game.canDraw(seat);
+                default -> false;
+            };
+        }
+    }
+
+    public void applyMove(Long sessionId, Map<String, Object> gameState, GameStateUpdate update) {
+        UnoGame game = getGame(sessionId, gameState);
+        if (game == null) {
+            throw new RuntimeException("UNO game not started");
+        }
+        game = games.edit(sessionId, game);
+        synchronized (game) {
+            int seat = game.seatOf(update.getPlayerId());
+            switch (update.getType()) {
+                case "CARD_PLAY" -> {
+                    byte card = parseCard(update.getData());
+                    game.play(seat, card, parseChosenColor(update.getData()));
+                    gameState.put("lastCard", UnoCard.toMap(card));
+                }
+                case "DRAW_CARD" -> game.drawAndPass(seat);
+                default -> throw new RuntimeException("Invalid move");
+            }
+            writeState(game, gameState);
+        }
+    }
+
+    /**
+     * Pass the turn of a player who ran out of time: they draw one card
+     */
+    public void autoPass(Long sessionId, Map<String, Object> gameState, Long playerId) {
+        UnoGame game = getGame(sessionId, gameState);
+        if (game == null) {
+            return;
+        }
+        game = games.edit(sessionId, game);
+        synchronized (game) {
+            int seat = game.seatOf(playerId);
+            if (game.canDraw(seat)) {
+                game.drawAndPass(seat);
+                writeState(game, gameState);
+            }
+        }
+    }
+
+    /**
+     * @return The winner's user ID, or null while the game is running
+     */
+    public Long getWinner(Long sessionId, Map<String, Object> gameState) {
+        UnoGame game = getGame(sessionId, gameState);
+        if (game == null) {
+            return null;
+        }
+        synchronized (game) {
+            return game.isFinished() ? game.playerAt(game.getWinnerSeat()) : null;
+        }
+    }
+
+    /**
+     * Send every player their own hand
+     */
+    public void sendHands(Long sessionId, Map<String, Object> gameState) {
+        UnoGame game = getGame(sessionId, gameState);
+        if (game == null) {
+            return;
+        }
+        synchronized (game) {
+            for (int seat = 0; seat < game.playerCount(); seat++) {
+                sendHand(sessionId, game, seat);
+            }
+        }
+    }
+
+    /**
+     * Send one player their hand, e.g. when they (re)subscribe
+     */
+    public void sendHand(Long sessionId, Map<String, Object> gameState, Long playerId) {
+        UnoGame game = getGame(sessionId, gameState);
+        if (game == null) {
+            return;
+        }
+        synchronized (game) {
+            int seat = game.seatOf(playerId);
+            if (seat >= 0) {
+                sendHand(sessionId, game, seat);
+            }
+        }
+    }
+
+    public void release(Long sessionId) {
+        games.remove(sessionId);
+    }
+
+    private void sendHand(Long sessionId, UnoGame game, int seat) {
+        byte[] hand = game.getHand(seat);
+        List<Map<String, Object>> cards = new ArrayList<>(hand.length);
+        for (byte card : hand) {
+            cards.add(UnoCard.toMap(card));
+        }
+        messagingTemplate.convertAndSendToUser(
+            String.valueOf(game.playerAt(seat)),
+            "/queue/game/" + sessionId + "/hand",
+            Map.of("sessionId", sessionId, "cards", cards)
+        );
+    }
+
+    private UnoGame getGame(Long sessionId, Map<String, Object> gameState) {
+        return games.load(sessionId, () -> {
+            Object encoded = gameState.get(STATE_KEY);
+            return encoded instanceof String ? UnoGame.fromBytes(Base64.getDecoder().decode((String) encoded)) : null;
+        });
+    }
+
+    private void writeState(UnoGame game, Map<String, Object> gameState) {
+        gameState.put(STATE_KEY, Base64.getEncoder().encodeToString(game.toBytes()));
+
+        Map<String, Integer> handSizes = new LinkedHashMap<>();
+        for (int seat = 0; seat < game.playerCount(); seat++) {
+            handSizes.put(String.valueOf(game.playerAt(seat)), game.getHandSize(seat));
+        }
+        gameState.put("topCard", UnoCard.toMap(game.getTopCard()));
+        gameState.put("currentColor", UnoCard.colorName(game.getCurrentColor()));
+        gameState.put("currentPlayer", game.playerAt(game.getCurrentSeat()));
+        gameState.put("direction", game.getDirection());
+        gameState.put("handSizes", handSizes);
+        gameState.put("drawPileSize", game.getDrawPileSize());
+        if (game.isFinished()) {
+            gameState.put("winner", game.playerAt(game.getWinnerSeat()));
+        }
+    }
+
+    private static byte parseCard(Object data) {
+        return data instanceof Map ? UnoCard.parse(((Map<?, ?>) data).get("card")) : UnoCard.INVALID;
+    }
+
+    private static int parseChosenColor(Object data) {
+        return data instanceof Map ? UnoCard.parseColor(((Map<?, ?>) data).get("chosenColor")) : -1;
+    }
+}
@@ -0,0 +1,36 @@
+package com.gameverse.engine.chess;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks move generation against the published perft node counts
+ */
+class ChessPositionPerftTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @ParameterizedTest
+    @CsvSource({
+        "1, 20",
+        "2, 400",
+        "3, 8902",
+        "4, 197281"
+    })
+    void startPosition(int depth, long nodes) {
+        assertEquals(nodes, ChessPosition.startPosition().perft(depth));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "1, 48",
+        "2, 2039",
+        "3, 97862",
+        "4, 4085603"
+    })
+    void kiwipete(int depth, long nodes) {
+        assertEquals(nodes, ChessPosition.fromFen(KIWIPETE).perft(depth));
+    }
+}
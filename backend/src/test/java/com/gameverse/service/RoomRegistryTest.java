@@ -0,0 +1,227 @@
+package com.gameverse.service;
+
+import com.gameverse.entity.Room;
+import com.gameverse.repository.RoomParticipantRepository;
+import com.gameverse.repository.RoomRepository;
+import com.gameverse.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs several room registries against one shared seat counter standing in
+ * for rooms.current_count, to check the seat lease and eviction paths
+ */
+class RoomRegistryTest {
+
+    private static final String ROOM_ID = "room_test";
+    private static final int CAPACITY = 5;
+    private static final int LEASE_BLOCK = 2;
+
+    // rooms.current_count of the room, shared by every node
+    private final AtomicInteger seats = new AtomicInteger();
+    // Lease updates run against it
+    private final AtomicInteger leases = new AtomicInteger();
+
+    private RoomRepository roomRepository;
+
+    @BeforeEach
+    void resetSeats() {
+        seats.set(0);
+        leases.set(0);
+        roomRepository = mock(RoomRepository.class);
+        when(roomRepository.findById(ROOM_ID))
+            .thenAnswer(invocation -> Optional.of(new Room(ROOM_ID, "Test", null, CAPACITY)));
+    }
+
+    @Test
+    void nodesNeverOverfillARoomTogether() throws Exception {
+        List<RoomRegistry> nodes = List.of(newNode(), newNode(), newNode());
+        ExecutorService pool = Executors.newFixedThreadPool(12);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> joins = new ArrayList<>();
+        try {
+            for (long userId = 1; userId <= 30; userId++) {
+                RoomRegistry node = nodes.get((int) (userId % nodes.size()));
+                long user = userId;
+                joins.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        node.join(ROOM_ID, user);
+                        return true;
+                    } catch (IllegalArgumentException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int joined = 0;
+            for (Future<Boolean> join : joins) {
+                joined += join.get(10, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertEquals(CAPACITY, joined);
+            assertEquals(CAPACITY, seats.get());
+            assertEquals(CAPACITY, nodes.stream().mapToInt(node -> node.getCount(ROOM_ID)).sum());
+
+            // Every leased seat is held by a member, so the flush has none to give back
+            nodes.forEach(RoomRegistry::flush);
+            assertEquals(CAPACITY, seats.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void joinsAreServedFromTheLeasedBlock() {
+        RoomRegistry node = newNode();
+        node.join(ROOM_ID, 1L);
+        node.join(ROOM_ID, 2L);
+        assertEquals(1, leases.get());
+        assertEquals(LEASE_BLOCK, seats.get());
+
+        node.join(ROOM_ID, 3L);
+        assertEquals(2, leases.get());
+        assertEquals(2 * LEASE_BLOCK, seats.get());
+
+        // The unused seat of the second block is given back
+        node.flush();
+        assertEquals(3, seats.get());
+
+        // A leave's seat is reused by the next join without a lease
+        node.leave(ROOM_ID, 3L);
+        node.join(ROOM_ID, 4L);
+        assertEquals(2, leases.get());
+        node.flush();
+        assertEquals(3, seats.get());
+    }
+
+    @Test
+    void refusedSeatGivesBackTheLocalSlot() {
+        RoomRegistry node = newNode();
+        seats.set(CAPACITY);
+
+        assertThrows(IllegalArgumentException.class, () -> node.join(ROOM_ID, 1L));
+        assertEquals(0, node.getCount(ROOM_ID));
+        assertFalse(node.isMember(ROOM_ID, 1L));
+
+        // Nothing is left claimed, so the empty room can be evicted
+        node.flush();
+        node.evictEmptyRooms();
+        seats.set(0);
+        node.join(ROOM_ID, 2L);
+        verify(roomRepository, times(2)).findById(ROOM_ID);
+    }
+
+    @Test
+    void leaveReleasesTheSeatAndEmptyRoomIsReloaded() {
+        RoomRegistry node = newNode();
+        node.join(ROOM_ID, 1L);
+        assertEquals(LEASE_BLOCK, seats.get());
+
+        assertNotNull(node.leave(ROOM_ID, 1L));
+        assertEquals(0, node.getCount(ROOM_ID));
+
+        // Not evicted while the leave is unwritten and its seats are leased
+        node.evictEmptyRooms();
+        node.flush();
+        assertEquals(0, seats.get());
+        verify(roomRepository, times(1)).findById(ROOM_ID);
+
+        node.evictEmptyRooms();
+        node.join(ROOM_ID, 1L);
+        assertEquals(1, node.getCount(ROOM_ID));
+        assertEquals(LEASE_BLOCK, seats.get());
+        verify(roomRepository, times(2)).findById(ROOM_ID);
+    }
+
+    @Test
+    void joinMovesTheUserOutOfTheirPreviousRoom() {
+        when(roomRepository.findById("room_other"))
+            .thenAnswer(invocation -> Optional.of(new Room("room_other", "Other", null, CAPACITY)));
+        RoomRegistry node = newNode();
+        node.join("room_other", 1L);
+
+        RoomRegistry.MembershipEvent join = node.join(ROOM_ID, 1L);
+
+        assertNotNull(join.getLeft());
+        assertEquals("room_other", join.getLeft().getRoomId());
+        assertEquals(ROOM_ID, node.getCurrentRoom(1L));
+        assertFalse(node.isMember("room_other", 1L));
+        assertEquals(0, node.getCount("room_other"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private RoomRegistry newNode() {
+        RoomRegistry registry = new RoomRegistry();
+        RoomParticipantRepository participants = mock(RoomParticipantRepository.class);
+        UserRepository users = mock(UserRepository.class);
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+
+        when(participants.findActiveMemberRowsByRoomId(anyString())).thenReturn(List.of());
+        when(users.findMemberInfoRows(anyLong()))
+            .thenAnswer(invocation -> List.<Object[]>of(new Object[] { invocation.getArgument(0), "Player", null }));
+
+        // Block lease: conditional increment of rooms.current_count by up to LEASE_BLOCK
+        when(jdbc.execute(any(ConnectionCallback.class)))
+            .thenAnswer(invocation -> {
+                leases.incrementAndGet();
+                while (true) {
+                    int current = seats.get();
+                    int granted = Math.min(LEASE_BLOCK, CAPACITY - current);
+                    if (granted <= 0) {
+                        return 0;
+                    }
+                    if (seats.compareAndSet(current, current + granted)) {
+                        return granted;
+                    }
+                }
+            });
+        // Batched seat releases
+        when(jdbc.batchUpdate(startsWith("UPDATE rooms SET current_count = GREATEST"), any(List.class)))
+            .thenAnswer(invocation -> {
+                List<Object[]> rows = invocation.getArgument(1);
+                rows.forEach(row -> seats.addAndGet(-(Integer) row[0]));
+                return new int[rows.size()];
+            });
+        // Membership rows: every leave finds its row active
+        when(jdbc.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+            .thenAnswer(invocation -> {
+                Collection<?> rows = invocation.getArgument(1);
+                int[] updated = new int[rows.size()];
+                Arrays.fill(updated, 1);
+                return new int[][] { updated };
+            });
+
+        ReflectionTestUtils.setField(registry, "roomRepository", roomRepository);
+        ReflectionTestUtils.setField(registry, "participantRepository", participants);
+        ReflectionTestUtils.setField(registry, "userRepository", users);
+        ReflectionTestUtils.setField(registry, "jdbcTemplate", jdbc);
+        ReflectionTestUtils.setField(registry, "seatLeaseBlock", LEASE_BLOCK);
+        return registry;
+    }
+}
@@ -0,0 +1,376 @@
+package com.gameverse.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gameverse.controller.ClusterController;
+import com.gameverse.exception.RateLimitException;
+import com.gameverse.exception.ServiceBusyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs several backend nodes in one JVM, wired through an in-memory transport
+ * that calls the target node's ClusterController, to check that every move and
+ * owner-only session or room call ends up on its owner node
+ */
+class SessionOwnershipHarnessTest {
+
+    private static final List<String> NODE_IDS = List.of("node-a", "node-b", "node-c");
+    private static final String TOKEN = "secret";
+
+    // Stands in for the JSON round trip of HttpClusterTransport
+    private static final ObjectMapper JSON = new ObjectMapper().findAndRegisterModules();
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final Set<String> downNodes = new HashSet<>();
+
+    private static class Node {
+        private final String id;
+        private final SessionOwnershipService ownership = new SessionOwnershipService();
+        private final GameMoveService moves = new GameMoveService();
+        private final GameSessionService sessions = mock(GameSessionService.class);
+        private final GameChatService chat = mock(GameChatService.class);
+        private final SessionRoutingService routing = new SessionRoutingService();
+        private final RoomService rooms = mock(RoomService.class);
+        private final RoomBroadcaster broadcaster = mock(RoomBroadcaster.class);
+        private final RoomRoutingService roomRouting = new RoomRoutingService();
+        private final ClusterController cluster = new ClusterController();
+        private final AtomicLong serverSeq = new AtomicLong();
+
+        Node(String id) {
+            this.id = id;
+        }
+    }
+
+    @BeforeEach
+    void startCluster() {
+        StringBuilder members = new StringBuilder();
+        for (String id : NODE_IDS) {
+            members.append(members.length() > 0 ? "," : "").append(id).append("=mem://").append(id);
+        }
+
+        ClusterTransport transport = new ClusterTransport() {
+            @Override
+            public Map<String, Object> forwardMove(String nodeUrl, Long sessionId, Long userId,
+                                                   Map<String, Object> moveData) {
+                Map<String, Object> body = new HashMap<>();
+                body.put("userId", userId);
+                body.put("move", moveData);
+                return respond(target(nodeUrl).cluster.applyForwardedMove(sessionId, TOKEN, body));
+            }
+
+            @Override
+            public Map<String, Object> forwardSessionCall(String nodeUrl, Long sessionId, String operation,
+                                                          Map<String, Object> body) {
+                ClusterController cluster = target(nodeUrl).cluster;
+                return respond(switch (operation) {
+                    case "info" -> cluster.getForwardedSessionInfo(sessionId, TOKEN, body);
+                    case "presence" -> cluster.applyForwardedPresence(sessionId, TOKEN, body);
+                    case "chat" -> cluster.applyForwardedChat(sessionId, TOKEN, body);
+                    case "end" -> cluster.applyForwardedEnd(sessionId, TOKEN, body);
+                    default -> throw new IllegalArgumentException(operation);
+                });
+            }
+
+            @Override
+            public Map<String, Object> forwardRoomCall(String nodeUrl, String roomId, String operation,
+                                                       Map<String, Object> body) {
+                return respond(target(nodeUrl).cluster.applyForwardedRoomCall(roomId, operation, TOKEN, body));
+            }
+
+            @Override
+            public Map<String, Object> forwardUserCall(String nodeUrl, Long userId, String operation,
+                                                       Map<String, Object> body) {
+                return respond(target(nodeUrl).cluster.applyForwardedUserCall(userId, operation, TOKEN, body));
+            }
+
+            @Override
+            public void relayBroadcast(String nodeUrl, String destination, Object payload) {
+                Map<String, Object> body = new HashMap<>();
+                body.put("destination", destination);
+                body.put("payload", payload);
+                respond(target(nodeUrl).cluster.deliverBroadcast(TOKEN, body));
+            }
+        };
+
+        for (String id : NODE_IDS) {
+            Node node = new Node(id);
+            ReflectionTestUtils.setField(node.ownership, "nodeId", id);
+            ReflectionTestUtils.setField(node.ownership, "nodes", members.toString());
+            ReflectionTestUtils.setField(node.ownership, "virtualNodes", 128);
+            ReflectionTestUtils.setField(node.ownership, "clusterToken", TOKEN);
+            node.ownership.init();
+
+            ReflectionTestUtils.setField(node.moves, "gameSessionService", node.sessions);
+            ReflectionTestUtils.setField(node.moves, "moveSequenceService", new MoveSequenceService());
+            ReflectionTestUtils.setField(node.moves, "sessionOwnershipService", node.ownership);
+            ReflectionTestUtils.setField(node.moves, "clusterTransport", transport);
+
+            ReflectionTestUtils.setField(node.routing, "gameSessionService", node.sessions);
+            ReflectionTestUtils.setField(node.routing, "gameChatService", node.chat);
+            ReflectionTestUtils.setField(node.routing, "sessionOwnershipService", node.ownership);
+            ReflectionTestUtils.setField(node.routing, "clusterTransport", transport);
+
+            ReflectionTestUtils.setField(node.roomRouting, "roomService", node.rooms);
+            ReflectionTestUtils.setField(node.roomRouting, "sessionOwnershipService", node.ownership);
+            ReflectionTestUtils.setField(node.roomRouting, "clusterTransport", transport);
+
+            ReflectionTestUtils.setField(node.cluster, "gameMoveService", node.moves);
+            ReflectionTestUtils.setField(node.cluster, "gameSessionService", node.sessions);
+            ReflectionTestUtils.setField(node.cluster, "gameChatService", node.chat);
+            ReflectionTestUtils.setField(node.cluster, "sessionRoutingService", node.routing);
+            ReflectionTestUtils.setField(node.cluster, "roomRoutingService", node.roomRouting);
+            ReflectionTestUtils.setField(node.cluster, "roomBroadcaster", node.broadcaster);
+            ReflectionTestUtils.setField(node.cluster, "sessionOwnershipService", node.ownership);
+
+            when(node.sessions.isParticipant(anyLong(), anyLong())).thenReturn(true);
+            when(node.sessions.updateGameState(anyLong(), anyLong(), any()))
+                .thenAnswer(invocation -> node.serverSeq.incrementAndGet());
+            nodes.put(id, node);
+        }
+    }
+
+    @Test
+    void allNodesAgreeOnSessionOwners() {
+        Map<String, Integer> owned = new HashMap<>();
+        for (long sessionId = 1; sessionId <= 3000; sessionId++) {
+            String owner = nodes.get("node-a").ownership.ownerOf(sessionId);
+            for (Node node : nodes.values()) {
+                assertEquals(owner, node.ownership.ownerOf(sessionId));
+                assertEquals(node.id.equals(owner), node.ownership.isOwner(sessionId));
+            }
+            owned.merge(owner, 1, Integer::sum);
+        }
+
+        // Virtual nodes keep the split reasonably even
+        for (String id : NODE_IDS) {
+            assertTrue(owned.getOrDefault(id, 0) > 600, id + " owns " + owned.get(id) + " of 3000 sessions");
+        }
+    }
+
+    @Test
+    void movesAreAppliedOnlyOnTheOwner() {
+        for (long sessionId = 1; sessionId <= 90; sessionId++) {
+            Node entry = nodes.get(NODE_IDS.get((int) (sessionId % NODE_IDS.size())));
+            Map<String, Object> ack = entry.moves.submitMove(sessionId, 7L, move(1));
+            assertEquals("APPLIED", ack.get("status"));
+
+            String owner = entry.ownership.ownerOf(sessionId);
+            for (Node node : nodes.values()) {
+                verify(node.sessions, times(node.id.equals(owner) ? 1 : 0))
+                    .updateGameState(eq(sessionId), eq(7L), any());
+            }
+        }
+    }
+
+    @Test
+    void retryThroughAnotherNodeIsDeduplicatedOnTheOwner() {
+        long sessionId = 42;
+        String owner = nodes.get("node-a").ownership.ownerOf(sessionId);
+        List<Node> others = nodes.values().stream().filter(node -> !node.id.equals(owner)).toList();
+
+        Map<String, Object> first = others.get(0).moves.submitMove(sessionId, 7L, move(5));
+        Map<String, Object> retry = others.get(1).moves.submitMove(sessionId, 7L, move(5));
+
+        assertEquals("APPLIED", first.get("status"));
+        assertEquals("DUPLICATE", retry.get("status"));
+        assertEquals(first.get("serverSeq"), retry.get("serverSeq"));
+        verify(nodes.get(owner).sessions, times(1)).updateGameState(eq(sessionId), eq(7L), any());
+    }
+
+    @Test
+    void removingANodeOnlyMovesItsOwnSessions() {
+        SessionOwnershipService before = nodes.get("node-a").ownership;
+        Map<Long, String> owners = new HashMap<>();
+        for (long sessionId = 1; sessionId <= 1000; sessionId++) {
+            owners.put(sessionId, before.ownerOf(sessionId));
+        }
+
+        Map<String, String> remaining = new LinkedHashMap<>();
+        remaining.put("node-a", "mem://node-a");
+        remaining.put("node-b", "mem://node-b");
+        before.updateMembership(remaining);
+
+        for (long sessionId = 1; sessionId <= 1000; sessionId++) {
+            String owner = before.ownerOf(sessionId);
+            assertNotEquals("node-c", owner);
+            if (!owners.get(sessionId).equals("node-c")) {
+                assertEquals(owners.get(sessionId), owner, "session " + sessionId + " moved");
+            }
+        }
+    }
+
+    @Test
+    void unreachableOwnerRejectsTheMove() {
+        long sessionId = 42;
+        String owner = nodes.get("node-a").ownership.ownerOf(sessionId);
+        Node entry = nodes.values().stream().filter(node -> !node.id.equals(owner)).findFirst().orElseThrow();
+        downNodes.add(owner);
+
+        Map<String, Object> ack = entry.moves.submitMove(sessionId, 7L, move(1));
+
+        assertEquals("REJECTED", ack.get("status"));
+        assertEquals(1L, ack.get("seq"));
+        for (Node node : nodes.values()) {
+            verify(node.sessions, never()).updateGameState(anyLong(), anyLong(), any());
+        }
+    }
+
+    @Test
+    void presenceThroughANonOwnerIsTrackedOnTheOwner() {
+        long sessionId = 42;
+        String owner = nodes.get("node-a").ownership.ownerOf(sessionId);
+        Node entry = nodes.values().stream().filter(node -> !node.id.equals(owner)).findFirst().orElseThrow();
+
+        entry.routing.handlePlayerConnection(sessionId, 7L, "ws-1");
+        entry.routing.handlePlayerDisconnection(sessionId, 7L, "ws-1");
+
+        // Connection IDs carry the entry node, so two nodes' IDs never collide on the owner
+        String connectionId = entry.id + ":ws-1";
+        for (Node node : nodes.values()) {
+            int expected = node.id.equals(owner) ? 1 : 0;
+            verify(node.sessions, times(expected)).handlePlayerConnection(sessionId, 7L, connectionId);
+            verify(node.sessions, times(expected)).handlePlayerDisconnection(sessionId, 7L, connectionId);
+        }
+    }
+
+    @Test
+    void sessionInfoThroughANonOwnerComesFromTheOwner() {
+        long sessionId = 42;
+        String owner = nodes.get("node-a").ownership.ownerOf(sessionId);
+        Node entry = nodes.values().stream().filter(node -> !node.id.equals(owner)).findFirst().orElseThrow();
+        when(nodes.get(owner).sessions.getSessionInfo(sessionId, 7L)).thenReturn(
+            new GameSessionService.SessionInfo(sessionId, "CHESS", "IN_PROGRESS", List.of(), Map.of(), null, null));
+
+        Object info = entry.routing.getSessionInfo(sessionId, 7L);
+
+        assertTrue(info instanceof Map, "forwarded info arrives as the owner's JSON");
+        assertEquals("IN_PROGRESS", ((Map<?, ?>) info).get("status"));
+        for (Node node : nodes.values()) {
+            verify(node.sessions, times(node.id.equals(owner) ? 1 : 0)).getSessionInfo(sessionId, 7L);
+        }
+    }
+
+    @Test
+    void ownerRefusalReachesTheCaller() {
+        long sessionId = 42;
+        String owner = nodes.get("node-a").ownership.ownerOf(sessionId);
+        Node entry = nodes.values().stream().filter(node -> !node.id.equals(owner)).findFirst().orElseThrow();
+        when(nodes.get(owner).sessions.getSessionInfo(sessionId, 8L))
+            .thenThrow(new RuntimeException("Player not authorized for this session"));
+
+        RuntimeException refused = assertThrows(RuntimeException.class,
+            () -> entry.routing.getSessionInfo(sessionId, 8L));
+        assertEquals("Player not authorized for this session", refused.getMessage());
+
+        downNodes.add(owner);
+        RuntimeException unreachable = assertThrows(RuntimeException.class,
+            () -> entry.routing.getSessionInfo(sessionId, 7L));
+        assertEquals("Session owner unavailable", unreachable.getMessage());
+    }
+
+    @Test
+    void roomCallsThroughANonOwnerRunOnTheRoomOwner() {
+        String roomId = "room_42";
+        String owner = nodes.get("node-a").ownership.roomOwnerOf(roomId);
+        Node entry = nodes.values().stream().filter(node -> !node.id.equals(owner)).findFirst().orElseThrow();
+
+        entry.roomRouting.joinRoom(roomId, 7L);
+        entry.roomRouting.sendMessage(roomId, 7L, "hello");
+        entry.roomRouting.updateUserActivity(roomId, 7L);
+        entry.roomRouting.getMessagesAfter(roomId, 100L, 20);
+
+        for (Node node : nodes.values()) {
+            int expected = node.id.equals(owner) ? 1 : 0;
+            verify(node.rooms, times(expected)).joinRoom(roomId, 7L);
+            verify(node.rooms, times(expected)).sendMessage(roomId, 7L, "hello");
+            verify(node.rooms, times(expected)).updateUserActivity(roomId, 7L);
+            verify(node.rooms, times(expected)).getMessagesAfter(roomId, 100L, 20);
+        }
+    }
+
+    @Test
+    void joiningARoomOnAnotherNodeLeavesThePreviousRoom() {
+        String first = "room_1";
+        String firstOwner = nodes.get("node-a").ownership.roomOwnerOf(first);
+        String second = null;
+        for (int i = 2; second == null; i++) {
+            if (!nodes.get("node-a").ownership.roomOwnerOf("room_" + i).equals(firstOwner)) {
+                second = "room_" + i;
+            }
+        }
+
+        // Each join enters through a different node; the user's owner still sees both
+        nodes.get("node-a").roomRouting.joinRoom(first, 7L);
+        nodes.get("node-b").roomRouting.joinRoom(second, 7L);
+
+        verify(nodes.get(firstOwner).rooms).leaveRoom(first, 7L);
+
+        nodes.get("node-c").roomRouting.leaveAllRooms(7L);
+        String secondOwner = nodes.get("node-a").ownership.roomOwnerOf(second);
+        verify(nodes.get(secondOwner).rooms).leaveRoom(second, 7L);
+    }
+
+    @Test
+    void roomOwnerRefusalKeepsItsType() {
+        String roomId = "room_42";
+        String owner = nodes.get("node-a").ownership.roomOwnerOf(roomId);
+        Node entry = nodes.values().stream().filter(node -> !node.id.equals(owner)).findFirst().orElseThrow();
+        when(nodes.get(owner).rooms.sendMessage(roomId, 7L, "spam"))
+            .thenThrow(new RateLimitException("Too many messages", 1500));
+        when(nodes.get(owner).rooms.sendMessage(roomId, 8L, "hello"))
+            .thenThrow(new IllegalArgumentException("User is not an active participant in this room"));
+
+        RateLimitException limited = assertThrows(RateLimitException.class,
+            () -> entry.roomRouting.sendMessage(roomId, 7L, "spam"));
+        assertEquals(1500, limited.getRetryAfterMs());
+        assertThrows(IllegalArgumentException.class, () -> entry.roomRouting.sendMessage(roomId, 8L, "hello"));
+
+        downNodes.add(owner);
+        assertThrows(ServiceBusyException.class, () -> entry.roomRouting.sendMessage(roomId, 7L, "hello"));
+    }
+
+    @Test
+    void clusterTokenIsRequired() {
+        SessionOwnershipService ownership = nodes.get("node-a").ownership;
+        assertTrue(ownership.isTrusted("secret"));
+        assertFalse(ownership.isTrusted("wrong"));
+        assertFalse(ownership.isTrusted(null));
+    }
+
+    private Node target(String nodeUrl) {
+        String target = nodeUrl.substring("mem://".length());
+        if (downNodes.contains(target)) {
+            throw new RuntimeException("Connection refused");
+        }
+        return nodes.get(target);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> respond(ResponseEntity<?> response) {
+        return JSON.convertValue(response.getBody(), Map.class);
+    }
+
+    private static Map<String, Object> move(long seq) {
+        Map<String, Object> move = new HashMap<>();
+        move.put("type", "MOVE");
+        move.put("data", Map.of("from", "e2", "to", "e4"));
+        move.put("seq", seq);
+        return move;
+    }
+}
@@ -0,0 +1,13 @@
+-- Migration 005: Game Chat Messages Table
+-- Description: In-game chat history, written in batches apart from game state
+
+CREATE TABLE IF NOT EXISTS game_chat_messages (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    session_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    message VARCHAR(1000) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL,
+    FOREIGN KEY (session_id) REFERENCES game_sessions(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_session_created (session_id, created_at)
+);
@@ -0,0 +1,9 @@
+-- Migration 006: Game Settlements Table
+-- Description: Marks sessions whose scores, rewards and profile stats have been settled
+
+CREATE TABLE IF NOT EXISTS game_settlements (
+    session_id BIGINT PRIMARY KEY,
+    winner_id BIGINT NULL,
+    settled_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (session_id) REFERENCES game_sessions(id) ON DELETE CASCADE
+);
@@ -0,0 +1,6 @@
+-- Migration 007: Game Session Sweep Indexes
+-- Description: Composite indexes for the keyset-paginated stale session sweeper
+
+ALTER TABLE game_sessions
+    ADD INDEX idx_status_created (status, created_at),
+    ADD INDEX idx_status_started (status, started_at);
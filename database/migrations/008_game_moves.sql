@@ -0,0 +1,15 @@
+-- Migration 008: Game Moves Table
+-- Description: Per-session move log with periodic state snapshots, used for replay export
+
+CREATE TABLE IF NOT EXISTS game_moves (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    session_id BIGINT NOT NULL,
+    server_seq BIGINT NOT NULL,
+    player_id BIGINT NULL,
+    move_type VARCHAR(50) NOT NULL,
+    move_data JSON NULL,
+    state_snapshot JSON NULL,
+    created_at TIMESTAMP(3) NOT NULL,
+    FOREIGN KEY (session_id) REFERENCES game_sessions(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_session_seq (session_id, server_seq)
+);
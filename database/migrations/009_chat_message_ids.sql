@@ -0,0 +1,6 @@
+-- Migration 009: Application-Assigned Chat Message IDs
+-- Description: Chat messages are written in batches after they are broadcast, so their ids
+-- are assigned by the application (time-ordered, above any existing AUTO_INCREMENT value)
+
+ALTER TABLE chat_messages
+MODIFY COLUMN id BIGINT NOT NULL COMMENT 'Primary key, time-ordered id assigned by the application';
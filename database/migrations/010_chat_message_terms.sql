@@ -0,0 +1,13 @@
+-- Migration 010: Chat Search Postings
+-- Description: Inverted index for room chat search; one row per distinct term of a message,
+-- written by the application alongside the message. Messages written before this migration
+-- are not indexed.
+
+CREATE TABLE IF NOT EXISTS chat_message_terms (
+    room_id VARCHAR(20) NOT NULL,
+    term VARCHAR(32) NOT NULL,
+    message_id BIGINT NOT NULL,
+    PRIMARY KEY (room_id, term, message_id),
+    FOREIGN KEY (message_id) REFERENCES chat_messages(id) ON DELETE CASCADE,
+    INDEX idx_message_id (message_id)
+);
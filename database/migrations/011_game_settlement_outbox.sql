@@ -0,0 +1,11 @@
+-- Migration 011: Game Settlement Outbox
+-- Description: A session's settlement row is written as pending by the transaction that completes it
+-- and marked settled once scores, rewards and stats are applied, so settlement survives failures
+-- and restarts. Existing rows are all settled.
+
+ALTER TABLE game_settlements
+    ADD COLUMN game_type VARCHAR(20) NULL AFTER session_id,
+    ADD COLUMN final_scores JSON NULL AFTER winner_id,
+    ADD COLUMN created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    MODIFY settled_at TIMESTAMP NULL,
+    ADD INDEX idx_settled_created (settled_at, created_at);
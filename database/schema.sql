@@ -63,7 +63,9 @@ CREATE TABLE game_sessions (
     INDEX idx_game_type (game_type),
     INDEX idx_status (status),
     INDEX idx_session_code (session_code),
-    INDEX idx_created_at (created_at)
+    INDEX idx_created_at (created_at),
+    INDEX idx_status_created (status, created_at),
+    INDEX idx_status_started (status, started_at)
 );
 
 -- Game participants table - Players in each game session
@@ -84,6 +86,44 @@ CREATE TABLE game_participants (
     INDEX idx_joined_at (joined_at)
 );
 
+-- Game chat messages table - In-game chat history, batch written
+CREATE TABLE game_chat_messages (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    session_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    message VARCHAR(1000) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL,
+    FOREIGN KEY (session_id) REFERENCES game_sessions(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_session_created (session_id, created_at)
+);
+
+-- Game settlements table - Settlement outbox: pending when a session completes, settled once paid out
+CREATE TABLE game_settlements (
+    session_id BIGINT PRIMARY KEY,
+    game_type VARCHAR(20) NULL,
+    winner_id BIGINT NULL,
+    final_scores JSON NULL,
+    settled_at TIMESTAMP NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (session_id) REFERENCES game_sessions(id) ON DELETE CASCADE,
+    INDEX idx_settled_created (settled_at, created_at)
+);
+
+-- Game moves table - Move log with periodic state snapshots for replays
+CREATE TABLE game_moves (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    session_id BIGINT NOT NULL,
+    server_seq BIGINT NOT NULL,
+    player_id BIGINT NULL,
+    move_type VARCHAR(50) NOT NULL,
+    move_data JSON NULL,
+    state_snapshot JSON NULL,
+    created_at TIMESTAMP(3) NOT NULL,
+    FOREIGN KEY (session_id) REFERENCES game_sessions(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_session_seq (session_id, server_seq)
+);
+
 -- Rooms table - Virtual lobbies for socializing
 CREATE TABLE rooms (
     id VARCHAR(20) PRIMARY KEY,
@@ -173,9 +213,9 @@ CREATE TABLE gamecoin_transactions (
     INDEX idx_user_date (user_id, created_at)
 );
 
--- Chat messages table - Messages in rooms
+-- Chat messages table - Messages in rooms, ids are time-ordered and assigned by the application
 CREATE TABLE chat_messages (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id BIGINT PRIMARY KEY,
     room_id VARCHAR(20) NOT NULL,
     user_id BIGINT,
     message VARCHAR(1000) NOT NULL,
@@ -191,6 +231,16 @@ CREATE TABLE chat_messages (
     INDEX idx_room_created (room_id, created_at)
 );
 
+-- Chat message terms table - Inverted index for chat search, one row per distinct term of a message
+CREATE TABLE chat_message_terms (
+    room_id VARCHAR(20) NOT NULL,
+    term VARCHAR(32) NOT NULL,
+    message_id BIGINT NOT NULL,
+    PRIMARY KEY (room_id, term, message_id),
+    FOREIGN KEY (message_id) REFERENCES chat_messages(id) ON DELETE CASCADE,
+    INDEX idx_message_id (message_id)
+);
+
 -- OTP verification table - Temporary storage for authentication codes
 CREATE TABLE otp_verifications (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,